@@ -38,4 +38,25 @@ vaadin {
 
 tasks.test {
     useJUnitPlatform()
+    systemProperty("mcts.benchmark", providers.gradleProperty("mctsBenchmark").getOrElse("false"))
+}
+
+tasks.register<JavaExec>("trainValueModel") {
+    group = "mcts"
+    description = "Trains the bot's rollout value model by self-play and writes it to the resources."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.lafi.cardgame.nazdarbaby.mcts.ValueModelTrainer")
+    args(
+        layout.projectDirectory.file("src/main/resources/mcts/value-model.properties").asFile.path,
+        providers.gradleProperty("valueModelGames").getOrElse("100000")
+    )
+}
+
+tasks.register<JavaExec>("tuneMcts") {
+    group = "mcts"
+    description = "Tunes the bot's search parameters by self-play and writes the chosen config."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.lafi.cardgame.nazdarbaby.mcts.MctsTuner")
+    args(layout.buildDirectory.file("mcts/tuned.properties").get().asFile.path)
+    args(providers.gradleProperty("mctsTunerArgs").getOrElse("").split(" ").filter { it.isNotBlank() })
 }
@@ -0,0 +1,90 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.Collection;
+
+/**
+ * Compact codes of {@link MctsAction}s for {@link MctsTree}: the 52 cards take codes 0–51 and
+ * predictions of 0–10 takes the codes above them, so a set of actions fits in one {@code long}
+ * bit mask. Decoding returns shared action instances.
+ */
+final class ActionCodes {
+
+	static final int MAX_TAKES = 10;
+	static final int CARDS_PER_COLOR = 13;
+
+	private static final int MIN_CARD_VALUE = 2;
+	private static final int FIRST_PREDICTION = Color.values().length * CARDS_PER_COLOR;
+	private static final MctsAction[] ACTIONS = new MctsAction[FIRST_PREDICTION + MAX_TAKES + 1];
+
+	static {
+		// The full deck of four and more players
+		for (Card card : new CardProvider(4).getShuffledDeckOfCards()) {
+			ACTIONS[cardCode(card)] = new MctsAction.PlayCard(card);
+		}
+		for (int takes = 0; takes <= MAX_TAKES; takes++) {
+			ACTIONS[FIRST_PREDICTION + takes] = new MctsAction.PredictTakes(takes);
+		}
+	}
+
+	private ActionCodes() {
+	}
+
+	static int encode(MctsAction action) {
+		return switch (action) {
+			case MctsAction.PlayCard(Card card) -> cardCode(card);
+			case MctsAction.PredictTakes(int takes) -> {
+				if (takes < 0 || takes > MAX_TAKES) {
+					throw new IllegalArgumentException("Prediction out of range: " + takes);
+				}
+				yield FIRST_PREDICTION + takes;
+			}
+		};
+	}
+
+	static MctsAction decode(int code) {
+		return ACTIONS[code];
+	}
+
+	static long mask(MctsAction action) {
+		return 1L << encode(action);
+	}
+
+	static long mask(Collection<MctsAction> actions) {
+		long mask = 0;
+		for (MctsAction action : actions) {
+			mask |= mask(action);
+		}
+		return mask;
+	}
+
+	static long cardMask(Card card) {
+		return 1L << cardCode(card);
+	}
+
+	static long cardMask(Collection<Card> cards) {
+		long mask = 0;
+		for (Card card : cards) {
+			mask |= cardMask(card);
+		}
+		return mask;
+	}
+
+	/**
+	 * Mask of every card code, whether the deck of the current table size contains the card or not.
+	 */
+	static long allCardsMask() {
+		return (1L << FIRST_PREDICTION) - 1;
+	}
+
+	static boolean isCard(int code) {
+		return code < FIRST_PREDICTION;
+	}
+
+	static int cardCode(Card card) {
+		return card.getColor().ordinal() * CARDS_PER_COLOR + card.getValue() - MIN_CARD_VALUE;
+	}
+}
@@ -0,0 +1,51 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.time.Duration;
+
+/**
+ * Strength of a bot, chosen when it joins a table, and the engine budget it maps to. The CPU
+ * cost per decision is measured single-threaded for 4 players with 6 cards by
+ * {@code MctsBenchmarkTest.BotDifficultyTest}; a bot searches on every core, so its wall time
+ * is lower, but its CPU share of a busy node is the same. Against medium opponents the tiers
+ * hit their bids in 47.5, 51, 50.5 and 51.5% of 200 sets: the cheap tiers lose little, which is
+ * what makes them worth offering at scale.
+ */
+public enum BotDifficulty {
+
+	/** The rollout heuristic alone, no search; well below 0.1 ms CPU per decision. */
+	EASY("Easy", MctsConfig.defaults()
+			.withHeuristicOnly(true)
+			.withPonderCpuBudget(null)),
+	/**
+	 * A small search with cheap bids and rollouts cut short by the value model, no pondering;
+	 * about 4 ms CPU per decision.
+	 */
+	MEDIUM("Medium", MctsConfig.defaults()
+			.withIterationsPerCard(150)
+			.withPredictionMode(MctsConfig.PredictionMode.DISTRIBUTION)
+			.withRolloutTricks(2)
+			.withPonderCpuBudget(null)),
+	/** The full search every bot used to run; about 100 ms CPU per decision. */
+	HARD("Hard", MctsConfig.defaults()),
+	/** Three times the iterations and more sampled worlds; about 270 ms CPU per decision. */
+	EXPERT("Expert", MctsConfig.defaults()
+			.withIterationsPerCard(6000)
+			.withDeterminizations(4, 7)
+			.withPonderCpuBudget(Duration.ofSeconds(10)));
+
+	private final String label;
+	private final MctsConfig config;
+
+	BotDifficulty(String label, MctsConfig config) {
+		this.label = label;
+		this.config = config;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public MctsConfig getConfig() {
+		return config;
+	}
+}
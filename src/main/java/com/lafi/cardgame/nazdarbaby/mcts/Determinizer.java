@@ -19,6 +19,8 @@ final class Determinizer {
 	private static final int MAX_ATTEMPTS = 50;
 	private static final int ACE_VALUE = 14;
 	private static final int KING_VALUE = 13;
+	// Partial deals explored per complete deal allowed before enumeration gives up
+	private static final int ENUMERATION_STEPS_PER_DEAL = 64;
 
 	private Determinizer() {
 	}
@@ -37,6 +39,23 @@ final class Determinizer {
 												Map<Integer, Set<Color>> colorVoids, int botPlayerIndex,
 												int[] opponentPredictions,
 												Map<Integer, Set<Card>> excludedCards) {
+		return sampleOpponentHands(unknownCards, opponentSlots, colorVoids, botPlayerIndex, opponentPredictions,
+				excludedCards, Map.of());
+	}
+
+	/**
+	 * Like {@link #sampleOpponentHands(List, int[], Map, int, int[], Map)}, but first places the
+	 * given cards with their intended holders ({@link StratifiedSampler#UNDEALT} keeps a card out
+	 * of every hand). A card is placed only where voids, exclusions and free slots allow; the
+	 * placements are dropped when the remaining cards cannot be dealt within half of the attempts.
+	 *
+	 * @param presetHolders intended holder of some of the unknown cards
+	 */
+	static List<List<Card>> sampleOpponentHands(List<Card> unknownCards, int[] opponentSlots,
+												Map<Integer, Set<Color>> colorVoids, int botPlayerIndex,
+												int[] opponentPredictions,
+												Map<Integer, Set<Card>> excludedCards,
+												Map<Card, Integer> presetHolders) {
 		int totalPlayers = opponentSlots.length;
 
 		// Sort opponents by most-constrained-first (color voids + card exclusions)
@@ -58,6 +77,9 @@ final class Determinizer {
 			for (int i = 0; i < totalPlayers; i++) {
 				hands.add(new ArrayList<>());
 			}
+			if (attempt < MAX_ATTEMPTS / 2 && !presetHolders.isEmpty()) {
+				placePresets(shuffled, hands, opponentSlots, colorVoids, excludedCards, botPlayerIndex, presetHolders);
+			}
 
 			boolean valid = tryDeal(shuffled, hands, opponentSlots, colorVoids, excludedCards, dealOrder);
 			if (valid && isPredictionPlausible(hands, opponentPredictions, botPlayerIndex)) {
@@ -105,6 +127,152 @@ final class Determinizer {
 		return sampleOpponentHands(unknownCards, opponentSlots, colorVoids, botPlayerIndex, noPredictions, Map.of());
 	}
 
+	/**
+	 * Every distinct deal of the unknown cards to the opponent slots that respects color voids and
+	 * exclusions — each opponent hand a set of cards, so no deal is listed twice. Cards beyond the
+	 * slots stay undealt. Prediction plausibility is not checked: every listed deal is equally likely.
+	 *
+	 * @param maxDeals largest number of deals worth listing
+	 * @return hands indexed by player index per deal (bot hand empty), or null when there are more
+	 * than {@code maxDeals} deals or enumerating them would take too long
+	 */
+	static List<List<List<Card>>> enumerateOpponentHands(List<Card> unknownCards, int[] opponentSlots,
+														 Map<Integer, Set<Color>> colorVoids,
+														 Map<Integer, Set<Card>> excludedCards,
+														 int botPlayerIndex, int maxDeals) {
+		List<Integer> players = new ArrayList<>();
+		for (int i = 0; i < opponentSlots.length; i++) {
+			if (i != botPlayerIndex) {
+				players.add(i);
+			}
+		}
+
+		List<List<List<Card>>> deals = new ArrayList<>();
+		List<List<Card>> hands = new ArrayList<>(opponentSlots.length);
+		for (int i = 0; i < opponentSlots.length; i++) {
+			hands.add(new ArrayList<>());
+		}
+		Enumeration enumeration = new Enumeration(opponentSlots, colorVoids, excludedCards, players, maxDeals,
+				(long) maxDeals * ENUMERATION_STEPS_PER_DEAL, deals);
+		boolean complete = enumeration.dealPlayer(0, new ArrayList<>(unknownCards), hands);
+		return complete ? deals : null;
+	}
+
+	/**
+	 * Depth-first enumeration, one opponent's hand per level.
+	 */
+	private static final class Enumeration {
+
+		private final int[] opponentSlots;
+		private final Map<Integer, Set<Color>> colorVoids;
+		private final Map<Integer, Set<Card>> excludedCards;
+		private final List<Integer> players;
+		private final int maxDeals;
+		private final List<List<List<Card>>> deals;
+		private long remainingSteps;
+
+		Enumeration(int[] opponentSlots, Map<Integer, Set<Color>> colorVoids, Map<Integer, Set<Card>> excludedCards,
+					List<Integer> players, int maxDeals, long maxSteps, List<List<List<Card>>> deals) {
+			this.opponentSlots = opponentSlots;
+			this.colorVoids = colorVoids;
+			this.excludedCards = excludedCards;
+			this.players = players;
+			this.maxDeals = maxDeals;
+			this.remainingSteps = maxSteps;
+			this.deals = deals;
+		}
+
+		/**
+		 * @return false once the limits are exceeded
+		 */
+		boolean dealPlayer(int playerOrdinal, List<Card> remaining, List<List<Card>> hands) {
+			if (playerOrdinal == players.size()) {
+				if (deals.size() == maxDeals) {
+					return false;
+				}
+				List<List<Card>> deal = new ArrayList<>(hands.size());
+				hands.forEach(hand -> deal.add(List.copyOf(hand)));
+				deals.add(deal);
+				return true;
+			}
+
+			int playerIndex = players.get(playerOrdinal);
+			Set<Color> voids = colorVoids.getOrDefault(playerIndex, Set.of());
+			Set<Card> excluded = excludedCards.getOrDefault(playerIndex, Set.of());
+			List<Card> allowed = new ArrayList<>();
+			for (Card card : remaining) {
+				if (!voids.contains(card.getColor()) && !excluded.contains(card)) {
+					allowed.add(card);
+				}
+			}
+			return chooseCards(playerOrdinal, allowed, 0, opponentSlots[playerIndex], remaining, hands);
+		}
+
+		/**
+		 * Add {@code needed} more cards from {@code allowed[from..]} to the player's hand, in index order.
+		 */
+		private boolean chooseCards(int playerOrdinal, List<Card> allowed, int from, int needed,
+									List<Card> remaining, List<List<Card>> hands) {
+			if (--remainingSteps < 0) {
+				return false;
+			}
+			if (needed == 0) {
+				return dealPlayer(playerOrdinal + 1, remaining, hands);
+			}
+
+			List<Card> hand = hands.get(players.get(playerOrdinal));
+			for (int i = from; i <= allowed.size() - needed; i++) {
+				Card card = allowed.get(i);
+				hand.add(card);
+				remaining.remove(card);
+				boolean withinLimits = chooseCards(playerOrdinal, allowed, i + 1, needed - 1, remaining, hands);
+				remaining.add(card);
+				hand.removeLast();
+				if (!withinLimits) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Move the preset cards from the shuffled pool to their holders' hands or out of the deal.
+	 */
+	private static void placePresets(List<Card> shuffled, List<List<Card>> hands, int[] opponentSlots,
+									 Map<Integer, Set<Color>> colorVoids, Map<Integer, Set<Card>> excludedCards,
+									 int botPlayerIndex, Map<Card, Integer> presetHolders) {
+		int undealtCapacity = shuffled.size();
+		for (int i = 0; i < opponentSlots.length; i++) {
+			if (i != botPlayerIndex) {
+				undealtCapacity -= opponentSlots[i];
+			}
+		}
+
+		for (Map.Entry<Card, Integer> preset : presetHolders.entrySet()) {
+			Card card = preset.getKey();
+			int holder = preset.getValue();
+			boolean placed;
+			if (holder == StratifiedSampler.UNDEALT) {
+				placed = undealtCapacity > 0;
+				if (placed) {
+					undealtCapacity--;
+				}
+			} else {
+				placed = holder != botPlayerIndex
+						&& hands.get(holder).size() < opponentSlots[holder]
+						&& !colorVoids.getOrDefault(holder, Set.of()).contains(card.getColor())
+						&& !excludedCards.getOrDefault(holder, Set.of()).contains(card);
+				if (placed) {
+					hands.get(holder).add(card);
+				}
+			}
+			if (placed) {
+				shuffled.remove(card);
+			}
+		}
+	}
+
 	private static boolean tryDeal(List<Card> shuffled, List<List<Card>> hands,
 									int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
 									Map<Integer, Set<Card>> excludedCards,
@@ -114,7 +282,7 @@ final class Determinizer {
 		for (int playerIndex : dealOrder) {
 			Set<Color> voids = colorVoids.getOrDefault(playerIndex, Set.of());
 			Set<Card> excluded = excludedCards.getOrDefault(playerIndex, Set.of());
-			int needed = opponentSlots[playerIndex];
+			int needed = opponentSlots[playerIndex] - hands.get(playerIndex).size();
 
 			for (int j = 0; j < needed; j++) {
 				boolean placed = false;
@@ -0,0 +1,203 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact {@link EndgameSolver} values shared by every world, bot and table of the process. Late in
+ * a set the same small endgame comes up in many determinized worlds and across decisions, and
+ * solving it again gives the same value.
+ * <p>
+ * Positions are keyed by a canonical encoding: seats are counted from the bot and every player's
+ * takes are reduced to the takes still needed, so positions that play out the same share a key.
+ * Entries are evicted least-recently-used within lock-striped segments, whose combined size stays
+ * within a memory cap.
+ */
+final class EndgameCache {
+
+	// Per entry on top of the key's longs: map entry, key object and array header, boxed value
+	private static final int ENTRY_OVERHEAD_BYTES = 112;
+	// Longs of the key of a 3-player position, the most common table
+	private static final int TYPICAL_KEY_LONGS = 5;
+	private static final int SEGMENTS = 16;
+	private static final int DEFAULT_MEGABYTES = 32;
+
+	private static final int SEATS_PER_LONG = 6;
+	private static final int SEAT_BITS = 10;
+	private static final int NEEDED_BITS = 4;
+	private static final int MAX_NEEDED = (1 << NEEDED_BITS) - 2;
+	private static final int CARD_CODE_BITS = 6;
+	private static final int SEAT_INDEX_BITS = 8;
+
+	private static final EndgameCache SHARED = new EndgameCache(DEFAULT_MEGABYTES);
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	EndgameCache(int megabytes) {
+		long capacity = Math.max(SEGMENTS, (long) megabytes * 1024 * 1024
+				/ (ENTRY_OVERHEAD_BYTES + TYPICAL_KEY_LONGS * Long.BYTES));
+		int segmentCapacity = (int) Math.min(Integer.MAX_VALUE, capacity / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(segmentCapacity);
+		}
+	}
+
+	/**
+	 * The process-wide cache.
+	 */
+	static EndgameCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Cached value of the position, or {@link Double#NaN}.
+	 */
+	double get(Key key) {
+		Segment segment = segmentOf(key);
+		Double value;
+		synchronized (segment) {
+			value = segment.get(key);
+		}
+		if (value == null) {
+			misses.increment();
+			return Double.NaN;
+		}
+		hits.increment();
+		return value;
+	}
+
+	void put(Key key, double value) {
+		Segment segment = segmentOf(key);
+		synchronized (segment) {
+			if (segment.put(key, value) == null) {
+				segment.keyLongs += key.longs.length;
+			}
+		}
+	}
+
+	void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+				segment.keyLongs = 0;
+			}
+		}
+		hits.reset();
+		misses.reset();
+	}
+
+	EndgameCacheStatistics statistics() {
+		long entries = 0;
+		long bytes = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				entries += segment.size();
+				bytes += (long) segment.size() * ENTRY_OVERHEAD_BYTES + segment.keyLongs * Long.BYTES;
+			}
+		}
+		return new EndgameCacheStatistics(hits.sum(), misses.sum(), entries, bytes);
+	}
+
+	private Segment segmentOf(Key key) {
+		return segments[Math.floorMod(key.hash, SEGMENTS)];
+	}
+
+	/**
+	 * Canonical key of a card-play position for the given opponent model, or null in the
+	 * prediction phase.
+	 */
+	static Key key(SimulationState state, MctsConfig.EndgameOpponents opponents) {
+		if (state.getPhase() != SimulationState.Phase.PLAYING) {
+			return null;
+		}
+
+		int players = state.getTotalPlayers();
+		int bot = state.getBotPlayerIndex();
+		int seatLongs = (players + SEATS_PER_LONG - 1) / SEATS_PER_LONG;
+		long[] longs = new long[players + seatLongs + 1];
+
+		// Which card each seat played to the current trick, counted from the lead
+		int[] trickCodes = new int[players];
+		List<Card> currentTrick = state.getCurrentTrick();
+		for (int i = 0; i < currentTrick.size(); i++) {
+			int player = (state.getLeadPlayerIndex() + i) % players;
+			trickCodes[player] = ActionCodes.cardCode(currentTrick.get(i)) + 1;
+		}
+
+		for (int player = 0; player < players; player++) {
+			int seat = Math.floorMod(player - bot, players);
+			for (Card card : state.getHand(player)) {
+				longs[seat] |= 1L << ActionCodes.cardCode(card);
+			}
+
+			// Any overshoot is the same lost prediction
+			int needed = Math.clamp(state.getExpectedTakes(player) - state.getActualTakes(player), -1, MAX_NEEDED);
+			long seatBits = (long) trickCodes[player] << NEEDED_BITS | (needed + 1);
+			longs[players + seat / SEATS_PER_LONG] |= seatBits << (seat % SEATS_PER_LONG * SEAT_BITS);
+		}
+
+		int currentSeat = Math.floorMod(state.getCurrentPlayerIndex() - bot, players);
+		int remainingTricks = state.getTotalTricks() - state.getTricksPlayed();
+		longs[players + seatLongs] = (long) remainingTricks << (2 * SEAT_INDEX_BITS + 2)
+				| (long) currentSeat << (SEAT_INDEX_BITS + 2)
+				| (long) currentTrick.size() << 2
+				| (state.isPredictionMode() ? 2 : 0)
+				| opponents.ordinal();
+		return new Key(longs);
+	}
+
+	/**
+	 * Encoded position; compared by content.
+	 */
+	static final class Key {
+
+		private final long[] longs;
+		private final int hash;
+
+		private Key(long[] longs) {
+			this.longs = longs;
+			this.hash = Arrays.hashCode(longs);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Key key && hash == key.hash && Arrays.equals(longs, key.longs);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	private static final class Segment extends LinkedHashMap<Key, Double> {
+
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+		private long keyLongs;
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+			if (size() <= capacity) {
+				return false;
+			}
+			keyLongs -= eldest.getKey().longs.length;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+/**
+ * State of the process-wide endgame cache.
+ *
+ * @param hits           lookups answered from the cache
+ * @param misses         lookups that had to be solved
+ * @param entries        positions currently cached
+ * @param estimatedBytes approximate heap held by the entries
+ */
+public record EndgameCacheStatistics(long hits, long misses, long entries, long estimatedBytes) {
+
+	public double hitRate() {
+		long lookups = hits + misses;
+		return lookups > 0 ? (double) hits / lookups : 0;
+	}
+}
@@ -0,0 +1,111 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.List;
+
+/**
+ * Perfect-information (double-dummy) solver for the end of a set in one determinized world:
+ * depth-first alpha-beta over the remaining plays, the bot maximizing its reward and the opponents
+ * playing as {@link MctsConfig.EndgameOpponents} assumes. Equivalent cards are searched once and
+ * moves are tried in {@link RolloutPolicy#prioritizeActions} order, so good moves raise the bound
+ * early and the search stops as soon as the bot is sure of the maximal reward or of its decided outcome.
+ * <p>
+ * With an {@link EndgameCache}, exact values of positions at trick boundaries are looked up before
+ * and stored after searching them.
+ */
+final class EndgameSolver {
+
+	private EndgameSolver() {
+	}
+
+	/**
+	 * Reward of the bot when it plays perfectly from the state, which is left unchanged.
+	 */
+	static double solve(SimulationState state, MctsConfig.EndgameOpponents opponents) {
+		return solve(state, opponents, null);
+	}
+
+	/**
+	 * @param cache shared values of solved positions, or null
+	 */
+	static double solve(SimulationState state, MctsConfig.EndgameOpponents opponents, EndgameCache cache) {
+		return search(state, SimulationState.MIN_REWARD, SimulationState.MAX_REWARD, opponents, cache);
+	}
+
+	/**
+	 * Solver value of playing the action from the state, which is left unchanged.
+	 */
+	static double solveAfter(SimulationState state, MctsAction action, MctsConfig.EndgameOpponents opponents) {
+		return solveAfter(state, action, opponents, null);
+	}
+
+	static double solveAfter(SimulationState state, MctsAction action, MctsConfig.EndgameOpponents opponents,
+							 EndgameCache cache) {
+		SimulationState child = state.deepCopy();
+		child.applyAction(action);
+		return solve(child, opponents, cache);
+	}
+
+	/**
+	 * Fail-hard alpha-beta: the result is exact inside (alpha, beta) and clamped to the window outside.
+	 */
+	private static double search(SimulationState state, double alpha, double beta,
+								 MctsConfig.EndgameOpponents opponents, EndgameCache cache) {
+		double decidedReward = state.getDecidedReward();
+		if (!Double.isNaN(decidedReward)) {
+			return decidedReward;
+		}
+
+		// Trick boundaries are where worlds and decisions meet the same positions
+		EndgameCache.Key key = cache != null && state.getCurrentTrick().isEmpty()
+				? EndgameCache.key(state, opponents)
+				: null;
+		if (key != null) {
+			double cached = cache.get(key);
+			if (!Double.isNaN(cached)) {
+				return Math.clamp(cached, alpha, beta);
+			}
+		}
+
+		double value = searchMoves(state, alpha, beta, opponents, cache);
+		// A value at a bound of the window is only a bound — unless the bound is the reward's own
+		boolean exact = (value > alpha || alpha <= SimulationState.MIN_REWARD)
+				&& (value < beta || beta >= SimulationState.MAX_REWARD);
+		if (key != null && exact) {
+			cache.put(key, value);
+		}
+		return value;
+	}
+
+	private static double searchMoves(SimulationState state, double alpha, double beta,
+									  MctsConfig.EndgameOpponents opponents, EndgameCache cache) {
+		List<MctsAction> legalActions = state.getLegalActions();
+		if (legalActions.isEmpty()) {
+			// Inconsistent hand sizes — scored like a rollout that runs out of cards
+			return state.getRewardForBot();
+		}
+
+		boolean botToMove = state.getCurrentPlayerIndex() == state.getBotPlayerIndex();
+		if (!botToMove && opponents == MctsConfig.EndgameOpponents.HEURISTIC) {
+			SimulationState child = state.deepCopy();
+			child.applyAction(RolloutPolicy.selectAction(state, legalActions));
+			return search(child, alpha, beta, opponents, cache);
+		}
+
+		// Best moves of the player to move come last
+		List<MctsAction> actions = RolloutPolicy.prioritizeActions(state, state.getDistinctLegalActions());
+		for (int i = actions.size() - 1; i >= 0; i--) {
+			SimulationState child = state.deepCopy();
+			child.applyAction(actions.get(i));
+			double value = search(child, alpha, beta, opponents, cache);
+			if (botToMove) {
+				alpha = Math.max(alpha, value);
+			} else {
+				beta = Math.min(beta, value);
+			}
+			if (alpha >= beta) {
+				break;
+			}
+		}
+		return botToMove ? alpha : beta;
+	}
+}
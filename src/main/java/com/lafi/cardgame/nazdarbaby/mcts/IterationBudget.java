@@ -0,0 +1,64 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Iteration allowance for the search of one world's tree — either a fixed number
+ * of iterations or a wall-clock deadline. Thread-safe, so tree-parallel workers
+ * can draw from a single budget.
+ */
+final class IterationBudget {
+
+	private final AtomicInteger acquiredIterations = new AtomicInteger();
+	private final int maxIterations;
+	private final long startNanos = System.nanoTime();
+	private final long deadlineNanos;
+	private final boolean timed;
+
+	private IterationBudget(int maxIterations, long deadlineNanos, boolean timed) {
+		this.maxIterations = maxIterations;
+		this.deadlineNanos = deadlineNanos;
+		this.timed = timed;
+	}
+
+	static IterationBudget ofIterations(int iterations) {
+		return new IterationBudget(iterations, 0, false);
+	}
+
+	/**
+	 * Unlimited iterations until the deadline ({@link System#nanoTime()} based).
+	 * The first iteration is always granted so every searched world yields a result.
+	 */
+	static IterationBudget until(long deadlineNanos) {
+		return new IterationBudget(Integer.MAX_VALUE, deadlineNanos, true);
+	}
+
+	/**
+	 * Claim one iteration; false once the budget is exhausted.
+	 */
+	boolean tryAcquire() {
+		int acquired = acquiredIterations.getAndIncrement();
+		if (timed) {
+			return acquired == 0 || System.nanoTime() - deadlineNanos < 0;
+		}
+		return acquired < maxIterations;
+	}
+
+	/**
+	 * Charge iterations beyond the acquired one, e.g. the further rollouts of a leaf batch.
+	 */
+	void charge(int iterations) {
+		acquiredIterations.addAndGet(iterations);
+	}
+
+	/**
+	 * Share of the budget used so far, in [0, 1].
+	 */
+	double consumedFraction() {
+		if (timed) {
+			long total = deadlineNanos - startNanos;
+			return total > 0 ? Math.min(1.0, (double) (System.nanoTime() - startNanos) / total) : 1.0;
+		}
+		return maxIterations > 0 ? Math.min(1.0, (double) acquiredIterations.get() / maxIterations) : 1.0;
+	}
+}
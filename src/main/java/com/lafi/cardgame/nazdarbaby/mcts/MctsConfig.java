@@ -0,0 +1,643 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Tunable search settings for {@link MctsEngine}.
+ * Instances are immutable — every {@code with*} method returns a modified copy.
+ */
+public final class MctsConfig {
+
+	/**
+	 * How iterations are allocated among the root actions of a world's tree.
+	 */
+	public enum RootSelection {
+		/** UCB1 with progressive bias, same as every other tree level. */
+		UCB1,
+		/** Sequential halving at the root, UCB1 below it. */
+		SEQUENTIAL_HALVING,
+		/**
+		 * Paired evaluation: the root actions are searched in rounds, each action once per round
+		 * from the same world, and the decision averages each world's result equally — so actions
+		 * are compared on common samples instead of independent ones. UCB1 below the root.
+		 */
+		PAIRED
+	}
+
+	/**
+	 * How sampled opponent hands (determinizations) map onto search trees.
+	 */
+	public enum TreeMode {
+		/** A separate tree per sampled world; root statistics are merged across worlds. */
+		PER_WORLD,
+		/**
+		 * Single-observer information-set MCTS: one tree over the bot's information set,
+		 * a freshly sampled world per iteration and availability counts in UCB1.
+		 */
+		INFORMATION_SET
+	}
+
+	/**
+	 * How {@link MctsEngine#predictTakes} chooses the bot's bid.
+	 */
+	public enum PredictionMode {
+		/** A search tree over the bids in every sampled world. */
+		TREE_SEARCH,
+		/**
+		 * One heuristic playout per bid in every sampled world; the bid hit most often wins.
+		 * Far cheaper than the tree, so it affords many more worlds.
+		 */
+		DISTRIBUTION
+	}
+
+	/**
+	 * Where {@link EndgameSolver} replaces sampling once few cards are left. Only card play is
+	 * solved; predictions are searched as configured.
+	 */
+	public enum EndgameSolving {
+		/** Heuristic rollouts only. */
+		OFF,
+		/** Leaves within the card threshold are solved instead of rolled out. */
+		ROLLOUTS,
+		/**
+		 * Decisions within the card threshold are made without a tree: every root action is solved
+		 * in every world. Larger positions still solve their leaves within the threshold.
+		 */
+		SEARCH
+	}
+
+	/**
+	 * How {@link EndgameSolver} assumes the opponents play.
+	 */
+	public enum EndgameOpponents {
+		/**
+		 * Whatever hurts the bot most (double-dummy, paranoid): the value is what the bot can force
+		 * against any play.
+		 */
+		ADVERSARIAL,
+		/**
+		 * The rollout policy's card, as in every rollout: the value is the bot's best reply to the
+		 * opponents the rollouts assume.
+		 */
+		HEURISTIC
+	}
+
+	/**
+	 * Which position keeps a transposition-table slot when two positions collide.
+	 */
+	public enum TranspositionReplacement {
+		/** The newer position always takes the slot. */
+		ALWAYS_REPLACE,
+		/** Buckets of two slots: one keeps the more visited position, the other always takes the newer one. */
+		TWO_TIER
+	}
+
+	private static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+	private static final int DEFAULT_ITERATIONS_PER_CARD = 2000;
+	private static final double DEFAULT_EXPLORATION_CONSTANT = 0.7;
+	private static final int DEFAULT_DETERMINIZATIONS_PER_CARD = 3;
+	private static final int DEFAULT_DETERMINIZATIONS_PER_OPPONENT = 5;
+	private static final Duration DEFAULT_PONDER_CPU_BUDGET = Duration.ofSeconds(5);
+	private static final int DEFAULT_TREE_MEGABYTES = 16;
+	private static final int DEFAULT_EXPANSION_THRESHOLD = 1;
+	private static final int DEFAULT_EXACT_WORLD_LIMIT = 120;
+	private static final int DEFAULT_ENDGAME_CARDS = 3;
+
+	private int parallelism;
+	private int treeParallelism;
+	private Duration timeBudget;
+	private double earlyStopConfidence;
+	private int iterationsPerCard;
+	private double explorationConstant;
+	private int determinizationsPerCard;
+	private int determinizationsPerOpponent;
+	private RootSelection rootSelection;
+	private TreeMode treeMode;
+	private int raveEquivalence;
+	private int transpositionTableMegabytes;
+	private TranspositionReplacement transpositionReplacement;
+	private Duration ponderCpuBudget;
+	private int treeMegabytes;
+	private int expansionThreshold;
+	private boolean stratifiedSampling;
+	private int leafRollouts;
+	private int leafRolloutThreads;
+	private PredictionMode predictionMode;
+	private int exactWorldLimit;
+	private EndgameSolving endgameSolving;
+	private int endgameCards;
+	private EndgameOpponents endgameOpponents;
+	private boolean endgameCache;
+	private int rolloutTricks;
+	private boolean heuristicOnly;
+
+	private MctsConfig() {
+		parallelism = DEFAULT_PARALLELISM;
+		treeParallelism = 1;
+		iterationsPerCard = DEFAULT_ITERATIONS_PER_CARD;
+		explorationConstant = DEFAULT_EXPLORATION_CONSTANT;
+		determinizationsPerCard = DEFAULT_DETERMINIZATIONS_PER_CARD;
+		determinizationsPerOpponent = DEFAULT_DETERMINIZATIONS_PER_OPPONENT;
+		rootSelection = RootSelection.UCB1;
+		treeMode = TreeMode.PER_WORLD;
+		transpositionReplacement = TranspositionReplacement.TWO_TIER;
+		ponderCpuBudget = DEFAULT_PONDER_CPU_BUDGET;
+		treeMegabytes = DEFAULT_TREE_MEGABYTES;
+		expansionThreshold = DEFAULT_EXPANSION_THRESHOLD;
+		leafRollouts = 1;
+		leafRolloutThreads = 1;
+		predictionMode = PredictionMode.TREE_SEARCH;
+		exactWorldLimit = DEFAULT_EXACT_WORLD_LIMIT;
+		endgameSolving = EndgameSolving.OFF;
+		endgameCards = DEFAULT_ENDGAME_CARDS;
+		endgameOpponents = EndgameOpponents.ADVERSARIAL;
+		endgameCache = true;
+		rolloutTricks = 0;
+	}
+
+	private MctsConfig(MctsConfig other) {
+		parallelism = other.parallelism;
+		treeParallelism = other.treeParallelism;
+		timeBudget = other.timeBudget;
+		earlyStopConfidence = other.earlyStopConfidence;
+		iterationsPerCard = other.iterationsPerCard;
+		explorationConstant = other.explorationConstant;
+		determinizationsPerCard = other.determinizationsPerCard;
+		determinizationsPerOpponent = other.determinizationsPerOpponent;
+		rootSelection = other.rootSelection;
+		treeMode = other.treeMode;
+		raveEquivalence = other.raveEquivalence;
+		transpositionTableMegabytes = other.transpositionTableMegabytes;
+		transpositionReplacement = other.transpositionReplacement;
+		ponderCpuBudget = other.ponderCpuBudget;
+		treeMegabytes = other.treeMegabytes;
+		expansionThreshold = other.expansionThreshold;
+		stratifiedSampling = other.stratifiedSampling;
+		leafRollouts = other.leafRollouts;
+		leafRolloutThreads = other.leafRolloutThreads;
+		predictionMode = other.predictionMode;
+		exactWorldLimit = other.exactWorldLimit;
+		endgameSolving = other.endgameSolving;
+		endgameCards = other.endgameCards;
+		endgameOpponents = other.endgameOpponents;
+		endgameCache = other.endgameCache;
+		rolloutTricks = other.rolloutTricks;
+		heuristicOnly = other.heuristicOnly;
+	}
+
+	public static MctsConfig defaults() {
+		return new MctsConfig();
+	}
+
+	/**
+	 * The defaults overridden by a config file such as {@link MctsTuner} writes. Keys are the
+	 * names of the settings: {@code iterationsPerCard}, {@code explorationConstant},
+	 * {@code determinizationsPerCard}, {@code determinizationsPerOpponent},
+	 * {@code expansionThreshold}, {@code earlyStopConfidence}, {@code rolloutTricks},
+	 * {@code predictionMode}, {@code endgameSolving}, {@code endgameCards}, {@code endgameOpponents}
+	 * and {@code heuristicOnly}.
+	 *
+	 * @throws IllegalArgumentException for unknown keys and invalid values
+	 */
+	public static MctsConfig fromProperties(Properties properties) {
+		MctsConfig config = defaults();
+		for (String key : properties.stringPropertyNames()) {
+			String value = properties.getProperty(key).trim();
+			config = switch (key) {
+				case "iterationsPerCard" -> config.withIterationsPerCard(Integer.parseInt(value));
+				case "explorationConstant" -> config.withExplorationConstant(Double.parseDouble(value));
+				case "determinizationsPerCard" ->
+						config.withDeterminizations(Integer.parseInt(value), config.determinizationsPerOpponent);
+				case "determinizationsPerOpponent" ->
+						config.withDeterminizations(config.determinizationsPerCard, Integer.parseInt(value));
+				case "expansionThreshold" -> config.withExpansionThreshold(Integer.parseInt(value));
+				case "earlyStopConfidence" -> config.withEarlyStopConfidence(Double.parseDouble(value));
+				case "rolloutTricks" -> config.withRolloutTricks(Integer.parseInt(value));
+				case "predictionMode" -> config.withPredictionMode(PredictionMode.valueOf(value));
+				case "endgameSolving" -> config.withEndgameSolving(EndgameSolving.valueOf(value), config.endgameCards);
+				case "endgameCards" -> config.withEndgameSolving(config.endgameSolving, Integer.parseInt(value));
+				case "endgameOpponents" -> config.withEndgameOpponents(EndgameOpponents.valueOf(value));
+				case "heuristicOnly" -> config.withHeuristicOnly(Boolean.parseBoolean(value));
+				default -> throw new IllegalArgumentException("Unknown MCTS setting: " + key);
+			};
+		}
+		return config;
+	}
+
+	/**
+	 * The settings {@link #fromProperties(Properties)} reads.
+	 */
+	public Properties toProperties() {
+		Properties properties = new Properties();
+		properties.setProperty("iterationsPerCard", Integer.toString(iterationsPerCard));
+		properties.setProperty("explorationConstant", Double.toString(explorationConstant));
+		properties.setProperty("determinizationsPerCard", Integer.toString(determinizationsPerCard));
+		properties.setProperty("determinizationsPerOpponent", Integer.toString(determinizationsPerOpponent));
+		properties.setProperty("expansionThreshold", Integer.toString(expansionThreshold));
+		properties.setProperty("earlyStopConfidence", Double.toString(earlyStopConfidence));
+		properties.setProperty("rolloutTricks", Integer.toString(rolloutTricks));
+		properties.setProperty("predictionMode", predictionMode.name());
+		properties.setProperty("endgameSolving", endgameSolving.name());
+		properties.setProperty("endgameCards", Integer.toString(endgameCards));
+		properties.setProperty("endgameOpponents", endgameOpponents.name());
+		properties.setProperty("heuristicOnly", Boolean.toString(heuristicOnly));
+		return properties;
+	}
+
+	/**
+	 * Number of determinized worlds searched concurrently (root parallelization).
+	 * Each world owns its own tree, so 1 means a purely sequential search.
+	 */
+	public MctsConfig withParallelism(int parallelism) {
+		requirePositive(parallelism, "parallelism");
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.parallelism = parallelism;
+		return copy;
+	}
+
+	/**
+	 * Number of threads iterating concurrently on the same tree of one world (tree parallelization
+	 * with virtual loss). Scales searches with few worlds; combines with {@link #withParallelism(int)}.
+	 */
+	public MctsConfig withTreeParallelism(int treeParallelism) {
+		requirePositive(treeParallelism, "treeParallelism");
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.treeParallelism = treeParallelism;
+		return copy;
+	}
+
+	/**
+	 * Wall-clock budget per decision (anytime search). Replaces the iteration-count budget;
+	 * {@code null} switches back to the iteration-count budget.
+	 */
+	public MctsConfig withTimeBudget(Duration timeBudget) {
+		if (timeBudget != null && (timeBudget.isNegative() || timeBudget.isZero())) {
+			throw new IllegalArgumentException("timeBudget must be positive: " + timeBudget);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.timeBudget = timeBudget;
+		return copy;
+	}
+
+	/**
+	 * Stop {@code selectCard} once the leading card is better than every alternative with this
+	 * confidence (e.g. 0.99), or can no longer be overtaken in the remaining budget; 0 disables it.
+	 */
+	public MctsConfig withEarlyStopConfidence(double earlyStopConfidence) {
+		if (earlyStopConfidence < 0 || earlyStopConfidence >= 1) {
+			throw new IllegalArgumentException("earlyStopConfidence must be in [0, 1): " + earlyStopConfidence);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.earlyStopConfidence = earlyStopConfidence;
+		return copy;
+	}
+
+	/**
+	 * Iteration budget per card in hand and opponent, used unless a time budget is set.
+	 */
+	public MctsConfig withIterationsPerCard(int iterationsPerCard) {
+		requirePositive(iterationsPerCard, "iterationsPerCard");
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.iterationsPerCard = iterationsPerCard;
+		return copy;
+	}
+
+	/**
+	 * Weight of the exploration term of UCB1 at every tree level.
+	 */
+	public MctsConfig withExplorationConstant(double explorationConstant) {
+		if (!(explorationConstant > 0) || Double.isInfinite(explorationConstant)) {
+			throw new IllegalArgumentException("explorationConstant must be positive: " + explorationConstant);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.explorationConstant = explorationConstant;
+		return copy;
+	}
+
+	/**
+	 * Sampled worlds per decision: this many per card in hand plus per opponent, at least 10.
+	 */
+	public MctsConfig withDeterminizations(int perCard, int perOpponent) {
+		if (perCard < 0 || perOpponent < 0) {
+			throw new IllegalArgumentException("determinizations must not be negative: " + perCard + ", " + perOpponent);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.determinizationsPerCard = perCard;
+		copy.determinizationsPerOpponent = perOpponent;
+		return copy;
+	}
+
+	public MctsConfig withRootSelection(RootSelection rootSelection) {
+		MctsConfig copy = new MctsConfig(this);
+		copy.rootSelection = Objects.requireNonNull(rootSelection, "rootSelection");
+		return copy;
+	}
+
+	/**
+	 * With {@link TreeMode#INFORMATION_SET} the iteration budget is split over four independent
+	 * information-set trees instead of over sampled worlds; the workers share them out.
+	 */
+	public MctsConfig withTreeMode(TreeMode treeMode) {
+		MctsConfig copy = new MctsConfig(this);
+		copy.treeMode = Objects.requireNonNull(treeMode, "treeMode");
+		return copy;
+	}
+
+	/**
+	 * Blend all-moves-as-first (RAVE) statistics of cards into child selection. The AMAF weight
+	 * decays as {@code sqrt(k / (3n + k))} with the child's visits {@code n}, so {@code k} is the
+	 * visit count at which both estimates weigh about equally; 0 disables RAVE.
+	 */
+	public MctsConfig withRaveEquivalence(int raveEquivalence) {
+		if (raveEquivalence < 0) {
+			throw new IllegalArgumentException("raveEquivalence must not be negative: " + raveEquivalence);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.raveEquivalence = raveEquivalence;
+		return copy;
+	}
+
+	/**
+	 * Share statistics between transposed positions (same hands, trick and takes reached by a
+	 * different card order) within a determinized world, in a table of at most this many megabytes
+	 * per search worker; 0 disables it. Ignored by {@link TreeMode#INFORMATION_SET}, whose nodes are
+	 * not positions of a single world.
+	 */
+	public MctsConfig withTranspositionTable(int megabytes, TranspositionReplacement replacement) {
+		if (megabytes < 0) {
+			throw new IllegalArgumentException("transposition table megabytes must not be negative: " + megabytes);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.transpositionTableMegabytes = megabytes;
+		copy.transpositionReplacement = Objects.requireNonNull(replacement, "replacement");
+		return copy;
+	}
+
+	/**
+	 * CPU time a bot may {@link MctsEngine#startPondering(RetainedSearch) ponder} between two of its
+	 * decisions, shared by all sessions while it waits for other players; {@code null} disables pondering.
+	 */
+	public MctsConfig withPonderCpuBudget(Duration ponderCpuBudget) {
+		if (ponderCpuBudget != null && (ponderCpuBudget.isNegative() || ponderCpuBudget.isZero())) {
+			throw new IllegalArgumentException("ponderCpuBudget must be positive: " + ponderCpuBudget);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.ponderCpuBudget = ponderCpuBudget;
+		return copy;
+	}
+
+	/**
+	 * Hard cap on the memory of one search tree; a tree that reaches it stops expanding and
+	 * keeps sampling from its leaves.
+	 */
+	public MctsConfig withTreeMemoryCap(int megabytes) {
+		requirePositive(megabytes, "tree megabytes");
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.treeMegabytes = megabytes;
+		return copy;
+	}
+
+	/**
+	 * Visits a leaf needs before its children are expanded; until then iterations reaching it
+	 * only roll out from it. 1, the default, expands a leaf on its second visit; higher values
+	 * trade some strength for smaller trees. The children of the root always expand.
+	 */
+	public MctsConfig withExpansionThreshold(int expansionThreshold) {
+		requirePositive(expansionThreshold, "expansionThreshold");
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.expansionThreshold = expansionThreshold;
+		return copy;
+	}
+
+	/**
+	 * Deal the aces and high hearts of a decision's sampled worlds evenly among the opponents
+	 * instead of independently per world, so fewer worlds cover the likely distributions.
+	 */
+	public MctsConfig withStratifiedSampling(boolean stratifiedSampling) {
+		MctsConfig copy = new MctsConfig(this);
+		copy.stratifiedSampling = stratifiedSampling;
+		return copy;
+	}
+
+	/**
+	 * Rollouts from every leaf an iteration reaches (leaf parallelization); their average reward
+	 * is backed up once with the weight of all of them, and each counts towards the iteration
+	 * budget. All but the first rollout mix in random moves, as identical heuristic playouts of
+	 * one world would add nothing. The threads share the batch of one leaf; 1 rolls out on the
+	 * searching thread.
+	 */
+	public MctsConfig withLeafRollouts(int leafRollouts, int leafRolloutThreads) {
+		requirePositive(leafRollouts, "leafRollouts");
+		requirePositive(leafRolloutThreads, "leafRolloutThreads");
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.leafRollouts = leafRollouts;
+		copy.leafRolloutThreads = leafRolloutThreads;
+		return copy;
+	}
+
+	public MctsConfig withPredictionMode(PredictionMode predictionMode) {
+		MctsConfig copy = new MctsConfig(this);
+		copy.predictionMode = Objects.requireNonNull(predictionMode, "predictionMode");
+		return copy;
+	}
+
+	/**
+	 * Search every possible deal of the unknown cards once, each with an equal share of the budget,
+	 * instead of sampling worlds whenever there are at most this many deals — typically late in a
+	 * set. 0 always samples. Information-set search always samples.
+	 */
+	public MctsConfig withExactWorldLimit(int exactWorldLimit) {
+		if (exactWorldLimit < 0) {
+			throw new IllegalArgumentException("exactWorldLimit must not be negative: " + exactWorldLimit);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.exactWorldLimit = exactWorldLimit;
+		return copy;
+	}
+
+	/**
+	 * Solve positions exactly once the bot holds at most {@code endgameCards} cards; off by default.
+	 */
+	public MctsConfig withEndgameSolving(EndgameSolving endgameSolving, int endgameCards) {
+		Objects.requireNonNull(endgameSolving, "endgameSolving");
+		requirePositive(endgameCards, "endgameCards");
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.endgameSolving = endgameSolving;
+		copy.endgameCards = endgameCards;
+		return copy;
+	}
+
+	/**
+	 * How the endgame solver assumes the opponents play; adversarial by default.
+	 */
+	public MctsConfig withEndgameOpponents(EndgameOpponents endgameOpponents) {
+		MctsConfig copy = new MctsConfig(this);
+		copy.endgameOpponents = Objects.requireNonNull(endgameOpponents, "endgameOpponents");
+		return copy;
+	}
+
+	/**
+	 * Share solved endgame values with every engine of the process through one memory-capped
+	 * cache. The values are exact, so the cache only saves time.
+	 */
+	public MctsConfig withEndgameCache(boolean endgameCache) {
+		MctsConfig copy = new MctsConfig(this);
+		copy.endgameCache = endgameCache;
+		return copy;
+	}
+
+	/**
+	 * Stop every leaf rollout after this many tricks and let the bundled {@link ValueModel}
+	 * estimate the rest of the set; 0 plays every rollout to the end.
+	 */
+	public MctsConfig withRolloutTricks(int rolloutTricks) {
+		if (rolloutTricks < 0) {
+			throw new IllegalArgumentException("rolloutTricks must not be negative: " + rolloutTricks);
+		}
+
+		MctsConfig copy = new MctsConfig(this);
+		copy.rolloutTricks = rolloutTricks;
+		return copy;
+	}
+
+	/**
+	 * Skip the search altogether: bids and cards come straight from the {@link RolloutPolicy}
+	 * heuristic. The cheapest bot by far, and the weakest.
+	 */
+	public MctsConfig withHeuristicOnly(boolean heuristicOnly) {
+		MctsConfig copy = new MctsConfig(this);
+		copy.heuristicOnly = heuristicOnly;
+		return copy;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public int getTreeParallelism() {
+		return treeParallelism;
+	}
+
+	public Duration getTimeBudget() {
+		return timeBudget;
+	}
+
+	public double getEarlyStopConfidence() {
+		return earlyStopConfidence;
+	}
+
+	public int getIterationsPerCard() {
+		return iterationsPerCard;
+	}
+
+	public double getExplorationConstant() {
+		return explorationConstant;
+	}
+
+	public int getDeterminizationsPerCard() {
+		return determinizationsPerCard;
+	}
+
+	public int getDeterminizationsPerOpponent() {
+		return determinizationsPerOpponent;
+	}
+
+	public RootSelection getRootSelection() {
+		return rootSelection;
+	}
+
+	public TreeMode getTreeMode() {
+		return treeMode;
+	}
+
+	public int getRaveEquivalence() {
+		return raveEquivalence;
+	}
+
+	public int getTranspositionTableMegabytes() {
+		return transpositionTableMegabytes;
+	}
+
+	public TranspositionReplacement getTranspositionReplacement() {
+		return transpositionReplacement;
+	}
+
+	public Duration getPonderCpuBudget() {
+		return ponderCpuBudget;
+	}
+
+	public int getTreeMegabytes() {
+		return treeMegabytes;
+	}
+
+	public int getExpansionThreshold() {
+		return expansionThreshold;
+	}
+
+	public boolean isStratifiedSampling() {
+		return stratifiedSampling;
+	}
+
+	public int getLeafRollouts() {
+		return leafRollouts;
+	}
+
+	public int getLeafRolloutThreads() {
+		return leafRolloutThreads;
+	}
+
+	public PredictionMode getPredictionMode() {
+		return predictionMode;
+	}
+
+	public int getExactWorldLimit() {
+		return exactWorldLimit;
+	}
+
+	public EndgameSolving getEndgameSolving() {
+		return endgameSolving;
+	}
+
+	public int getEndgameCards() {
+		return endgameCards;
+	}
+
+	public EndgameOpponents getEndgameOpponents() {
+		return endgameOpponents;
+	}
+
+	public boolean isEndgameCache() {
+		return endgameCache;
+	}
+
+	public int getRolloutTricks() {
+		return rolloutTricks;
+	}
+
+	public boolean isHeuristicOnly() {
+		return heuristicOnly;
+	}
+
+	private static void requirePositive(int value, String name) {
+		if (value < 1) {
+			throw new IllegalArgumentException(name + " must be positive: " + value);
+		}
+	}
+}
@@ -3,10 +3,19 @@ package com.lafi.cardgame.nazdarbaby.mcts;
 import com.lafi.cardgame.nazdarbaby.card.Card;
 import com.lafi.cardgame.nazdarbaby.card.Color;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
 
 /**
  * Monte Carlo Tree Search with determinization (Information Set MCTS).
@@ -14,22 +23,55 @@ import java.util.Set;
  */
 public final class MctsEngine {
 
-	private static final int ITERATIONS_PER_CARD = 2000;
 	private static final int MIN_DETERMINIZATIONS = 10;
-	private static final int DETERMINIZATIONS_PER_CARD = 3;
-	private static final int DETERMINIZATIONS_PER_OPPONENT = 5;
-	private static final double EXPLORATION_CONSTANT = 0.7;
+	// Independent information-set trees per decision, whatever the number of workers
+	private static final int INFORMATION_SET_TREES = 4;
+	// Random moves in the further rollouts of a leaf batch
+	private static final double EXPLORING_MOVE_PROBABILITY = 0.1;
+	// A distribution-based prediction spends the rollouts of this many tree iterations per world
+	private static final int ITERATIONS_PER_DISTRIBUTION_WORLD = 50;
+	// Solved cards whose averages differ by less only differ by rounding
+	private static final double SOLVED_TIE_TOLERANCE = 1e-9;
+
+	private final MctsConfig config;
+
+	private volatile SearchStatistics lastSearchStatistics;
 
 	public MctsEngine() {
+		this(MctsConfig.defaults());
+	}
+
+	public MctsEngine(MctsConfig config) {
+		this.config = config;
+		if (config.getRolloutTricks() > 0) {
+			// Load the value model now rather than in the first search
+			ValueModel.bundled();
+		}
+	}
+
+	/**
+	 * Effort of the most recent tree search, including iterations saved by early stopping.
+	 * Decisions answered without a search (single or equivalent cards, heuristic-only
+	 * play) leave it unchanged.
+	 */
+	public SearchStatistics getLastSearchStatistics() {
+		return lastSearchStatistics;
+	}
+
+	/**
+	 * Hit rate and memory use of the endgame cache that all engines of the process share.
+	 */
+	public static EndgameCacheStatistics getEndgameCacheStatistics() {
+		return EndgameCache.shared().statistics();
 	}
 
 	private int computeIterations(int handSize, int opponents) {
-		return ITERATIONS_PER_CARD * handSize * opponents;
+		return config.getIterationsPerCard() * handSize * opponents;
 	}
 
 	private int computeDeterminizations(int handSize, int opponents) {
 		return Math.max(MIN_DETERMINIZATIONS,
-				DETERMINIZATIONS_PER_CARD * handSize + DETERMINIZATIONS_PER_OPPONENT * opponents);
+				config.getDeterminizationsPerCard() * handSize + config.getDeterminizationsPerOpponent() * opponents);
 	}
 
 	/**
@@ -38,36 +80,131 @@ public final class MctsEngine {
 	public Card selectCard(SimulationState baseState, List<Card> unknownCards,
 						   int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
 						   Map<Integer, Set<Card>> excludedCards) {
+		return selectCard(baseState, unknownCards, opponentSlots, colorVoids, excludedCards, null);
+	}
+
+	/**
+	 * Select the best card, continuing from the trees the same bot kept from its previous
+	 * decision where they are still consistent, and keeping this decision's trees for the next.
+	 * Information-set search does not reuse trees.
+	 *
+	 * @param retainedSearch the bot's trees between decisions, or null to search from scratch
+	 */
+	public Card selectCard(SimulationState baseState, List<Card> unknownCards,
+						   int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
+						   Map<Integer, Set<Card>> excludedCards, RetainedSearch retainedSearch) {
+		baseState.setOutOfPlayCards(outOfPlayCards(baseState, unknownCards));
+
 		// Skip simulations when all legal cards are equivalent
-		List<Card> legalCards = baseState.getLegalActions().stream()
-				.filter(MctsAction.PlayCard.class::isInstance)
-				.map(a -> ((MctsAction.PlayCard) a).card())
-				.sorted()
-				.toList();
-		if (allEquivalent(legalCards, unknownCards)) {
-			return legalCards.getFirst();
+		List<MctsAction> distinctActions = baseState.getDistinctLegalActions();
+		if (distinctActions.size() == 1 && distinctActions.getFirst() instanceof MctsAction.PlayCard(Card card)) {
+			if (retainedSearch != null) {
+				retainedSearch.clear();
+			}
+			return card;
 		}
 
-		int handSize = baseState.getHand(baseState.getBotPlayerIndex()).size();
+		if (config.isHeuristicOnly()) {
+			if (retainedSearch != null) {
+				retainedSearch.clear();
+			}
+			// The heuristic looks at the player's own hand and the trick only
+			MctsAction action = RolloutPolicy.selectAction(baseState, baseState.getLegalActions());
+			return ((MctsAction.PlayCard) action).card();
+		}
+
+		List<List<List<Card>>> deals = isInformationSetSearch()
+				? null
+				: enumerateDeals(baseState, unknownCards, opponentSlots, colorVoids, excludedCards);
+		if (isSolvedDecision(baseState)) {
+			if (retainedSearch != null) {
+				retainedSearch.clear();
+			}
+			int worlds = deals != null
+					? deals.size()
+					: computeDeterminizations(distinctActions.size(), baseState.getTotalPlayers() - 1);
+			return bestSolvedCard(baseState, solveWorlds(
+					worldSampler(baseState, unknownCards, opponentSlots, colorVoids, excludedCards, deals, worlds),
+					worlds));
+		}
+
+		boolean reuse = retainedSearch != null && !isInformationSetSearch();
+		List<RetainedSearch.World> warmWorlds = List.of();
+		if (reuse && deals == null) {
+			warmWorlds = retainedSearch.takeConsistentWorlds(baseState, unknownCards, colorVoids, excludedCards);
+		} else if (reuse) {
+			// Every deal is searched afresh — retained worlds would only weigh some of them twice
+			retainedSearch.clear();
+		}
+		List<RetainedSearch.World> searchedWorlds = reuse ? Collections.synchronizedList(new ArrayList<>()) : null;
+
+		// Equivalent cards make the search smaller than the hand
+		int handSize = baseState.getDistinctCardCount(baseState.getBotPlayerIndex());
 		int opponents = baseState.getTotalPlayers() - 1;
-		int iterations = computeIterations(handSize, opponents);
-		int determinizations = computeDeterminizations(handSize, opponents);
-		Map<Card, double[]> cardStats = new HashMap<>();
-		int iterationsPerWorld = iterations / determinizations;
 
-		for (int d = 0; d < determinizations; d++) {
-			SimulationState state = createDeterminizedState(baseState, unknownCards, opponentSlots, colorVoids, excludedCards);
+		SearchPlan plan = deals != null
+				? createSearchPlan(handSize, opponents, deals.size())
+				: createSearchPlan(handSize, opponents);
+		SearchProgress<Card> progress = new SearchProgress<>(this::aggregateCardResults,
+				plan.plannedIterations(), plan.determinizations(), config.getEarlyStopConfidence());
 
-			MctsNode root = new MctsNode(null, null, RolloutPolicy.prioritizeActions(state, state.getLegalActions()));
+		Map<Card, double[]> cardStats = searchWorlds(plan, progress,
+				worldSampler(baseState, unknownCards, opponentSlots, colorVoids, excludedCards, deals,
+						plan.determinizations()),
+				warmWorlds, searchedWorlds, deals != null);
 
-			for (int i = 0; i < iterationsPerWorld; i++) {
-				runIteration(root, state.deepCopy());
-			}
+		Card bestCard = bestCard(cardStats);
+		if (reuse) {
+			retainedSearch.retain(searchedWorlds, unknownCards, bestCard);
+		}
+		return bestCard;
+	}
 
-			aggregateCardResults(root, cardStats);
+	/**
+	 * Search the bot's retained trees further in the background while other players are to move.
+	 * The trees continue below the bot's last card, so the opponents' likely replies and the bot's
+	 * answers to them gather statistics its next {@code selectCard} starts from. Runs until
+	 * cancelled or until the sessions since the bot's last decision used up
+	 * {@link MctsConfig#getPonderCpuBudget()}, however often other players' moves restart it. Never
+	 * starts while a decision waits for a search slot. The retained search must not be used before
+	 * {@link Pondering#cancel()} returns.
+	 */
+	public Pondering startPondering(RetainedSearch retainedSearch) {
+		Duration cpuBudget = config.getPonderCpuBudget();
+		List<RetainedSearch.World> worlds = retainedSearch.getWorlds();
+		if (cpuBudget == null || worlds.isEmpty() || SearchScheduler.shared().hasQueuedSearches()) {
+			return Pondering.none();
 		}
 
-		return bestCard(cardStats);
+		Duration remainingBudget = cpuBudget.minusNanos(retainedSearch.getPonderNanos());
+		if (remainingBudget.isNegative() || remainingBudget.isZero()) {
+			return Pondering.none();
+		}
+		return Pondering.start(remainingBudget, stopped -> ponder(worlds, stopped), retainedSearch::addPonderNanos);
+	}
+
+	/**
+	 * One iteration per world in turn, skipping worlds whose outcome is already decided.
+	 */
+	private long ponder(List<RetainedSearch.World> worlds, BooleanSupplier stopped) {
+		long iterations = 0;
+		boolean searched = true;
+		while (searched) {
+			searched = false;
+			for (RetainedSearch.World world : worlds) {
+				if (world.tree().isProven(MctsTree.ROOT) || world.state().isTerminal()) {
+					continue;
+				}
+				// Speculative work yields to decisions waiting for a search slot
+				if (stopped.getAsBoolean() || SearchScheduler.shared().hasQueuedSearches()) {
+					return iterations;
+				}
+				runIteration(world.tree(), MctsTree.NONE, world.state().deepCopy(), null);
+				iterations++;
+				searched = true;
+			}
+		}
+		return iterations;
 	}
 
 	/**
@@ -78,66 +215,413 @@ public final class MctsEngine {
 							   int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
 							   Map<Integer, Set<Card>> excludedCards) {
 		baseState.setPredictionMode(true);
+		baseState.setOutOfPlayCards(outOfPlayCards(baseState, unknownCards));
 
 		int botIndex = baseState.getBotPlayerIndex();
 		int handSize = baseState.getHand(botIndex).size();
 
-		if (handSize == 1) {
+		if (handSize == 1 || config.isHeuristicOnly()) {
 			boolean isLeader = botIndex == baseState.getLeadPlayerIndex();
 			return RolloutPolicy.estimateTakes(baseState.getHand(botIndex), baseState.getTotalPlayers(), isLeader);
 		}
 
+		if (config.getPredictionMode() == MctsConfig.PredictionMode.DISTRIBUTION) {
+			return bestTakes(distributionHits(baseState, unknownCards, opponentSlots, colorVoids, excludedCards));
+		}
+
 		int opponents = baseState.getTotalPlayers() - 1;
-		int iterations = computeIterations(handSize, opponents);
-		int determinizations = computeDeterminizations(handSize, opponents);
 
-		Map<Integer, double[]> takesStats = new HashMap<>();
-		int iterationsPerWorld = iterations / determinizations;
+		List<List<List<Card>>> deals = isInformationSetSearch()
+				? null
+				: enumerateDeals(baseState, unknownCards, opponentSlots, colorVoids, excludedCards);
+		int distinctCards = baseState.getDistinctCardCount(botIndex);
+		SearchPlan plan = deals != null
+				? createSearchPlan(distinctCards, opponents, deals.size())
+				: createSearchPlan(distinctCards, opponents);
+
+		// No early stopping — the weighted average over all bids needs the full statistics
+		SearchProgress<Integer> progress = new SearchProgress<>(this::aggregateTakesResults,
+				plan.plannedIterations(), plan.determinizations(), 0.0);
+
+		Map<Integer, double[]> takesStats = searchWorlds(plan, progress,
+				worldSampler(baseState, unknownCards, opponentSlots, colorVoids, excludedCards, deals,
+						plan.determinizations()),
+				List.of(), null, deals != null);
+
+		return bestTakes(takesStats);
+	}
 
-		for (int d = 0; d < determinizations; d++) {
-			SimulationState state = createDeterminizedState(baseState, unknownCards, opponentSlots, colorVoids, excludedCards);
+	/**
+	 * Whether {@link MctsConfig.EndgameSolving#SEARCH} decides the card without a tree. Predictions
+	 * are always searched: the solver sees every hand and could steer the set to almost any bid,
+	 * which would flatten the bids' hit rates.
+	 */
+	private boolean isSolvedDecision(SimulationState baseState) {
+		return config.getEndgameSolving() == MctsConfig.EndgameSolving.SEARCH
+				&& baseState.getHand(baseState.getBotPlayerIndex()).size() <= config.getEndgameCards();
+	}
 
-			MctsNode root = new MctsNode(null, null, RolloutPolicy.prioritizeActions(state, state.getLegalActions()));
+	private EndgameCache endgameCache() {
+		return config.isEndgameCache() ? EndgameCache.shared() : null;
+	}
 
-			for (int i = 0; i < iterationsPerWorld; i++) {
-				runIteration(root, state.deepCopy());
+	/**
+	 * Whether a leaf is solved instead of rolled out.
+	 */
+	private boolean isSolvedLeaf(SimulationState state) {
+		return config.getEndgameSolving() != MctsConfig.EndgameSolving.OFF
+				&& state.getHand(state.getBotPlayerIndex()).size() <= config.getEndgameCards();
+	}
+
+	/**
+	 * Solver value of every distinct card in every world, as {total value, worlds} per card —
+	 * the shape of the tree search's root statistics.
+	 */
+	private Map<Card, double[]> solveWorlds(Supplier<SimulationState> worldSampler, int worlds) {
+		long startNanos = System.nanoTime();
+		int threads = Math.max(1, Math.min(config.getParallelism(), worlds));
+		List<Callable<Map<Card, double[]>>> tasks = new ArrayList<>(threads);
+		for (int t = 0; t < threads; t++) {
+			int firstWorld = t;
+			tasks.add(() -> {
+				Map<Card, double[]> cardStats = new HashMap<>();
+				for (int w = firstWorld; w < worlds; w += threads) {
+					SimulationState world = worldSampler.get();
+					for (MctsAction action : world.getDistinctLegalActions()) {
+						if (action instanceof MctsAction.PlayCard(Card card)) {
+							double[] stats = cardStats.computeIfAbsent(card, k -> new double[2]);
+							stats[0] += EndgameSolver.solveAfter(world, action, config.getEndgameOpponents(),
+									endgameCache());
+							stats[1]++;
+						}
+					}
+				}
+				return cardStats;
+			});
+		}
+
+		Map<Card, double[]> cardStats = new HashMap<>();
+		long solved = 0;
+		for (Map<Card, double[]> threadStats : SearchWorkers.invokeAll(tasks)) {
+			for (Map.Entry<Card, double[]> entry : threadStats.entrySet()) {
+				double[] stats = cardStats.computeIfAbsent(entry.getKey(), k -> new double[2]);
+				stats[0] += entry.getValue()[0];
+				stats[1] += entry.getValue()[1];
+				solved += (long) entry.getValue()[1];
 			}
+		}
+		lastSearchStatistics = new SearchStatistics(solved, solved, System.nanoTime() - startNanos, false, 0);
+		return cardStats;
+	}
 
-			aggregateTakesResults(root, takesStats);
+	/**
+	 * Exact hits of every bid by {@link PredictionDistribution}, over as many worlds as the
+	 * iteration budget scaled down to one rollout per bid allows. Ignores the time budget.
+	 */
+	private Map<Integer, double[]> distributionHits(SimulationState baseState, List<Card> unknownCards,
+													int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
+													Map<Integer, Set<Card>> excludedCards) {
+		int handSize = baseState.getHand(baseState.getBotPlayerIndex()).size();
+		long startNanos = System.nanoTime();
+
+		List<List<List<Card>>> deals = enumerateDeals(baseState, unknownCards, opponentSlots, colorVoids, excludedCards);
+		int worlds = deals != null
+				? deals.size()
+				: Math.max(MIN_DETERMINIZATIONS, config.getIterationsPerCard() * handSize / ITERATIONS_PER_DISTRIBUTION_WORLD);
+		Map<Integer, double[]> hits = PredictionDistribution.estimateHits(
+				worldSampler(baseState, unknownCards, opponentSlots, colorVoids, excludedCards, deals, worlds),
+				worlds, config.getParallelism());
+
+		long rollouts = (long) worlds * (handSize + 1);
+		lastSearchStatistics = new SearchStatistics(rollouts, rollouts, System.nanoTime() - startNanos, false, 0);
+		return hits;
+	}
+
+	/**
+	 * Budget either by iteration count (scaled with hand size and table size) or, when
+	 * {@link MctsConfig#getTimeBudget()} is set, by a wall-clock deadline from now.
+	 */
+	private SearchPlan createSearchPlan(int handSize, int opponents) {
+		// An information-set tree covers all worlds — a fixed few, so the result does not depend on the cores
+		int determinizations = isInformationSetSearch()
+				? INFORMATION_SET_TREES
+				: computeDeterminizations(handSize, opponents);
+		return createSearchPlan(handSize, opponents, determinizations);
+	}
+
+	/**
+	 * Same total budget spread over the given number of worlds.
+	 */
+	private SearchPlan createSearchPlan(int handSize, int opponents, int determinizations) {
+		int iterationsPerWorld = Math.max(1, computeIterations(handSize, opponents) / determinizations);
+
+		Duration timeBudget = config.getTimeBudget();
+		if (timeBudget == null) {
+			return new SearchPlan(determinizations, iterationsPerWorld, 0, 0);
 		}
+		return new SearchPlan(determinizations, iterationsPerWorld, System.nanoTime(), timeBudget.toNanos());
+	}
 
-		return bestTakes(takesStats);
+	/**
+	 * Search independent determinized worlds and merge their root statistics (root parallelization).
+	 * Worlds are split across up to {@link MctsConfig#getParallelism()} workers; finished worlds
+	 * are merged into the shared {@link SearchProgress}, which may also end the search early.
+	 * In information-set search each "world" is an independent information-set tree.
+	 *
+	 * @param warmWorlds     worlds kept from the previous decision, searched further before fresh ones are sampled
+	 * @param searchedWorlds receives every searched world for the next decision, or null
+	 * @param exactDeals     whether the worlds are every possible deal, each equally likely
+	 */
+	private <K> Map<K, double[]> searchWorlds(SearchPlan plan, SearchProgress<K> progress,
+											  Supplier<SimulationState> worldSampler,
+											  List<RetainedSearch.World> warmWorlds,
+											  List<RetainedSearch.World> searchedWorlds, boolean exactDeals) {
+		int workers = Math.min(config.getParallelism(), plan.determinizations());
+		if (workers <= 1) {
+			searchWorldRange(plan, progress, 0, 1, worldSampler, warmWorlds, searchedWorlds);
+		} else {
+			List<Callable<Void>> tasks = new ArrayList<>(workers);
+			for (int w = 0; w < workers; w++) {
+				int firstWorld = w;
+				tasks.add(() -> {
+					searchWorldRange(plan, progress, firstWorld, workers, worldSampler, warmWorlds, searchedWorlds);
+					return null;
+				});
+			}
+			SearchWorkers.invokeAll(tasks, progress::stop);
+		}
+
+		lastSearchStatistics = progress.toStatistics();
+		// Paired evaluation compares the actions world by world, and enumerated deals are equally
+		// likely, so every world weighs the same however many visits UCB1 gave an action in it
+		return exactDeals || config.getRootSelection() == MctsConfig.RootSelection.PAIRED
+				? progress.getWorldAveragedStats()
+				: progress.getCompletedStats();
 	}
 
+	private <K> void searchWorldRange(SearchPlan plan, SearchProgress<K> progress, int firstWorld, int step,
+									  Supplier<SimulationState> worldSampler,
+									  List<RetainedSearch.World> warmWorlds,
+									  List<RetainedSearch.World> searchedWorlds) {
+		int worldCount = (plan.determinizations() - firstWorld + step - 1) / step;
+		// One table per worker, cleared for every world — positions of different worlds never match
+		TranspositionTable transpositions = config.getTranspositionTableMegabytes() > 0 && !isInformationSetSearch()
+				? new TranspositionTable(config.getTranspositionTableMegabytes(), config.getTranspositionReplacement())
+				: null;
+
+		for (int k = 0; k < worldCount; k++) {
+			if (progress.isStopped() || k > 0 && plan.isPastDeadline()) {
+				break;
+			}
+
+			int worldIndex = firstWorld + k * step;
+			RetainedSearch.World world = worldIndex < warmWorlds.size()
+					? warmWorlds.get(worldIndex)
+					: createWorld(worldSampler.get());
+			SimulationState state = world.state();
+			MctsTree tree = world.tree();
+			if (transpositions != null) {
+				transpositions.clear();
+				if (worldIndex < warmWorlds.size()) {
+					tree.forgetTranspositions();
+				}
+				// Hash once here so every iteration's copy only updates it incrementally
+				state.getHash();
+			}
+
+			int rootActionCount = state.getDistinctLegalActions().size();
+			SequentialHalving halving = config.getRootSelection() == MctsConfig.RootSelection.SEQUENTIAL_HALVING
+					? new SequentialHalving(tree, rootActionCount)
+					: null;
+			Supplier<SimulationState> iterationStates = isInformationSetSearch() ? worldSampler : state::deepCopy;
+			// Iterations a warm tree already has count towards its budget
+			IterationBudget budget = plan.budgetForWorld(k, worldCount, tree.getVisitCount(MctsTree.ROOT));
+			searchTree(tree, rootActionCount, iterationStates, budget, halving, transpositions, progress);
+
+			// Only the arms that survived halving make the decision, however lucky an eliminated one was
+			progress.worldCompleted(tree, halving != null ? halving::isCandidate : child -> true);
+			if (searchedWorlds != null) {
+				searchedWorlds.add(world);
+			} else {
+				tree.release();
+			}
+		}
+	}
+
+	private RetainedSearch.World createWorld(SimulationState state) {
+		List<MctsAction> rootActions = RolloutPolicy.prioritizeActions(state, state.getDistinctLegalActions());
+		// Information-set nodes expand from the legal actions of each iteration's world instead
+		MctsTree tree = MctsTree.create(maxTreeNodes(), isInformationSetSearch() ? List.of() : rootActions);
+		return new RetainedSearch.World(state, tree);
+	}
+
+	private int maxTreeNodes() {
+		return (int) Math.min(Integer.MAX_VALUE, ((long) config.getTreeMegabytes() << 20) / MctsTree.BYTES_PER_NODE);
+	}
+
+	/**
+	 * Run iterations on one tree. With tree parallelization several threads share
+	 * the tree and draw iterations from a common budget; virtual loss keeps them apart.
+	 *
+	 * @param iterationStates fresh state for every iteration — a copy of the tree's world,
+	 *                        or a newly sampled world in information-set search
+	 */
+	private void searchTree(MctsTree tree, int rootActionCount, Supplier<SimulationState> iterationStates,
+							IterationBudget budget, SequentialHalving halving, TranspositionTable transpositions,
+							SearchProgress<?> progress) {
+		int threads = config.getTreeParallelism();
+		if (threads <= 1) {
+			iterate(tree, iterationStates, budget, halving, pairedRounds(tree, rootActionCount, iterationStates),
+					transpositions, progress);
+			return;
+		}
+
+		// Columns must not be replaced while other threads read them
+		tree.reserveFullCapacity();
+		List<Callable<Void>> tasks = new ArrayList<>(threads);
+		for (int t = 0; t < threads; t++) {
+			tasks.add(() -> {
+				iterate(tree, iterationStates, budget, halving, pairedRounds(tree, rootActionCount, iterationStates),
+						transpositions, progress);
+				return null;
+			});
+		}
+		SearchWorkers.invokeAll(tasks, progress::stop);
+	}
+
+	/**
+	 * A thread's own rounds with {@link MctsConfig.RootSelection#PAIRED}, otherwise null.
+	 */
+	private PairedRounds pairedRounds(MctsTree tree, int rootActionCount, Supplier<SimulationState> iterationStates) {
+		return config.getRootSelection() == MctsConfig.RootSelection.PAIRED
+				? new PairedRounds(tree, rootActionCount, iterationStates)
+				: null;
+	}
+
+	private void iterate(MctsTree tree, Supplier<SimulationState> iterationStates, IterationBudget budget,
+						 SequentialHalving halving, PairedRounds pairedRounds, TranspositionTable transpositions,
+						 SearchProgress<?> progress) {
+		boolean informationSet = isInformationSetSearch();
+		while (budget.tryAcquire()) {
+			int rootChild = MctsTree.NONE;
+			SimulationState state;
+			if (pairedRounds != null) {
+				rootChild = pairedRounds.nextCandidate();
+				state = pairedRounds.nextState();
+			} else {
+				if (halving != null) {
+					rootChild = halving.nextCandidate(budget);
+				}
+				state = iterationStates.get();
+			}
+
+			if (informationSet) {
+				runInformationSetIteration(tree, rootChild, state);
+			} else {
+				runIteration(tree, rootChild, state, transpositions);
+			}
+			int rollouts = config.getLeafRollouts();
+			if (rollouts > 1) {
+				budget.charge(rollouts - 1);
+			}
+			if (progress.afterIteration(rollouts)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Every deal of the unknown cards consistent with the voids and exclusions, when there are at
+	 * most {@link MctsConfig#getExactWorldLimit()} of them; otherwise null and worlds are sampled.
+	 */
+	private List<List<List<Card>>> enumerateDeals(SimulationState baseState, List<Card> unknownCards,
+												  int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
+												  Map<Integer, Set<Card>> excludedCards) {
+		int limit = config.getExactWorldLimit();
+		if (limit == 0) {
+			return null;
+		}
+		List<List<List<Card>>> deals = Determinizer.enumerateOpponentHands(unknownCards, opponentSlots, colorVoids,
+				excludedCards, baseState.getBotPlayerIndex(), limit);
+		// No consistent deal at all — let the sampler relax the constraints
+		return deals == null || deals.isEmpty() ? null : deals;
+	}
+
+	/**
+	 * Worlds of one decision: each enumerated deal once in turn, or sampled worlds when there are
+	 * too many deals to list.
+	 *
+	 * @param deals  every possible deal, or null to sample
+	 * @param worlds number of sampled worlds, for stratification
+	 */
+	private Supplier<SimulationState> worldSampler(SimulationState baseState, List<Card> unknownCards,
+												   int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
+												   Map<Integer, Set<Card>> excludedCards,
+												   List<List<List<Card>>> deals, int worlds) {
+		if (deals != null) {
+			AtomicInteger nextDeal = new AtomicInteger();
+			return () -> createWorldState(baseState, deals.get(nextDeal.getAndIncrement() % deals.size()));
+		}
+
+		StratifiedSampler sampler = stratifiedSampler(baseState, unknownCards, opponentSlots, colorVoids, excludedCards,
+				worlds);
+		return () -> createDeterminizedState(baseState, unknownCards, opponentSlots, colorVoids, excludedCards, sampler);
+	}
+
+	/**
+	 * Balances key cards over one decision's worlds, or null when stratified sampling is off.
+	 */
+	private StratifiedSampler stratifiedSampler(SimulationState baseState, List<Card> unknownCards,
+												int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
+												Map<Integer, Set<Card>> excludedCards, int worlds) {
+		if (!config.isStratifiedSampling()) {
+			return null;
+		}
+		return new StratifiedSampler(unknownCards, opponentSlots, colorVoids, excludedCards,
+				baseState.getBotPlayerIndex(), worlds);
+	}
+
+	/**
+	 * @param sampler intended holders of the key cards, or null to deal every card at random
+	 */
 	private SimulationState createDeterminizedState(SimulationState baseState, List<Card> unknownCards,
 													int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
-													Map<Integer, Set<Card>> excludedCards) {
-		SimulationState state = baseState.deepCopy();
-		int botIndex = state.getBotPlayerIndex();
+													Map<Integer, Set<Card>> excludedCards, StratifiedSampler sampler) {
+		int botIndex = baseState.getBotPlayerIndex();
 
 		// Build opponent predictions array for prediction-aware determinization
 		// Use -1 for bot and opponents whose predictions aren't known yet,
 		// so Determinizer skips plausibility checks and avoids hand-strength bias.
-		int[] opponentPredictions = new int[state.getTotalPlayers()];
-		for (int i = 0; i < state.getTotalPlayers(); i++) {
+		int[] opponentPredictions = new int[baseState.getTotalPlayers()];
+		for (int i = 0; i < baseState.getTotalPlayers(); i++) {
 			if (i == botIndex) {
 				opponentPredictions[i] = -1;
-			} else if (!state.isKnownPrediction(i)) {
+			} else if (!baseState.isKnownPrediction(i)) {
 				opponentPredictions[i] = -1;
 			} else {
-				opponentPredictions[i] = state.getExpectedTakes(i);
+				opponentPredictions[i] = baseState.getExpectedTakes(i);
 			}
 		}
 
 		List<List<Card>> sampledHands = Determinizer.sampleOpponentHands(
-				unknownCards, opponentSlots, colorVoids, botIndex, opponentPredictions, excludedCards);
+				unknownCards, opponentSlots, colorVoids, botIndex, opponentPredictions, excludedCards,
+				sampler != null ? sampler.nextKeyCardHolders() : Map.of());
+		return createWorldState(baseState, sampledHands);
+	}
+
+	/**
+	 * The decision's state with the given opponent hands.
+	 */
+	private SimulationState createWorldState(SimulationState baseState, List<List<Card>> opponentHands) {
+		SimulationState state = baseState.deepCopy();
+		int botIndex = state.getBotPlayerIndex();
 
 		// Replace opponent hands in the state copy
 		for (int i = 0; i < state.getTotalPlayers(); i++) {
 			if (i != botIndex) {
 				List<Card> hand = state.getHand(i);
 				hand.clear();
-				hand.addAll(sampledHands.get(i));
+				hand.addAll(opponentHands.get(i));
 			}
 		}
 
@@ -157,50 +641,231 @@ public final class MctsEngine {
 		return state;
 	}
 
-	private void runIteration(MctsNode node, SimulationState state) {
+	/**
+	 * @param rootChild      child to descend into instead of the UCB1 choice at the root, or {@link MctsTree#NONE}
+	 * @param transpositions statistics shared between transposed positions of this world, or null
+	 */
+	private void runIteration(MctsTree tree, int rootChild, SimulationState state,
+							  TranspositionTable transpositions) {
+		boolean cardPlay = state.getPhase() == SimulationState.Phase.PLAYING;
+		int node = MctsTree.ROOT;
+		tree.addVirtualLoss(node);
+
 		// Selection
-		while (node.isFullyExpanded() && node.hasChildren()) {
-			node = node.selectChildUcb1(EXPLORATION_CONSTANT);
-			state.applyAction(node.getAction());
+		if (rootChild != MctsTree.NONE) {
+			node = rootChild;
+			tree.addVirtualLoss(node);
+			state.applyAction(tree.getAction(node));
+		}
+		// The root keeps being searched once proven — its children's averages make the decision
+		while ((node == MctsTree.ROOT || !tree.isProven(node)) && tree.isFullyExpanded(node) && tree.hasChildren(node)) {
+			int selected = tree.selectChildUcb1(node, config.getExplorationConstant(), config.getRaveEquivalence());
+			if (selected == MctsTree.NONE) {
+				// Only proven losses below — roll out from here until another thread's proof arrives
+				break;
+			}
+			node = selected;
+			tree.addVirtualLoss(node);
+			state.applyAction(tree.getAction(node));
 		}
 
-		// Expansion
-		if (node.hasUntriedActions() && !state.isTerminal()) {
-			MctsAction action = node.getUntriedAction();
+		// Expansion — none below the expansion threshold or once the tree is full,
+		// the iteration then rolls out from the leaf
+		MctsAction action = isExpandable(tree, node, state) ? tree.pollUntriedAction(node) : null;
+		if (action != null) {
 			double heuristic = RolloutPolicy.heuristicValue(state, action);
 			state.applyAction(action);
-			List<MctsAction> childActions = state.isTerminal()
-					? List.of()
-					: RolloutPolicy.prioritizeActions(state, state.getLegalActions());
-			node = node.addChild(action, childActions, heuristic);
+			// A decided outcome makes the child a proven leaf — it is never expanded.
+			// Otherwise its actions are generated only once it reaches the expansion threshold.
+			double decidedReward = state.getDecidedReward();
+			List<MctsAction> childActions = Double.isNaN(decidedReward) ? null : List.of();
+			node = tree.addChild(node, action, childActions, heuristic,
+					state.getCurrentPlayerIndex() == state.getBotPlayerIndex());
+			if (transpositions != null) {
+				tree.attachTransposition(node, transpositions, state.getHash());
+			}
+			if (!Double.isNaN(decidedReward)) {
+				tree.prove(node, decidedReward);
+			}
 		}
 
-		// Rollout
-		double reward = RolloutPolicy.rollout(state);
+		// Rollout — not needed below a proven node
+		boolean rave = config.getRaveEquivalence() > 0;
+		RolloutBatch rollouts = tree.isProven(node) && node != MctsTree.ROOT
+				? new RolloutBatch(tree.getProvenValue(node), 0)
+				: rolloutLeaf(state, rave, cardPlay);
+
+		tree.backpropagate(node, rollouts.reward(), config.getLeafRollouts(), rave, rollouts.playedCards(), true);
+	}
+
+	/**
+	 * Average reward of the configured batch of rollouts from a leaf. The first is the heuristic
+	 * playout of the leaf state itself and provides the played cards for RAVE; the others play
+	 * out copies with random moves mixed in, spread over the leaf rollout threads. A leaf within
+	 * the endgame threshold of a card-play search is solved instead.
+	 *
+	 * @param cardPlay whether the search decides a card rather than a prediction
+	 */
+	private RolloutBatch rolloutLeaf(SimulationState state, boolean rave, boolean cardPlay) {
+		if (cardPlay && isSolvedLeaf(state)) {
+			// Exact in this world — further rollouts would add nothing
+			return new RolloutBatch(EndgameSolver.solve(state, config.getEndgameOpponents(), endgameCache()), 0);
+		}
+
+		Set<MctsAction> playedCards = rave ? new HashSet<>() : null;
+		int rollouts = config.getLeafRollouts();
+		int threads = Math.min(config.getLeafRolloutThreads(), rollouts);
+
+		double totalReward;
+		if (rollouts == 1) {
+			totalReward = rollout(state, playedCards, 0);
+		} else {
+			// Copy before the first rollout plays the leaf state out
+			List<SimulationState> states = new ArrayList<>(rollouts);
+			states.add(state);
+			for (int i = 1; i < rollouts; i++) {
+				states.add(state.deepCopy());
+			}
+
+			List<Callable<Double>> tasks = new ArrayList<>(threads);
+			for (int t = 0; t < threads; t++) {
+				int first = t;
+				tasks.add(() -> {
+					double reward = 0;
+					for (int i = first; i < rollouts; i += threads) {
+						reward += i == 0
+								? rollout(states.get(i), playedCards, 0)
+								: rollout(states.get(i), null, EXPLORING_MOVE_PROBABILITY);
+					}
+					return reward;
+				});
+			}
+			// A single task runs on the searching thread
+			totalReward = SearchWorkers.invokeAll(tasks).stream().mapToDouble(Double::doubleValue).sum();
+		}
+		return new RolloutBatch(totalReward / rollouts, rave ? ActionCodes.mask(playedCards) : 0);
+	}
 
-		// Backpropagation
-		while (node != null) {
-			node.update(reward);
-			node = node.getParent();
+	/**
+	 * Rollout of the leaf state, cut short by the value model when configured.
+	 */
+	private double rollout(SimulationState state, Set<MctsAction> playedCards, double randomMoveProbability) {
+		if (config.getRolloutTricks() == 0) {
+			return RolloutPolicy.rollout(state, playedCards, randomMoveProbability);
+		}
+		return RolloutPolicy.rollout(state, playedCards, randomMoveProbability, config.getRolloutTricks(),
+				ValueModel.bundled());
+	}
+
+	/**
+	 * The root and its children always expand; deeper nodes once they are visited often enough, unless proven.
+	 * Generates the node's untried actions on its first expansion.
+	 */
+	private boolean isExpandable(MctsTree tree, int node, SimulationState state) {
+		if (state.isTerminal()) {
+			return false;
+		}
+		if (node != MctsTree.ROOT && (tree.isProven(node) || isBelowExpansionThreshold(tree, node))) {
+			return false;
 		}
+
+		if (tree.isUntriedPending(node)) {
+			tree.setUntriedActions(node, RolloutPolicy.prioritizeActions(state, state.getDistinctLegalActions()));
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the node is a leaf still collecting rollouts before it expands. The root's children
+	 * are exempt: they are the actions compared, and a rollout from a prediction rarely plays to hit
+	 * it, so a child valued by rollouts alone looks lost and is starved once a sibling is proven.
+	 */
+	private boolean isBelowExpansionThreshold(MctsTree tree, int node) {
+		return node != MctsTree.ROOT && tree.getParent(node) != MctsTree.ROOT
+				&& tree.getVisitCount(node) < config.getExpansionThreshold();
+	}
+
+	/**
+	 * SO-ISMCTS iteration: the tree is shared by all worlds, so at every node only the actions
+	 * legal in this iteration's world are expanded or selected, and UCB1 uses availability counts.
+	 *
+	 * @param rootChild child to descend into instead of the UCB1 choice at the root, or {@link MctsTree#NONE}
+	 */
+	private void runInformationSetIteration(MctsTree tree, int rootChild, SimulationState state) {
+		boolean cardPlay = state.getPhase() == SimulationState.Phase.PLAYING;
+		int node = MctsTree.ROOT;
+		tree.addVirtualLoss(node);
+
+		if (rootChild != MctsTree.NONE) {
+			tree.markAvailable(node, ActionCodes.mask(state.getDistinctLegalActions()));
+			node = rootChild;
+			tree.addVirtualLoss(node);
+			state.applyAction(tree.getAction(node));
+		}
+
+		while (!state.isTerminal()) {
+			// A leaf below the expansion threshold has no children yet — roll out from it
+			if (isBelowExpansionThreshold(tree, node)) {
+				break;
+			}
+
+			List<MctsAction> legalActions = state.getDistinctLegalActions();
+			long legalMask = ActionCodes.mask(legalActions);
+
+			// Expansion
+			MctsAction action = tree.pollUnexpandedAction(node, legalActions,
+					actions -> RolloutPolicy.prioritizeActions(state, actions));
+			if (action != null) {
+				double heuristic = RolloutPolicy.heuristicValue(state, action);
+				state.applyAction(action);
+				int child = tree.addChild(node, action, List.of(), heuristic,
+						state.getCurrentPlayerIndex() == state.getBotPlayerIndex());
+				tree.markAvailable(node, legalMask);
+				node = child;
+				break;
+			}
+
+			// Selection
+			tree.markAvailable(node, legalMask);
+			int selected = tree.selectAvailableChildUcb1(node, config.getExplorationConstant(), config.getRaveEquivalence(),
+					legalMask);
+			if (selected == MctsTree.NONE) {
+				// The only legal children are still being added by other threads, or the tree is full
+				break;
+			}
+			node = selected;
+			tree.addVirtualLoss(node);
+			state.applyAction(tree.getAction(node));
+		}
+
+		// Rollout
+		boolean rave = config.getRaveEquivalence() > 0;
+		RolloutBatch rollouts = rolloutLeaf(state, rave, cardPlay);
+
+		// No proofs: an information-set node's outcome differs between worlds
+		tree.backpropagate(node, rollouts.reward(), config.getLeafRollouts(), rave, rollouts.playedCards(), false);
+	}
+
+	private boolean isInformationSetSearch() {
+		return config.getTreeMode() == MctsConfig.TreeMode.INFORMATION_SET;
 	}
 
-	private void aggregateCardResults(MctsNode root, Map<Card, double[]> cardStats) {
-		for (MctsNode child : root.getChildren()) {
-			if (child.getAction() instanceof MctsAction.PlayCard(Card card)) {
+	private void aggregateCardResults(MctsTree tree, IntPredicate counted, Map<Card, double[]> cardStats) {
+		for (int child = tree.getFirstChild(MctsTree.ROOT); child != MctsTree.NONE; child = tree.getNextSibling(child)) {
+			if (counted.test(child) && tree.getAction(child) instanceof MctsAction.PlayCard(Card card)) {
                 double[] stats = cardStats.computeIfAbsent(card, k -> new double[2]);
-				stats[0] += child.getTotalReward();
-				stats[1] += child.getVisitCount();
+				stats[0] += tree.getTotalReward(child);
+				stats[1] += tree.getVisitCount(child);
 			}
 		}
 	}
 
-	private void aggregateTakesResults(MctsNode root, Map<Integer, double[]> takesStats) {
-		for (MctsNode child : root.getChildren()) {
-			if (child.getAction() instanceof MctsAction.PredictTakes(int takes)) {
+	private void aggregateTakesResults(MctsTree tree, IntPredicate counted, Map<Integer, double[]> takesStats) {
+		for (int child = tree.getFirstChild(MctsTree.ROOT); child != MctsTree.NONE; child = tree.getNextSibling(child)) {
+			if (counted.test(child) && tree.getAction(child) instanceof MctsAction.PredictTakes(int takes)) {
                 double[] stats = takesStats.computeIfAbsent(takes, k -> new double[2]);
-				stats[0] += child.getTotalReward();
-				stats[1] += child.getVisitCount();
+				stats[0] += tree.getTotalReward(child);
+				stats[1] += tree.getVisitCount(child);
 			}
 		}
 	}
@@ -221,6 +886,24 @@ public final class MctsEngine {
 		return bestCard;
 	}
 
+	/**
+	 * The card with the best solver value. Exact values often tie — every card may lose the set
+	 * alike — and the rollout heuristic then picks among the tied cards instead of the map order.
+	 */
+	private Card bestSolvedCard(SimulationState baseState, Map<Card, double[]> cardStats) {
+		double[] best = cardStats.get(bestCard(cardStats));
+		double bestAvg = best[0] / best[1];
+
+		List<MctsAction> tiedActions = new ArrayList<>();
+		for (Map.Entry<Card, double[]> entry : cardStats.entrySet()) {
+			double[] stats = entry.getValue();
+			if (stats[0] / stats[1] >= bestAvg - SOLVED_TIE_TOLERANCE) {
+				tiedActions.add(new MctsAction.PlayCard(entry.getKey()));
+			}
+		}
+		return ((MctsAction.PlayCard) RolloutPolicy.selectAction(baseState, tiedActions)).card();
+	}
+
 	private double bestTakes(Map<Integer, double[]> takesStats) {
 		int bestTakes = 0;
 		double bestAvg = Double.NEGATIVE_INFINITY;
@@ -252,29 +935,49 @@ public final class MctsEngine {
 	}
 
 	/**
-	 * Cards are equivalent when they are all the same color and no opponent
-	 * can hold a card between the lowest and highest — so the choice among
-	 * them can never affect the outcome. A gap is allowed if the missing
-	 * card is not in unknownCards (i.e. it was already played or is on the table).
+	 * Per-decision search budget. With a time budget each worker spreads the remaining time
+	 * evenly over its remaining worlds — the k-th of n worlds must finish by
+	 * {@code start + budget * (k + 1) / n}, so an overrunning world only shortens later ones.
 	 */
-	private boolean allEquivalent(List<Card> sortedCards, List<Card> unknownCards) {
-		if (sortedCards.size() <= 1) {
-			return true;
-		}
-		Color color = sortedCards.getFirst().getColor();
-		int min = sortedCards.getFirst().getValue();
-		int max = sortedCards.getLast().getValue();
-		for (Card card : sortedCards) {
-			if (card.getColor() != color) {
-				return false;
-			}
+	private record SearchPlan(int determinizations, int iterationsPerWorld, long startNanos, long timeBudgetNanos) {
+
+		boolean isTimed() {
+			return timeBudgetNanos > 0;
 		}
-		// Check that no opponent can hold a card in the gap
-		for (Card card : unknownCards) {
-			if (card.getColor() == color && card.getValue() > min && card.getValue() < max) {
-				return false;
+
+		long plannedIterations() {
+			return isTimed() ? 0 : (long) iterationsPerWorld * determinizations;
+		}
+
+		boolean isPastDeadline() {
+			return isTimed() && System.nanoTime() - (startNanos + timeBudgetNanos) >= 0;
+		}
+
+		IterationBudget budgetForWorld(int worldOrdinal, int worldCount, int warmIterations) {
+			if (!isTimed()) {
+				return IterationBudget.ofIterations(Math.max(0, iterationsPerWorld - warmIterations));
 			}
+			long worldDeadline = startNanos + timeBudgetNanos * (worldOrdinal + 1) / worldCount;
+			return IterationBudget.until(worldDeadline);
 		}
-		return true;
+	}
+
+	/**
+	 * @param reward      average reward of the batch
+	 * @param playedCards {@link ActionCodes} mask of the cards played by the heuristic rollout (RAVE only)
+	 */
+	private record RolloutBatch(double reward, long playedCards) {
+	}
+
+	/**
+	 * Cards nobody can hold at the decision: neither unknown to the bot nor in the bot's hand or
+	 * on the table — played in earlier tricks or not in the deck at this table size.
+	 */
+	private static long outOfPlayCards(SimulationState baseState, List<Card> unknownCards) {
+		long inPlay = ActionCodes.cardMask(unknownCards) | ActionCodes.cardMask(baseState.getCurrentTrick());
+		for (int i = 0; i < baseState.getTotalPlayers(); i++) {
+			inPlay |= ActionCodes.cardMask(baseState.getHand(i));
+		}
+		return ActionCodes.allCardsMask() & ~inPlay;
 	}
 }
@@ -0,0 +1,689 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Search tree stored as a struct of arrays: every node is an index into parallel primitive
+ * columns, children are linked by first-child/next-sibling indices and actions are stored as
+ * {@link ActionCodes}. A search therefore allocates no node, child list or action list objects.
+ * Trees come from a process-wide pool and go back to it once their search (or the bot's
+ * {@link RetainedSearch}) is done with them, so their columns are reused by later searches;
+ * the pool holds at most 64 MB of columns.
+ * Columns grow by doubling up to a hard node cap; a full tree stops expanding and its
+ * iterations roll out from the leaves instead.
+ * <p>
+ * Safe for several threads iterating on the same tree (tree parallelization): writes are
+ * synchronized on the tree, statistics are read without the lock, child links are published
+ * with release/acquire ordering so readers never reach a half-written node, and virtual loss
+ * steers concurrent threads away from each other's paths. Columns only grow while one thread
+ * searches the tree — call {@link #reserveFullCapacity()} before searching it with several.
+ * <p>
+ * In information-set search a node stands for an information set rather than a state: which of
+ * its actions are legal depends on the world sampled for the iteration, so expansion and
+ * selection are restricted to the legal actions and UCB1 explores by availability counts.
+ */
+final class MctsTree {
+
+	static final int ROOT = 0;
+	static final int NONE = -1;
+	// All columns of a node, including a share of the untried action codes
+	static final int BYTES_PER_NODE = 128;
+
+	private static final int INITIAL_CAPACITY = 256;
+	// Untried count of a node whose actions are generated on its first expansion
+	private static final byte UNTRIED_PENDING = -1;
+	// Pooled trees keep their grown columns — bound the heap they hold between searches
+	private static final long MAX_POOLED_BYTES = 64L << 20;
+	private static final Queue<MctsTree> POOL = new ConcurrentLinkedQueue<>();
+	private static final AtomicLong POOLED_BYTES = new AtomicLong();
+	private static final VarHandle LINKS = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private int maxNodes;
+	private int nodeCount;
+	// Nodes promised to expansions that claimed an action but have not added the child yet
+	private int reservedNodes;
+	private boolean pooled;
+	// Statistics shared with transposed nodes of the same world, null without transposition table
+	private TranspositionTable transpositions;
+
+	private int[] parent;
+	private int[] firstChild;
+	private int[] lastChild;
+	private int[] nextSibling;
+	private byte[] actionCode;
+	private double[] heuristicValue;
+	// Whether the bot chooses among the node's children (false for opponents' nodes)
+	private boolean[] botToMove;
+	// Untried actions of a node, best-prioritized last: untriedCount codes from untriedStart
+	private int[] untriedStart;
+	private byte[] untriedCount;
+	private byte[] untriedCodes;
+	private int untriedSize;
+	// Compaction scratch: untried codes of the kept nodes, swapped with untriedCodes
+	private byte[] compactedCodes;
+	// Actions claimed for expansion whose child has not been added yet
+	private byte[] expandingCount;
+	// Information-set search only: actions that already have (or are getting) a child
+	private long[] expandedActions;
+
+	private int[] visitCount;
+	private double[] totalReward;
+	// Iterations currently passing through the node — counted as visits with zero reward
+	private int[] virtualLoss;
+	// Information-set search only: parent visits in which the node's action was legal
+	private int[] availabilityCount;
+	// RAVE only: iterations in which the node's card was played anywhere below its parent
+	private int[] amafVisitCount;
+	private double[] amafTotalReward;
+	// Exact reward of the subtree once proven (MCTS-Solver), NaN while unknown
+	private double[] provenValue;
+	private long[] positionHash;
+	private int[] transpositionSlot;
+	// Compaction scratch: new index of every old node
+	private int[] remap;
+
+	private MctsTree() {
+		allocate(INITIAL_CAPACITY);
+		untriedCodes = new byte[INITIAL_CAPACITY * 4];
+	}
+
+	/**
+	 * Take a tree from the pool (or create one) holding just a root with the given untried actions.
+	 *
+	 * @param maxNodes hard cap on the number of nodes
+	 */
+	static MctsTree create(int maxNodes, List<MctsAction> rootActions) {
+		MctsTree tree = POOL.poll();
+		if (tree == null) {
+			tree = new MctsTree();
+		} else {
+			POOLED_BYTES.addAndGet(-tree.retainedBytes());
+		}
+
+		tree.pooled = false;
+		tree.maxNodes = Math.max(1, maxNodes);
+		tree.nodeCount = 0;
+		tree.reservedNodes = 0;
+		tree.untriedSize = 0;
+		tree.transpositions = null;
+		tree.addNode(NONE, NONE, rootActions, 0.0, true);
+		return tree;
+	}
+
+	/**
+	 * Return the tree to the pool; it must not be used afterwards. Releasing twice has no effect.
+	 * A tree that would take the pool over its memory bound is left to the garbage collector.
+	 */
+	void release() {
+		if (pooled) {
+			return;
+		}
+		pooled = true;
+		transpositions = null;
+		long bytes = retainedBytes();
+		if (POOLED_BYTES.addAndGet(bytes) <= MAX_POOLED_BYTES) {
+			POOL.offer(this);
+		} else {
+			POOLED_BYTES.addAndGet(-bytes);
+		}
+	}
+
+	/**
+	 * Grow the columns to the node cap now, so that several threads can search the tree.
+	 */
+	synchronized void reserveFullCapacity() {
+		ensureCapacity(maxNodes);
+	}
+
+	/**
+	 * @param raveEquivalence visits at which AMAF and own statistics weigh equally, or 0 without RAVE
+	 * @return the child to descend into, or {@link #NONE} when only proven losses are left — the
+	 * proof of this node is then on its way up from another thread
+	 */
+	int selectChildUcb1(int node, double explorationConstant, int raveEquivalence) {
+		int bestChild = NONE;
+		double bestValue = Double.NEGATIVE_INFINITY;
+
+		// Counts the iterations still on their way down, so the root is never log(0) under tree parallelism
+		double logParentVisits = Math.log(Math.max(1, visitCount[node] + virtualLoss[node]));
+		// Root children all stay in play — their averages make the decision
+		boolean skipProvenLosses = botToMove[node] && parent[node] != NONE;
+
+		for (int child = getFirstChild(node); child != NONE; child = getNextSibling(child)) {
+			if (skipProvenLosses && provenValue[child] <= SimulationState.MIN_REWARD) {
+				continue;
+			}
+
+			int effectiveVisits = visitCount[child] + virtualLoss[child];
+			if (effectiveVisits == 0) {
+				// Just published by another thread, not backed up yet
+				return child;
+			}
+
+			double ucb1 = selectionValue(child, effectiveVisits, logParentVisits, explorationConstant, raveEquivalence);
+			if (ucb1 > bestValue) {
+				bestValue = ucb1;
+				bestChild = child;
+			}
+		}
+
+		return bestChild;
+	}
+
+	/**
+	 * UCB1 among the children whose action is legal in the current world, with the parent visit
+	 * count replaced by each child's availability count (SO-ISMCTS). Call
+	 * {@link #markAvailable(int, long)} for this visit first.
+	 *
+	 * @param legalActions {@link ActionCodes} mask of the actions legal in the current world
+	 * @return the child to descend into, or {@link #NONE} when no legal action has a child
+	 */
+	int selectAvailableChildUcb1(int node, double explorationConstant, int raveEquivalence, long legalActions) {
+		int bestChild = NONE;
+		double bestValue = Double.NEGATIVE_INFINITY;
+
+		for (int child = getFirstChild(node); child != NONE; child = getNextSibling(child)) {
+			if ((legalActions & 1L << actionCode[child]) == 0) {
+				continue;
+			}
+
+			int effectiveVisits = visitCount[child] + virtualLoss[child];
+			if (effectiveVisits == 0) {
+				return child;
+			}
+
+			double logAvailability = Math.log(availabilityCount[child]);
+			double ucb1 = selectionValue(child, effectiveVisits, logAvailability, explorationConstant, raveEquivalence);
+			if (ucb1 > bestValue) {
+				bestValue = ucb1;
+				bestChild = child;
+			}
+		}
+
+		return bestChild;
+	}
+
+	/**
+	 * Exploitation (blended with AMAF when RAVE is on) plus exploration and progressive bias.
+	 */
+	private double selectionValue(int node, int effectiveVisits, double logParentVisits, double explorationConstant,
+								  int raveEquivalence) {
+		double exploitation = totalReward[node] / effectiveVisits;
+		TranspositionTable table = transpositions;
+		int slot = transpositionSlot[node];
+		if (table != null && slot >= 0) {
+			double sharedAverage = table.averageReward(positionHash[node], slot);
+			if (!Double.isNaN(sharedAverage)) {
+				exploitation = sharedAverage;
+			}
+		}
+		int amafVisits = amafVisitCount[node];
+		if (raveEquivalence > 0 && amafVisits > 0) {
+			double beta = Math.sqrt(raveEquivalence / (3.0 * effectiveVisits + raveEquivalence));
+			exploitation = (1 - beta) * exploitation + beta * amafTotalReward[node] / amafVisits;
+		}
+		double exploration = explorationConstant * Math.sqrt(logParentVisits / effectiveVisits);
+		double progressiveBias = heuristicValue[node] / (effectiveVisits + 1);
+		return exploitation + exploration + progressiveBias;
+	}
+
+	/**
+	 * Count one availability for every child whose action is legal in the current world.
+	 */
+	synchronized void markAvailable(int node, long legalActions) {
+		for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+			if ((legalActions & 1L << actionCode[child]) != 0) {
+				availabilityCount[child]++;
+			}
+		}
+	}
+
+	/**
+	 * Atomically claim a legal action without a child yet, the best-prioritized one first,
+	 * or return null when every legal action of the current world is already expanded
+	 * or the tree is full.
+	 */
+	synchronized MctsAction pollUnexpandedAction(int node, List<MctsAction> legalActions,
+												 UnaryOperator<List<MctsAction>> prioritizer) {
+		if (isFull()) {
+			return null;
+		}
+
+		long expanded = expandedActions[node];
+		List<MctsAction> unexpanded = new ArrayList<>(legalActions.size());
+		for (MctsAction action : legalActions) {
+			if ((expanded & ActionCodes.mask(action)) == 0) {
+				unexpanded.add(action);
+			}
+		}
+		if (unexpanded.isEmpty()) {
+			return null;
+		}
+
+		MctsAction action = prioritizer.apply(unexpanded).getLast();
+		expandedActions[node] = expanded | ActionCodes.mask(action);
+		expandingCount[node]++;
+		reservedNodes++;
+		return action;
+	}
+
+	/**
+	 * Whether the node's untried actions are still to be generated — it was added with null
+	 * actions and has not been expanded yet.
+	 */
+	synchronized boolean isUntriedPending(int node) {
+		return untriedCount[node] == UNTRIED_PENDING;
+	}
+
+	/**
+	 * Generate the untried actions of a node added with null actions; ignored when another thread
+	 * already did.
+	 *
+	 * @param untriedActions prioritized actions, best last
+	 */
+	synchronized void setUntriedActions(int node, List<MctsAction> untriedActions) {
+		if (untriedCount[node] == UNTRIED_PENDING) {
+			appendUntried(node, untriedActions);
+		}
+	}
+
+	/**
+	 * Atomically take the next untried action (best-prioritized last), or null when all actions
+	 * have already been claimed by this or another thread, are still pending or the tree is full.
+	 */
+	synchronized MctsAction pollUntriedAction(int node) {
+		int count = untriedCount[node];
+		if (count <= 0 || isFull()) {
+			return null;
+		}
+
+		untriedCount[node] = (byte) --count;
+		expandingCount[node]++;
+		reservedNodes++;
+		return ActionCodes.decode(untriedCodes[untriedStart[node] + count]);
+	}
+
+	/**
+	 * Add a child for an action claimed via {@link #pollUntriedAction(int)} or
+	 * {@link #pollUnexpandedAction(int, List, UnaryOperator)}.
+	 * The child starts with one virtual loss held by the expanding iteration.
+	 *
+	 * @param childUntriedActions prioritized actions of the child (best last), or null to generate
+	 *                            them via {@link #setUntriedActions(int, List)} on its first expansion
+	 */
+	synchronized int addChild(int node, MctsAction action, List<MctsAction> childUntriedActions,
+							  double heuristicValue, boolean childBotToMove) {
+		reservedNodes--;
+		expandingCount[node]--;
+		int child = addNode(node, ActionCodes.encode(action), childUntriedActions, heuristicValue, childBotToMove);
+		virtualLoss[child] = 1;
+		return child;
+	}
+
+	/**
+	 * Share the node's statistics with every other node of the position, as long as the
+	 * table keeps it. Call before the node's first update.
+	 */
+	synchronized void attachTransposition(int node, TranspositionTable table, long hash) {
+		transpositions = table;
+		positionHash[node] = hash;
+		transpositionSlot[node] = table.store(hash);
+	}
+
+	/**
+	 * Drop all transposition-table links, e.g. before the table is reused for another search.
+	 */
+	synchronized void forgetTranspositions() {
+		transpositions = null;
+		Arrays.fill(transpositionSlot, 0, nodeCount, NONE);
+	}
+
+	synchronized void addVirtualLoss(int node) {
+		virtualLoss[node]++;
+	}
+
+	/**
+	 * Back up a reward from a node to the root and release the virtual losses taken on the way down.
+	 *
+	 * @param rave        update the AMAF statistics of the siblings along the path
+	 * @param playedCards {@link ActionCodes} mask of the cards the rollout played, extended on the
+	 *                    way up with the tree's cards (RAVE only)
+	 * @param solve       propagate the proof of a proven node to its ancestors as far as it goes
+	 */
+	synchronized void backpropagate(int node, double reward, boolean rave, long playedCards, boolean solve) {
+		backpropagate(node, reward, 1, rave, playedCards, solve);
+	}
+
+	/**
+	 * Back up the average reward of several rollouts from one node, counted as that many visits.
+	 *
+	 * @param weight number of rollouts the reward averages
+	 */
+	synchronized void backpropagate(int node, double reward, int weight, boolean rave, long playedCards,
+									boolean solve) {
+		boolean proving = solve && isProven(node);
+		while (node != NONE) {
+			visitCount[node] += weight;
+			totalReward[node] += reward * weight;
+			if (virtualLoss[node] > 0) {
+				virtualLoss[node]--;
+			}
+			if (transpositions != null && transpositionSlot[node] >= 0) {
+				transpositions.update(positionHash[node], transpositionSlot[node], reward, weight);
+			}
+
+			int code = actionCode[node];
+			if (code != NONE && ActionCodes.isCard(code)) {
+				playedCards |= 1L << code;
+			}
+
+			int parentNode = parent[node];
+			if (parentNode != NONE && rave) {
+				updateAmaf(parentNode, playedCards, reward, weight);
+			}
+			if (proving && parentNode != NONE) {
+				proving = tryProveFromChildren(parentNode);
+			}
+			node = parentNode;
+		}
+	}
+
+	/**
+	 * Credit the reward to the AMAF statistics of every child whose card was played
+	 * later in the iteration — in the tree below this node or in the rollout.
+	 */
+	private void updateAmaf(int node, long playedCards, double reward, int weight) {
+		for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+			if ((playedCards & 1L << actionCode[child]) != 0) {
+				amafVisitCount[child] += weight;
+				amafTotalReward[child] += reward * weight;
+			}
+		}
+	}
+
+	/**
+	 * Mark the node's reward as exact, e.g. for a state whose outcome is already decided.
+	 */
+	synchronized void prove(int node, double value) {
+		provenValue[node] = value;
+	}
+
+	/**
+	 * Prove a node from its children (MCTS-Solver). The bot's node is proven by a child with
+	 * the maximal reward, or by the best child once all children are proven. An opponent's node
+	 * needs all children proven with the same reward, so the proof does not depend on assuming
+	 * how opponents play. Children other threads are still adding count as unproven.
+	 *
+	 * @return whether the node is proven now
+	 */
+	private boolean tryProveFromChildren(int node) {
+		if (isProven(node)) {
+			return true;
+		}
+
+		boolean allProven = untriedCount[node] == 0 && expandingCount[node] == 0 && firstChild[node] != NONE;
+		double best = Double.NEGATIVE_INFINITY;
+		double worst = Double.POSITIVE_INFINITY;
+		for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+			double value = provenValue[child];
+			if (Double.isNaN(value)) {
+				allProven = false;
+			} else {
+				best = Math.max(best, value);
+				worst = Math.min(worst, value);
+			}
+		}
+
+		if (botToMove[node] && (best >= SimulationState.MAX_REWARD || allProven)) {
+			provenValue[node] = best;
+		} else if (!botToMove[node] && allProven && best == worst) {
+			provenValue[node] = best;
+		}
+		return isProven(node);
+	}
+
+	boolean isProven(int node) {
+		return !Double.isNaN(provenValue[node]);
+	}
+
+	double getProvenValue(int node) {
+		return provenValue[node];
+	}
+
+	synchronized boolean isFullyExpanded(int node) {
+		return untriedCount[node] == 0;
+	}
+
+	boolean hasChildren(int node) {
+		return getFirstChild(node) != NONE;
+	}
+
+	int getChildCount(int node) {
+		int count = 0;
+		for (int child = getFirstChild(node); child != NONE; child = getNextSibling(child)) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Child reached by an action, or {@link #NONE} when it was never expanded.
+	 */
+	int findChild(int node, MctsAction action) {
+		int code = ActionCodes.encode(action);
+		for (int child = getFirstChild(node); child != NONE; child = getNextSibling(child)) {
+			if (actionCode[child] == code) {
+				return child;
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * Make a node the root: its subtree moves to the front of the columns and everything else —
+	 * the former ancestors and their other subtrees — is dropped. Must not run during a search.
+	 */
+	synchronized void compactTo(int newRoot) {
+		if (remap == null || remap.length < nodeCount) {
+			remap = new int[parent.length];
+		}
+		if (compactedCodes == null || compactedCodes.length < untriedCodes.length) {
+			compactedCodes = new byte[untriedCodes.length];
+		}
+
+		int count = 0;
+		int codes = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			// Parents precede their children, so a kept parent is already remapped
+			boolean kept = node == newRoot || node > newRoot && remap[parent[node]] != NONE;
+			remap[node] = kept ? count : NONE;
+			if (!kept) {
+				continue;
+			}
+
+			// Generated actions are appended, so the codes are not in node order
+			int untried = Math.max(0, untriedCount[node]);
+			System.arraycopy(untriedCodes, untriedStart[node], compactedCodes, codes, untried);
+			moveNode(node, count);
+			untriedStart[count] = codes;
+			codes += untried;
+			count++;
+		}
+
+		for (int node = 0; node < count; node++) {
+			parent[node] = node == ROOT ? NONE : remap[parent[node]];
+			nextSibling[node] = node == ROOT || nextSibling[node] == NONE ? NONE : remap[nextSibling[node]];
+			if (firstChild[node] != NONE) {
+				firstChild[node] = remap[firstChild[node]];
+				lastChild[node] = remap[lastChild[node]];
+			}
+		}
+
+		byte[] previousCodes = untriedCodes;
+		untriedCodes = compactedCodes;
+		compactedCodes = previousCodes;
+		nodeCount = count;
+		untriedSize = codes;
+	}
+
+	MctsAction getAction(int node) {
+		int code = actionCode[node];
+		return code == NONE ? null : ActionCodes.decode(code);
+	}
+
+	int getParent(int node) {
+		return parent[node];
+	}
+
+	int getFirstChild(int node) {
+		return (int) LINKS.getAcquire(firstChild, node);
+	}
+
+	int getNextSibling(int node) {
+		return (int) LINKS.getAcquire(nextSibling, node);
+	}
+
+	int getVisitCount(int node) {
+		return visitCount[node];
+	}
+
+	double getTotalReward(int node) {
+		return totalReward[node];
+	}
+
+	int getNodeCount() {
+		return nodeCount;
+	}
+
+	private long retainedBytes() {
+		return (long) parent.length * BYTES_PER_NODE;
+	}
+
+	private boolean isFull() {
+		return nodeCount + reservedNodes >= maxNodes;
+	}
+
+	private int addNode(int parentNode, int code, List<MctsAction> untriedActions, double heuristic, boolean bot) {
+		ensureCapacity(nodeCount + 1);
+		int node = nodeCount++;
+
+		parent[node] = parentNode;
+		firstChild[node] = NONE;
+		lastChild[node] = NONE;
+		nextSibling[node] = NONE;
+		actionCode[node] = (byte) code;
+		heuristicValue[node] = heuristic;
+		botToMove[node] = bot;
+		expandedActions[node] = 0;
+		expandingCount[node] = 0;
+		visitCount[node] = 0;
+		totalReward[node] = 0;
+		virtualLoss[node] = 0;
+		availabilityCount[node] = 0;
+		amafVisitCount[node] = 0;
+		amafTotalReward[node] = 0;
+		provenValue[node] = Double.NaN;
+		positionHash[node] = 0;
+		transpositionSlot[node] = NONE;
+
+		if (untriedActions == null) {
+			untriedStart[node] = untriedSize;
+			untriedCount[node] = UNTRIED_PENDING;
+		} else {
+			appendUntried(node, untriedActions);
+		}
+
+		// Publish the fully written node
+		if (parentNode != NONE) {
+			if (firstChild[parentNode] == NONE) {
+				LINKS.setRelease(firstChild, parentNode, node);
+			} else {
+				LINKS.setRelease(nextSibling, lastChild[parentNode], node);
+			}
+			lastChild[parentNode] = node;
+		}
+		return node;
+	}
+
+	private void appendUntried(int node, List<MctsAction> untriedActions) {
+		int count = untriedActions.size();
+		if (untriedSize + count > untriedCodes.length) {
+			untriedCodes = Arrays.copyOf(untriedCodes, Math.max(untriedSize + count, 2 * untriedCodes.length));
+		}
+		untriedStart[node] = untriedSize;
+		for (MctsAction action : untriedActions) {
+			untriedCodes[untriedSize++] = (byte) ActionCodes.encode(action);
+		}
+		untriedCount[node] = (byte) count;
+	}
+
+	private void moveNode(int from, int to) {
+		if (from == to) {
+			return;
+		}
+		parent[to] = parent[from];
+		firstChild[to] = firstChild[from];
+		lastChild[to] = lastChild[from];
+		nextSibling[to] = nextSibling[from];
+		actionCode[to] = actionCode[from];
+		heuristicValue[to] = heuristicValue[from];
+		botToMove[to] = botToMove[from];
+		untriedCount[to] = untriedCount[from];
+		expandingCount[to] = expandingCount[from];
+		expandedActions[to] = expandedActions[from];
+		visitCount[to] = visitCount[from];
+		totalReward[to] = totalReward[from];
+		virtualLoss[to] = virtualLoss[from];
+		availabilityCount[to] = availabilityCount[from];
+		amafVisitCount[to] = amafVisitCount[from];
+		amafTotalReward[to] = amafTotalReward[from];
+		provenValue[to] = provenValue[from];
+		positionHash[to] = positionHash[from];
+		transpositionSlot[to] = transpositionSlot[from];
+	}
+
+	private void ensureCapacity(int nodes) {
+		if (nodes > parent.length) {
+			allocate(Math.min(Math.max(nodes, 2 * parent.length), Math.max(nodes, maxNodes)));
+		}
+	}
+
+	private void allocate(int capacity) {
+		parent = grow(parent, capacity);
+		firstChild = grow(firstChild, capacity);
+		lastChild = grow(lastChild, capacity);
+		nextSibling = grow(nextSibling, capacity);
+		actionCode = actionCode == null ? new byte[capacity] : Arrays.copyOf(actionCode, capacity);
+		heuristicValue = grow(heuristicValue, capacity);
+		botToMove = botToMove == null ? new boolean[capacity] : Arrays.copyOf(botToMove, capacity);
+		untriedStart = grow(untriedStart, capacity);
+		untriedCount = untriedCount == null ? new byte[capacity] : Arrays.copyOf(untriedCount, capacity);
+		expandingCount = expandingCount == null ? new byte[capacity] : Arrays.copyOf(expandingCount, capacity);
+		expandedActions = expandedActions == null ? new long[capacity] : Arrays.copyOf(expandedActions, capacity);
+		visitCount = grow(visitCount, capacity);
+		totalReward = grow(totalReward, capacity);
+		virtualLoss = grow(virtualLoss, capacity);
+		availabilityCount = grow(availabilityCount, capacity);
+		amafVisitCount = grow(amafVisitCount, capacity);
+		amafTotalReward = grow(amafTotalReward, capacity);
+		provenValue = grow(provenValue, capacity);
+		positionHash = positionHash == null ? new long[capacity] : Arrays.copyOf(positionHash, capacity);
+		transpositionSlot = grow(transpositionSlot, capacity);
+	}
+
+	private static int[] grow(int[] column, int capacity) {
+		return column == null ? new int[capacity] : Arrays.copyOf(column, capacity);
+	}
+
+	private static double[] grow(double[] column, int capacity) {
+		return column == null ? new double[capacity] : Arrays.copyOf(column, capacity);
+	}
+}
@@ -0,0 +1,310 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Headless tuning of the engine's search parameters by bot-vs-bot self-play: the iterations per
+ * card, the exploration constant and the determinizations per card and per opponent.
+ * <p>
+ * For every CPU penalty SPSA climbs from the baseline, scoring a pair of perturbed configs on the
+ * same deals in the same seat against baseline opponents; the score is the difference of hit
+ * rates minus the penalty times the log2 ratio of CPU time. Every result is then played against
+ * the baseline under a sequential non-inferiority test, and the cheapest config that passes is
+ * written as a properties file {@link MctsConfig#fromProperties(Properties)} reads:
+ * <pre>
+ * ./gradlew tuneMcts [-PmctsTunerArgs="steps=40 deals=32"]
+ * </pre>
+ * Arguments: output file, then {@code key=value} options — {@code players}, {@code handSize},
+ * {@code deals} per SPSA step, {@code steps}, {@code penalties} (comma separated), {@code maxDeals}
+ * of the final test, {@code margin}, {@code seed} and a {@code baseline} config file.
+ */
+public final class MctsTuner {
+
+	private static final Map<String, String> DEFAULT_OPTIONS = Map.of(
+			"players", "4",
+			"handSize", "6",
+			"deals", "24",
+			"steps", "30",
+			"penalties", "0,0.02,0.05,0.1",
+			"maxDeals", "600",
+			"margin", "0.02",
+			"seed", "1");
+
+	private static final int MIN_ITERATIONS_PER_CARD = 50;
+	private static final int MAX_ITERATIONS_PER_CARD = 4000;
+	private static final double MIN_EXPLORATION_CONSTANT = 0.1;
+	private static final double MAX_EXPLORATION_CONSTANT = 2.0;
+	private static final int MAX_DETERMINIZATIONS_PER_CARD = 8;
+	private static final int MAX_DETERMINIZATIONS_PER_OPPONENT = 10;
+
+	// Standard SPSA gain schedules
+	private static final double STEP_SIZE = 0.1;
+	private static final double PERTURBATION = 0.1;
+	private static final double STEP_DECAY = 0.602;
+	private static final double PERTURBATION_DECAY = 0.101;
+
+	private static final double VERDICT_Z = 2.5;
+	private static final int TEST_BATCH = 20;
+
+	/**
+	 * One deal of a set and the seat that bids first.
+	 */
+	record Deal(List<List<Card>> hands, int firstPlayer) {
+	}
+
+	/**
+	 * Hits and CPU time of one seat over a number of sets.
+	 */
+	record Score(int sets, int hits, long cpuNanos) {
+
+		double hitRate() {
+			return sets == 0 ? 0 : (double) hits / sets;
+		}
+	}
+
+	/**
+	 * A tuned config and how it fared against the baseline.
+	 *
+	 * @param penalty  CPU penalty it was tuned for
+	 * @param hitGain  hit rate minus the baseline's on the same deals and seats
+	 * @param cpuRatio CPU time relative to the baseline
+	 */
+	record FrontierPoint(double penalty, MctsConfig config, double hitGain, double cpuRatio,
+						 SequentialComparison.Verdict verdict, int deals) {
+	}
+
+	private MctsTuner() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: MctsTuner <output file> [key=value ...]");
+			System.exit(2);
+		}
+		Path output = Path.of(args[0]);
+		Map<String, String> options = new HashMap<>(DEFAULT_OPTIONS);
+		for (int i = 1; i < args.length; i++) {
+			String[] option = args[i].split("=", 2);
+			if (option.length != 2 || !DEFAULT_OPTIONS.containsKey(option[0]) && !"baseline".equals(option[0])) {
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+			options.put(option[0], option[1]);
+		}
+
+		int players = Integer.parseInt(options.get("players"));
+		int handSize = Integer.parseInt(options.get("handSize"));
+		int dealsPerStep = Integer.parseInt(options.get("deals"));
+		int steps = Integer.parseInt(options.get("steps"));
+		int maxDeals = Integer.parseInt(options.get("maxDeals"));
+		double margin = Double.parseDouble(options.get("margin"));
+		Random random = new Random(Long.parseLong(options.get("seed")));
+
+		MctsConfig baseline = MctsConfig.defaults();
+		if (options.containsKey("baseline")) {
+			Properties properties = new Properties();
+			try (Reader reader = Files.newBufferedReader(Path.of(options.get("baseline")))) {
+				properties.load(reader);
+			}
+			baseline = MctsConfig.fromProperties(properties);
+		}
+		// One thread for honest CPU accounting, no shared cache for order-independent costs
+		baseline = baseline.withParallelism(1).withTreeParallelism(1).withEndgameCache(false);
+
+		List<FrontierPoint> frontier = new ArrayList<>();
+		for (String penaltyOption : options.get("penalties").split(",")) {
+			double penalty = Double.parseDouble(penaltyOption.trim());
+			MctsConfig tuned = spsa(baseline, penalty, steps, dealsPerStep, players, handSize, random);
+			FrontierPoint point = evaluate(penalty, tuned, baseline, maxDeals, margin, players, handSize, random);
+			frontier.add(point);
+			System.out.println(describe(point));
+		}
+
+		frontier.sort(Comparator.comparingDouble(FrontierPoint::cpuRatio));
+		System.out.println("Strength per CPU, cheapest first:");
+		double bestGain = Double.NEGATIVE_INFINITY;
+		for (FrontierPoint point : frontier) {
+			// Dominated points cost more without hitting more
+			boolean dominated = point.hitGain() <= bestGain;
+			bestGain = Math.max(bestGain, point.hitGain());
+			System.out.println((dominated ? "  " : "* ") + describe(point));
+		}
+
+		Optional<FrontierPoint> chosen = frontier.stream()
+				.filter(point -> point.verdict() == SequentialComparison.Verdict.ACCEPT)
+				.findFirst();
+		String summary = chosen
+				.map(point -> String.format("Tuned by MctsTuner for %d players with %d cards, %s", players,
+						handSize, describe(point)))
+				.orElse("No tuned config passed, baseline kept");
+		System.out.println(summary);
+
+		Path parent = output.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		try (Writer writer = Files.newBufferedWriter(output)) {
+			chosen.map(FrontierPoint::config).orElse(baseline).toProperties().store(writer, summary);
+		}
+	}
+
+	/**
+	 * Simultaneous perturbation stochastic approximation over the normalized parameters: every
+	 * step perturbs all of them at once in random directions and moves along the measured slope.
+	 */
+	static MctsConfig spsa(MctsConfig baseline, double penalty, int steps, int dealsPerStep, int players,
+						   int handSize, Random random) {
+		double[] theta = encode(baseline);
+		int stability = Math.max(1, steps / 10);
+		for (int step = 0; step < steps; step++) {
+			double stepSize = STEP_SIZE / Math.pow(step + 1 + stability, STEP_DECAY);
+			double perturbation = PERTURBATION / Math.pow(step + 1, PERTURBATION_DECAY);
+
+			double[] direction = new double[theta.length];
+			double[] plus = new double[theta.length];
+			double[] minus = new double[theta.length];
+			for (int i = 0; i < theta.length; i++) {
+				direction[i] = random.nextBoolean() ? 1 : -1;
+				plus[i] = clamp(theta[i] + perturbation * direction[i]);
+				minus[i] = clamp(theta[i] - perturbation * direction[i]);
+			}
+
+			List<Deal> deals = deal(dealsPerStep, players, handSize, random);
+			Score plusScore = play(decode(baseline, plus), baseline, deals);
+			Score minusScore = play(decode(baseline, minus), baseline, deals);
+			double difference = objective(plusScore, minusScore, penalty);
+
+			for (int i = 0; i < theta.length; i++) {
+				theta[i] = clamp(theta[i] + stepSize * difference / (2 * perturbation * direction[i]));
+			}
+		}
+		return decode(baseline, theta);
+	}
+
+	/**
+	 * Hit rate difference of the first score over the second, minus the penalty per doubling of CPU.
+	 */
+	static double objective(Score score, Score other, double penalty) {
+		double cpuRatio = Math.max(1, score.cpuNanos()) / (double) Math.max(1, other.cpuNanos());
+		return score.hitRate() - other.hitRate() - penalty * Math.log(cpuRatio) / Math.log(2);
+	}
+
+	/**
+	 * Duplicate play against the baseline until the sequential test decides or the deals run out.
+	 */
+	private static FrontierPoint evaluate(double penalty, MctsConfig candidate, MctsConfig baseline, int maxDeals,
+										  double margin, int players, int handSize, Random random) {
+		SequentialComparison comparison = new SequentialComparison(margin, VERDICT_Z, TEST_BATCH);
+		long candidateCpu = 0;
+		long baselineCpu = 0;
+		SequentialComparison.Verdict verdict = SequentialComparison.Verdict.CONTINUE;
+		while (verdict == SequentialComparison.Verdict.CONTINUE && comparison.getSamples() < maxDeals) {
+			List<Deal> deals = deal(TEST_BATCH, players, handSize, random);
+			for (int i = 0; i < deals.size(); i++) {
+				int seat = (comparison.getSamples() + i) % players;
+				Score candidateScore = play(candidate, baseline, deals.get(i), seat);
+				Score baselineScore = play(baseline, baseline, deals.get(i), seat);
+				comparison.add(candidateScore.hits() - baselineScore.hits());
+				candidateCpu += candidateScore.cpuNanos();
+				baselineCpu += baselineScore.cpuNanos();
+			}
+			verdict = comparison.verdict();
+		}
+		double cpuRatio = Math.max(1, candidateCpu) / (double) Math.max(1, baselineCpu);
+		return new FrontierPoint(penalty, candidate, comparison.getMean(), cpuRatio, verdict,
+				comparison.getSamples());
+	}
+
+	/**
+	 * The candidate plays every deal in a rotating seat, baseline engines in the others.
+	 */
+	static Score play(MctsConfig candidate, MctsConfig baseline, List<Deal> deals) {
+		int hits = 0;
+		long cpuNanos = 0;
+		for (int i = 0; i < deals.size(); i++) {
+			Score score = play(candidate, baseline, deals.get(i), i % deals.get(i).hands().size());
+			hits += score.hits();
+			cpuNanos += score.cpuNanos();
+		}
+		return new Score(deals.size(), hits, cpuNanos);
+	}
+
+	private static Score play(MctsConfig candidate, MctsConfig baseline, Deal deal, int seat) {
+		List<MctsEngine> engines = new ArrayList<>();
+		for (int i = 0; i < deal.hands().size(); i++) {
+			engines.add(new MctsEngine(i == seat ? candidate : baseline));
+		}
+		SelfPlayMatch.Result result = SelfPlayMatch.playSet(deal.hands(), deal.firstPlayer(), engines);
+		return new Score(1, result.hits()[seat] ? 1 : 0, result.cpuNanos()[seat]);
+	}
+
+	static List<Deal> deal(int count, int players, int handSize, Random random) {
+		List<Deal> deals = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			List<Card> deck = new ArrayList<>(new CardProvider(players).getShuffledDeckOfCards());
+			// Same seed, same deals
+			deck.sort(Comparator.comparing(Card::getColor).thenComparing(Card::getValue));
+			Collections.shuffle(deck, random);
+
+			List<List<Card>> hands = new ArrayList<>(players);
+			for (int player = 0; player < players; player++) {
+				hands.add(List.copyOf(deck.subList(player * handSize, (player + 1) * handSize)));
+			}
+			deals.add(new Deal(hands, random.nextInt(players)));
+		}
+		return deals;
+	}
+
+	/**
+	 * The tuned parameters scaled to [0, 1]; the iterations on a log scale.
+	 */
+	static double[] encode(MctsConfig config) {
+		return new double[]{
+				clamp(Math.log((double) config.getIterationsPerCard() / MIN_ITERATIONS_PER_CARD)
+						/ Math.log((double) MAX_ITERATIONS_PER_CARD / MIN_ITERATIONS_PER_CARD)),
+				clamp((config.getExplorationConstant() - MIN_EXPLORATION_CONSTANT)
+						/ (MAX_EXPLORATION_CONSTANT - MIN_EXPLORATION_CONSTANT)),
+				clamp((double) config.getDeterminizationsPerCard() / MAX_DETERMINIZATIONS_PER_CARD),
+				clamp((double) config.getDeterminizationsPerOpponent() / MAX_DETERMINIZATIONS_PER_OPPONENT)
+		};
+	}
+
+	static MctsConfig decode(MctsConfig base, double[] theta) {
+		int iterationsPerCard = (int) Math.round(MIN_ITERATIONS_PER_CARD
+				* Math.pow((double) MAX_ITERATIONS_PER_CARD / MIN_ITERATIONS_PER_CARD, theta[0]));
+		double explorationConstant = MIN_EXPLORATION_CONSTANT
+				+ theta[1] * (MAX_EXPLORATION_CONSTANT - MIN_EXPLORATION_CONSTANT);
+		return base.withIterationsPerCard(iterationsPerCard)
+				.withExplorationConstant(explorationConstant)
+				.withDeterminizations((int) Math.round(theta[2] * MAX_DETERMINIZATIONS_PER_CARD),
+						(int) Math.round(theta[3] * MAX_DETERMINIZATIONS_PER_OPPONENT));
+	}
+
+	private static double clamp(double value) {
+		return Math.min(1, Math.max(0, value));
+	}
+
+	private static String describe(FrontierPoint point) {
+		MctsConfig config = point.config();
+		return String.format("penalty %.3f: iterations %d, exploration %.2f, determinizations %d/%d"
+						+ " -> hit rate %+.3f, CPU x%.2f, %s after %d deals",
+				point.penalty(), config.getIterationsPerCard(), config.getExplorationConstant(),
+				config.getDeterminizationsPerCard(), config.getDeterminizationsPerOpponent(),
+				point.hitGain(), point.cpuRatio(), point.verdict(), point.deals());
+	}
+}
@@ -0,0 +1,58 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.function.Supplier;
+
+/**
+ * One thread's schedule of {@link MctsConfig.RootSelection#PAIRED} iterations on a tree: once
+ * every root action has a child, the children are visited in rounds, and all iterations of a
+ * round start from the same world. In a per-world tree that is the tree's world anyway; in
+ * information-set search it makes the root actions face common samples of the opponent hands.
+ */
+final class PairedRounds {
+
+	private final MctsTree tree;
+	private final int rootActionCount;
+	private final Supplier<SimulationState> worlds;
+
+	private int[] candidates;
+	private int turn;
+	private SimulationState roundWorld;
+
+	PairedRounds(MctsTree tree, int rootActionCount, Supplier<SimulationState> worlds) {
+		this.tree = tree;
+		this.rootActionCount = rootActionCount;
+		this.worlds = worlds;
+	}
+
+	/**
+	 * Root child the next iteration must descend into, or {@link MctsTree#NONE} while the root is
+	 * still being expanded. Take the iteration's state from {@link #nextState()} afterwards.
+	 */
+	int nextCandidate() {
+		if (candidates == null) {
+			if (tree.getChildCount(MctsTree.ROOT) < rootActionCount) {
+				return MctsTree.NONE;
+			}
+			candidates = new int[rootActionCount];
+			int child = tree.getFirstChild(MctsTree.ROOT);
+			for (int i = 0; i < rootActionCount; i++, child = tree.getNextSibling(child)) {
+				candidates[i] = child;
+			}
+		}
+
+		if (turn == 0) {
+			roundWorld = worlds.get();
+		}
+		int candidate = candidates[turn];
+		turn = (turn + 1) % candidates.length;
+		return candidate;
+	}
+
+	/**
+	 * State for the iteration of the last {@link #nextCandidate()}: a copy of the round's world,
+	 * or a fresh world while the root is still being expanded.
+	 */
+	SimulationState nextState() {
+		return candidates == null ? worlds.get() : roundWorld.deepCopy();
+	}
+}
@@ -0,0 +1,109 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A background search started by {@link MctsEngine#startPondering(RetainedSearch)}.
+ * Pondering runs on a small process-wide pool — at most a quarter of the cores of this server
+ * node ponder at any time, however many bots wait — and every session stops by itself once it
+ * used up its CPU budget.
+ */
+public final class Pondering {
+
+	private static final int PONDER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+	private static final ExecutorService POOL = Executors.newFixedThreadPool(PONDER_THREADS,
+			Thread.ofPlatform().name("mcts-ponder-", 0).daemon().factory());
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private static final Pondering NONE = new Pondering();
+
+	static {
+		NONE.claimed.set(true);
+		NONE.finished.countDown();
+	}
+
+	private final AtomicBoolean claimed = new AtomicBoolean();
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+	private final CountDownLatch finished = new CountDownLatch(1);
+	private final AtomicLong iterations = new AtomicLong();
+
+	private Pondering() {
+	}
+
+	/**
+	 * A session with nothing to search.
+	 */
+	static Pondering none() {
+		return NONE;
+	}
+
+	/**
+	 * Run the search on the ponder pool. It receives a stop condition — cancelled or out of
+	 * CPU time — and returns the number of iterations it ran.
+	 *
+	 * @param cpuUsed receives the CPU time the session used before {@link #cancel()} returns
+	 */
+	static Pondering start(Duration cpuBudget, ToLongFunction<BooleanSupplier> search, LongConsumer cpuUsed) {
+		Pondering pondering = new Pondering();
+		POOL.execute(() -> {
+			// A session cancelled while still queued never starts
+			if (!pondering.claimed.compareAndSet(false, true)) {
+				return;
+			}
+			long start = cpuTimeNanos();
+			try {
+				long deadline = start + cpuBudget.toNanos();
+				pondering.iterations.set(search.applyAsLong(
+						() -> pondering.cancelled.get() || cpuTimeNanos() - deadline >= 0));
+			} finally {
+				cpuUsed.accept(cpuTimeNanos() - start);
+				pondering.finished.countDown();
+			}
+		});
+		return pondering;
+	}
+
+	/**
+	 * Stop pondering and wait until the search no longer touches the retained trees —
+	 * at most the end of the iteration in progress.
+	 */
+	public void cancel() {
+		cancelled.set(true);
+		if (claimed.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			finished.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Waiting for pondering interrupted", e);
+		}
+	}
+
+	/**
+	 * Iterations run by the finished session; 0 while it is still running.
+	 */
+	public long getIterations() {
+		return iterations.get();
+	}
+
+	/**
+	 * CPU time of the calling thread, or its wall-clock time where the JVM cannot measure CPU time.
+	 */
+	private static long cpuTimeNanos() {
+		return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled()
+				? THREADS.getCurrentThreadCpuTime()
+				: System.nanoTime();
+	}
+}
@@ -0,0 +1,67 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Prediction without a search tree: in every sampled world the bot bids each possible number of
+ * takes in turn and one heuristic playout — the bot playing to make exactly that bid — decides
+ * whether the bid is hit. Counting the hits over the worlds gives each bid's chance of an exact
+ * hit at the cost of one rollout per bid and world.
+ */
+final class PredictionDistribution {
+
+	private PredictionDistribution() {
+	}
+
+	/**
+	 * Exact hits of every bid over the worlds, as {hits, worlds} per bid — the shape of the tree
+	 * search's root statistics.
+	 *
+	 * @param worldSampler fresh world in which the bot is to predict; thread-safe
+	 * @param parallelism  threads the worlds are split across
+	 */
+	static Map<Integer, double[]> estimateHits(Supplier<SimulationState> worldSampler, int worlds, int parallelism) {
+		int threads = Math.max(1, Math.min(parallelism, worlds));
+		List<Callable<Map<Integer, double[]>>> tasks = new ArrayList<>(threads);
+		for (int t = 0; t < threads; t++) {
+			int firstWorld = t;
+			tasks.add(() -> {
+				Map<Integer, double[]> hits = new HashMap<>();
+				for (int w = firstWorld; w < worlds; w += threads) {
+					playWorld(worldSampler.get(), hits);
+				}
+				return hits;
+			});
+		}
+
+		Map<Integer, double[]> hits = new HashMap<>();
+		for (Map<Integer, double[]> threadHits : SearchWorkers.invokeAll(tasks)) {
+			for (Map.Entry<Integer, double[]> entry : threadHits.entrySet()) {
+				double[] stats = hits.computeIfAbsent(entry.getKey(), k -> new double[2]);
+				stats[0] += entry.getValue()[0];
+				stats[1] += entry.getValue()[1];
+			}
+		}
+		return hits;
+	}
+
+	private static void playWorld(SimulationState world, Map<Integer, double[]> hits) {
+		for (MctsAction action : world.getLegalActions()) {
+			if (action instanceof MctsAction.PredictTakes(int takes)) {
+				SimulationState state = world.deepCopy();
+				state.applyAction(action);
+				// Prediction mode rewards exactly the hit bid
+				double reward = RolloutPolicy.rollout(state);
+
+				double[] stats = hits.computeIfAbsent(takes, k -> new double[2]);
+				stats[0] += reward;
+				stats[1]++;
+			}
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Search trees one bot keeps between its consecutive {@code selectCard} decisions within a set.
+ * The worlds are kept below the card the bot played, where {@link MctsEngine#startPondering}
+ * can search them further. Before the next decision every retained world replays the
+ * opponents' cards revealed since and its tree is compacted to the matching node, dropping the
+ * siblings. Worlds whose sampled opponent hands contradict what was played
+ * or newly inferred (voids, value caps) are discarded; the others continue with warm statistics.
+ * <p>
+ * Use one instance per bot and {@link #clear()} it when a new set is dealt, which also returns
+ * the trees to the pool. Not thread-safe —
+ * cancel the bot's {@link Pondering} before using it.
+ */
+public final class RetainedSearch {
+
+	private List<World> worlds = List.of();
+	private List<Card> unknownCards = List.of();
+	// CPU time pondered on the worlds since the bot's last decision
+	private long ponderNanos;
+
+	public void clear() {
+		worlds.forEach(world -> world.tree().release());
+		worlds = List.of();
+		unknownCards = List.of();
+		ponderNanos = 0;
+	}
+
+	int worldCount() {
+		return worlds.size();
+	}
+
+	/**
+	 * Keep the searched worlds, each advanced by the card the bot decided to play;
+	 * worlds that never tried the card are released.
+	 */
+	void retain(List<World> searchedWorlds, List<Card> currentUnknownCards, Card playedCard) {
+		MctsAction action = new MctsAction.PlayCard(playedCard);
+		List<World> played = new ArrayList<>(searchedWorlds.size());
+		for (World world : searchedWorlds) {
+			MctsTree tree = world.tree();
+			int child = tree.findChild(MctsTree.ROOT, action);
+			if (child == MctsTree.NONE) {
+				tree.release();
+				continue;
+			}
+
+			SimulationState state = world.state().deepCopy();
+			state.applyAction(action);
+			tree.compactTo(child);
+			played.add(new World(state, tree));
+		}
+
+		clear();
+		worlds = played;
+		unknownCards = List.copyOf(currentUnknownCards);
+	}
+
+	/**
+	 * The retained worlds, for pondering until the bot's next decision.
+	 */
+	List<World> getWorlds() {
+		return worlds;
+	}
+
+	long getPonderNanos() {
+		return ponderNanos;
+	}
+
+	void addPonderNanos(long nanos) {
+		ponderNanos += nanos;
+	}
+
+	/**
+	 * Advance the retained worlds to the bot's new decision and hand them over; the retained
+	 * search is empty afterwards until {@link #retain(List, List, Card)} is called again.
+	 * Inconsistent worlds are released.
+	 */
+	List<World> takeConsistentWorlds(SimulationState baseState, List<Card> currentUnknownCards,
+									 Map<Integer, Set<Color>> colorVoids, Map<Integer, Set<Card>> excludedCards) {
+		List<World> consistent = new ArrayList<>();
+		Set<Card> revealedCards = new HashSet<>(unknownCards);
+		currentUnknownCards.forEach(revealedCards::remove);
+
+		for (World world : worlds) {
+			World advanced = advance(world, baseState, revealedCards, colorVoids, excludedCards);
+			if (advanced != null) {
+				consistent.add(advanced);
+			} else {
+				world.tree().release();
+			}
+		}
+
+		worlds = List.of();
+		unknownCards = List.of();
+		ponderNanos = 0;
+		return consistent;
+	}
+
+	private static World advance(World world, SimulationState baseState, Set<Card> revealedCards,
+								 Map<Integer, Set<Color>> colorVoids, Map<Integer, Set<Card>> excludedCards) {
+		SimulationState state = world.state().deepCopy();
+		int botIndex = state.getBotPlayerIndex();
+
+		// Cards the bot played since — none when the world already continues after its last card
+		List<Card> newBotHand = baseState.getHand(baseState.getBotPlayerIndex());
+		List<Card> botPlayed = new ArrayList<>(state.getHand(botIndex));
+		botPlayed.removeAll(newBotHand);
+		if (botPlayed.size() > 1 || newBotHand.size() != state.getHand(botIndex).size() - botPlayed.size()) {
+			return null;
+		}
+
+		MctsTree tree = world.tree();
+		int node = MctsTree.ROOT;
+		Set<Card> remaining = new HashSet<>(revealedCards);
+		List<Card> newTrick = baseState.getCurrentTrick();
+
+		// Every card played until the bot is to move again with nothing left to replay
+		while (!botPlayed.isEmpty() || state.getCurrentPlayerIndex() != botIndex) {
+			Card card;
+			if (state.getCurrentPlayerIndex() == botIndex) {
+				card = botPlayed.removeFirst();
+			} else {
+				boolean inNewTrick = state.getTricksPlayed() == baseState.getTricksPlayed();
+				card = findPlayedCard(state.getHand(state.getCurrentPlayerIndex()), remaining, newTrick, inNewTrick);
+			}
+
+			MctsAction action = new MctsAction.PlayCard(card);
+			if (card == null || state.isTerminal() || !state.getLegalActions().contains(action)) {
+				return null;
+			}
+			// The tree holds one of equivalent cards only
+			MctsAction treeAction = state.getDistinctAction(action);
+			remaining.remove(card);
+			state.applyAction(action);
+
+			node = tree.findChild(node, treeAction);
+			if (node == MctsTree.NONE) {
+				return null;
+			}
+		}
+
+		if (!remaining.isEmpty() || !matches(state, baseState, colorVoids, excludedCards)) {
+			return null;
+		}
+
+		tree.compactTo(node);
+		return new World(state, tree);
+	}
+
+	/**
+	 * The single revealed card in the player's sampled hand that belongs to the trick being
+	 * played — cards on the table now belong to the new trick, the others to the finished one.
+	 */
+	private static Card findPlayedCard(List<Card> hand, Set<Card> revealedCards, List<Card> newTrick,
+									   boolean inNewTrick) {
+		Card found = null;
+		for (Card card : hand) {
+			if (revealedCards.contains(card) && newTrick.contains(card) == inNewTrick) {
+				if (found != null) {
+					return null;
+				}
+				found = card;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * The replayed world must be the new decision's position with the seats rotated to the new
+	 * leader, and its sampled hands must satisfy the newly inferred constraints.
+	 */
+	private static boolean matches(SimulationState state, SimulationState baseState,
+								   Map<Integer, Set<Color>> colorVoids, Map<Integer, Set<Card>> excludedCards) {
+		int players = state.getTotalPlayers();
+		int offset = state.getLeadPlayerIndex() - baseState.getLeadPlayerIndex();
+		if (players != baseState.getTotalPlayers()
+				|| Math.floorMod(baseState.getBotPlayerIndex() + offset, players) != state.getBotPlayerIndex()
+				|| state.getTricksPlayed() != baseState.getTricksPlayed()
+				|| !state.getCurrentTrick().equals(baseState.getCurrentTrick())) {
+			return false;
+		}
+
+		for (int i = 0; i < players; i++) {
+			int worldIndex = Math.floorMod(i + offset, players);
+			if (state.getActualTakes(worldIndex) != baseState.getActualTakes(i)
+					|| state.getExpectedTakes(worldIndex) != baseState.getExpectedTakes(i)) {
+				return false;
+			}
+
+			List<Card> hand = state.getHand(worldIndex);
+			Set<Color> voids = colorVoids.getOrDefault(i, Set.of());
+			Set<Card> excluded = excludedCards.getOrDefault(i, Set.of());
+			for (Card card : hand) {
+				if (voids.contains(card.getColor()) || excluded.contains(card)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A searched determinized world: its position at the root and its tree.
+	 */
+	record World(SimulationState state, MctsTree tree) {
+	}
+}
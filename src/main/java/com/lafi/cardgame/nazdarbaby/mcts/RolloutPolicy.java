@@ -6,6 +6,8 @@ import com.lafi.cardgame.nazdarbaby.card.Color;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Game-aware heuristic playout for MCTS rollouts.
@@ -95,28 +97,86 @@ final class RolloutPolicy {
 	}
 
 	/**
-	 * Heuristic playout to completion. Returns the reward for the bot player.
+	 * Heuristic playout until the bot's reward is decided. Returns the reward for the bot player.
 	 */
 	static double rollout(SimulationState state) {
+		return rollout(state, null);
+	}
+
+	/**
+	 * Heuristic playout until the bot's reward is decided that also records every card
+	 * played on the way (for RAVE statistics).
+	 *
+	 * @param playedCards receives the {@link MctsAction.PlayCard} actions of the playout, or null
+	 */
+	static double rollout(SimulationState state, Set<MctsAction> playedCards) {
+		return rollout(state, playedCards, 0);
+	}
+
+	/**
+	 * Like {@link #rollout(SimulationState, Set)}, but every move is a uniformly random legal
+	 * action with the given probability, so repeated playouts of one state differ.
+	 *
+	 * @param randomMoveProbability share of random moves, 0 for the pure heuristic playout
+	 */
+	static double rollout(SimulationState state, Set<MctsAction> playedCards, double randomMoveProbability) {
+		return rollout(state, playedCards, randomMoveProbability, Integer.MAX_VALUE, null);
+	}
+
+	/**
+	 * Like {@link #rollout(SimulationState, Set, double)}, but once the given number of tricks is
+	 * finished the value model estimates the reward of the rest.
+	 *
+	 * @param tricks     tricks to play before the estimate
+	 * @param valueModel estimate of the rest, or null to play every trick
+	 */
+	static double rollout(SimulationState state, Set<MctsAction> playedCards, double randomMoveProbability,
+						  int tricks, ValueModel valueModel) {
+		int lastTrick = (int) Math.min(Integer.MAX_VALUE, (long) state.getTricksPlayed() + tricks);
 		while (!state.isTerminal()) {
+			// The outcome can only change when a trick is resolved
+			if (state.getCurrentTrick().isEmpty()) {
+				double decidedReward = state.getDecidedReward();
+				if (!Double.isNaN(decidedReward)) {
+					return decidedReward;
+				}
+				if (valueModel != null && state.getTricksPlayed() >= lastTrick
+						&& state.getPhase() == SimulationState.Phase.PLAYING) {
+					return valueModel.predict(state);
+				}
+			}
+
 			List<MctsAction> actions = state.getLegalActions();
 			if (actions.isEmpty()) {
 				break;
 			}
 
 			MctsAction action;
-			if (state.getPhase() == SimulationState.Phase.PREDICTING) {
-				action = selectPredictionAction(state, actions);
+			if (randomMoveProbability > 0 && ThreadLocalRandom.current().nextDouble() < randomMoveProbability) {
+				action = actions.get(ThreadLocalRandom.current().nextInt(actions.size()));
 			} else {
-				action = selectPlayAction(state, actions);
+				action = selectAction(state, actions);
 			}
 
 			state.applyAction(action);
+			if (playedCards != null && action instanceof MctsAction.PlayCard) {
+				playedCards.add(action);
+			}
 		}
 
 		return state.getRewardForBot();
 	}
 
+	/**
+	 * The heuristic's choice among the legal actions of the player to move.
+	 */
+	static MctsAction selectAction(SimulationState state, List<MctsAction> actions) {
+		if (state.getPhase() == SimulationState.Phase.PREDICTING) {
+			return selectPredictionAction(state, actions);
+		}
+		return selectPlayAction(state, actions);
+	}
+
 	private static MctsAction selectPredictionAction(SimulationState state, List<MctsAction> actions) {
 		int playerIndex = state.getCurrentPlayerIndex();
 		List<Card> hand = state.getHand(playerIndex);
@@ -491,7 +551,7 @@ final class RolloutPolicy {
 
 	/**
 	 * Sort actions by heuristic priority for MCTS expansion ordering.
-	 * Best actions are placed last (MctsNode.getUntriedAction() picks from the end).
+	 * Best actions are placed last (MctsTree.pollUntriedAction() takes from the end).
 	 * Worst-first ordering ensures the tree explores promising branches first.
 	 */
 	static List<MctsAction> prioritizeActions(SimulationState state, List<MctsAction> actions) {
@@ -0,0 +1,229 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Shared bookkeeping of one decision's search across all workers and worlds.
+ * Counts executed iterations, collects root statistics of finished worlds and — when early
+ * stopping is enabled — stops the search once every alternative root action is either worse
+ * than the leader with the configured confidence or can no longer overtake it within the
+ * remaining iteration budget.
+ * <p>
+ * Confidence is judged on per-world paired differences of average reward, not on pooled
+ * iterations: iterations within one world are strongly correlated, so the variance that
+ * matters is the one between determinizations.
+ */
+final class SearchProgress<K> {
+
+	private static final int MIN_WORLDS = 4;
+	private static final int MIN_WORLD_FRACTION = 4;
+
+	private final RootAggregator<K> aggregator;
+	private final long plannedIterations;
+	private final double zScore;
+	private final int minCompletedWorlds;
+	private final AtomicLong executedIterations = new AtomicLong();
+	private final Map<K, double[]> completedStats = new HashMap<>();
+	// Sum of the per-world average rewards and number of worlds of every root action
+	private final Map<K, double[]> worldAverages = new HashMap<>();
+	private final List<Map<K, double[]>> worldStats = new ArrayList<>();
+	private final long startNanos = System.nanoTime();
+
+	private long treeNodes;
+
+	private volatile boolean stopped;
+
+	/**
+	 * @param plannedIterations total iteration budget, or 0 when the search is time-budgeted
+	 * @param confidence        required confidence that the leader is best, or 0 to disable early stopping
+	 */
+	SearchProgress(RootAggregator<K> aggregator, long plannedIterations,
+				   int determinizations, double confidence) {
+		this.aggregator = aggregator;
+		this.plannedIterations = plannedIterations;
+		this.zScore = confidence > 0 ? normalQuantile(confidence) : Double.NaN;
+		this.minCompletedWorlds = Math.max(MIN_WORLDS, determinizations / MIN_WORLD_FRACTION);
+	}
+
+	/**
+	 * Record a finished iteration.
+	 *
+	 * @param rollouts rollouts the iteration backed up
+	 * @return true when the whole search should stop
+	 */
+	boolean afterIteration(int rollouts) {
+		executedIterations.addAndGet(rollouts);
+		return stopped;
+	}
+
+	/**
+	 * @param counted root children whose statistics take part in the decision
+	 */
+	synchronized void worldCompleted(MctsTree tree, IntPredicate counted) {
+		Map<K, double[]> stats = new HashMap<>();
+		aggregator.aggregate(tree, counted, stats);
+		treeNodes += tree.getNodeCount();
+		mergeInto(stats, completedStats);
+		for (Map.Entry<K, double[]> entry : stats.entrySet()) {
+			double[] actionStats = entry.getValue();
+			if (actionStats[1] > 0) {
+				double[] averages = worldAverages.computeIfAbsent(entry.getKey(), k -> new double[2]);
+				averages[0] += actionStats[0] / actionStats[1];
+				averages[1]++;
+			}
+		}
+
+		if (!Double.isNaN(zScore) && !stopped) {
+			worldStats.add(stats);
+			if (worldStats.size() >= minCompletedWorlds && isDecided()) {
+				stopped = true;
+			}
+		}
+	}
+
+	/**
+	 * Merged root statistics of all finished worlds; call once the search is over.
+	 */
+	synchronized Map<K, double[]> getCompletedStats() {
+		return completedStats;
+	}
+
+	/**
+	 * Like {@link #getCompletedStats()}, but every world weighs the same however many iterations
+	 * it gave an action: the sums are of per-world average rewards, the counts are worlds.
+	 */
+	synchronized Map<K, double[]> getWorldAveragedStats() {
+		return worldAverages;
+	}
+
+	boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * End the search at every worker's next iteration, e.g. because one of them failed.
+	 */
+	void stop() {
+		stopped = true;
+	}
+
+	synchronized SearchStatistics toStatistics() {
+		return new SearchStatistics(plannedIterations, executedIterations.get(), System.nanoTime() - startNanos, stopped,
+				treeNodes);
+	}
+
+	private boolean isDecided() {
+		K leader = null;
+		double leaderAverage = Double.NEGATIVE_INFINITY;
+		for (Map.Entry<K, double[]> entry : completedStats.entrySet()) {
+			double[] stats = entry.getValue();
+			double average = stats[1] > 0 ? stats[0] / stats[1] : 0;
+			if (average > leaderAverage) {
+				leaderAverage = average;
+				leader = entry.getKey();
+			}
+		}
+		if (leader == null) {
+			return false;
+		}
+
+		long remaining = plannedIterations > 0 ? Math.max(0, plannedIterations - executedIterations.get()) : -1;
+		for (K alternative : completedStats.keySet()) {
+			if (!alternative.equals(leader) && !isSeparated(leader, alternative)
+					&& !cannotOvertake(completedStats.get(leader), completedStats.get(alternative), remaining)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * One-sided test on the per-world differences of average reward between leader and alternative.
+	 */
+	private boolean isSeparated(K leader, K alternative) {
+		int count = 0;
+		double sum = 0;
+		double sumSquares = 0;
+		for (Map<K, double[]> stats : worldStats) {
+			double[] leaderStats = stats.get(leader);
+			double[] alternativeStats = stats.get(alternative);
+			if (leaderStats == null || alternativeStats == null || leaderStats[1] == 0 || alternativeStats[1] == 0) {
+				continue;
+			}
+			double difference = leaderStats[0] / leaderStats[1] - alternativeStats[0] / alternativeStats[1];
+			count++;
+			sum += difference;
+			sumSquares += difference * difference;
+		}
+		if (count < MIN_WORLDS) {
+			return false;
+		}
+
+		double mean = sum / count;
+		double variance = Math.max(0, (sumSquares - count * mean * mean) / (count - 1));
+		return mean - zScore * Math.sqrt(variance / count) > 0;
+	}
+
+	/**
+	 * Worst case for the leader: every remaining iteration either lowers its average
+	 * with reward 0 or raises the alternative's average with reward 1.
+	 */
+	private static boolean cannotOvertake(double[] leader, double[] alternative, long remaining) {
+		if (remaining < 0) {
+			return false;
+		}
+		double leaderWorst = leader[0] / (leader[1] + remaining);
+		double alternativeBest = (alternative[0] + remaining) / (alternative[1] + remaining);
+		return leaderWorst > alternativeBest;
+	}
+
+	private static <K> void mergeInto(Map<K, double[]> source, Map<K, double[]> target) {
+		for (Map.Entry<K, double[]> entry : source.entrySet()) {
+			double[] stats = target.computeIfAbsent(entry.getKey(), k -> new double[2]);
+			stats[0] += entry.getValue()[0];
+			stats[1] += entry.getValue()[1];
+		}
+	}
+
+	/**
+	 * Adds the visits and total reward of the counted root children to the statistics of their actions.
+	 */
+	@FunctionalInterface
+	interface RootAggregator<K> {
+
+		void aggregate(MctsTree tree, IntPredicate counted, Map<K, double[]> stats);
+	}
+
+	/**
+	 * Standard normal quantile by bisection on the CDF (computed once per search).
+	 */
+	private static double normalQuantile(double probability) {
+		double low = -10;
+		double high = 10;
+		for (int i = 0; i < 60; i++) {
+			double middle = (low + high) / 2;
+			if (normalCdf(middle) < probability) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return (low + high) / 2;
+	}
+
+	/**
+	 * Abramowitz–Stegun 26.2.17 approximation, absolute error below 7.5e-8.
+	 */
+	private static double normalCdf(double x) {
+		double t = 1 / (1 + 0.2316419 * Math.abs(x));
+		double density = Math.exp(-x * x / 2) / Math.sqrt(2 * Math.PI);
+		double tail = density * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937
+				+ t * (-1.821255978 + t * 1.330274429))));
+		return x >= 0 ? 1 - tail : tail;
+	}
+}
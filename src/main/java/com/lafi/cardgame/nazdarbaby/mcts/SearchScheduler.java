@@ -0,0 +1,188 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide admission of bot searches. Only a few searches run at a time — each of them
+ * already spreads over the {@link SearchWorkers} pool — so busy tables cannot take every core
+ * from the UI. Waiting searches are queued per table and the tables take turns, so one table
+ * with many bots gets no more than its share; searches a human is waiting for go before
+ * background ones.
+ * <p>
+ * A search runs on the thread that submitted it, which blocks until its turn; it must not hold
+ * locks other threads need meanwhile, such as the game's.
+ */
+public final class SearchScheduler {
+
+	/**
+	 * Who waits for the search.
+	 */
+	public enum Priority {
+		/** A human player waits for the bot's move. */
+		INTERACTIVE,
+		/** Nobody waits: a table of bots only, or speculative work. */
+		BACKGROUND
+	}
+
+	private static final int DEFAULT_CONCURRENT_SEARCHES = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+	private static final SearchScheduler SHARED = new SearchScheduler(DEFAULT_CONCURRENT_SEARCHES);
+
+	private final int concurrentSearches;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition granted = lock.newCondition();
+	// Tables in turn order per priority; a table goes to the back once one of its searches starts
+	private final Map<Priority, LinkedHashMap<Object, ArrayDeque<Ticket>>> queues = new EnumMap<>(Priority.class);
+	private final int[] queued = new int[Priority.values().length];
+	// Read without the lock by every pondering iteration
+	private volatile int queueDepth;
+
+	private int running;
+	private long completed;
+	private long totalWaitNanos;
+	private long maxWaitNanos;
+
+	SearchScheduler(int concurrentSearches) {
+		if (concurrentSearches < 1) {
+			throw new IllegalArgumentException("concurrentSearches must be positive: " + concurrentSearches);
+		}
+		this.concurrentSearches = concurrentSearches;
+		for (Priority priority : Priority.values()) {
+			queues.put(priority, new LinkedHashMap<>());
+		}
+	}
+
+	public static SearchScheduler shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Run the search once it is admitted and return its result.
+	 *
+	 * @param table    the table the search is for; its searches share one turn among the tables
+	 * @param priority who waits for the result
+	 */
+	public <T> T run(Object table, Priority priority, Supplier<T> search) {
+		Ticket ticket = new Ticket();
+		lock.lock();
+		try {
+			queues.get(priority).computeIfAbsent(table, _ -> new ArrayDeque<>()).add(ticket);
+			queued[priority.ordinal()]++;
+			queueDepth++;
+			dispatch();
+
+			while (!ticket.granted) {
+				try {
+					granted.await();
+				} catch (InterruptedException e) {
+					if (!ticket.granted) {
+						withdraw(table, priority, ticket);
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException("Waiting for a search slot interrupted", e);
+					}
+					// Admitted meanwhile: run the search and leave the interrupt to it
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			long waitNanos = System.nanoTime() - ticket.queuedNanos;
+			totalWaitNanos += waitNanos;
+			maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+		} finally {
+			lock.unlock();
+		}
+
+		try {
+			return search.get();
+		} finally {
+			lock.lock();
+			try {
+				running--;
+				completed++;
+				dispatch();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Whether a search waits for a slot. Background work such as pondering yields to it.
+	 */
+	public boolean hasQueuedSearches() {
+		return queueDepth > 0;
+	}
+
+	public SearchSchedulerStatistics statistics() {
+		lock.lock();
+		try {
+			return new SearchSchedulerStatistics(queued[Priority.INTERACTIVE.ordinal()],
+					queued[Priority.BACKGROUND.ordinal()], running, completed, totalWaitNanos, maxWaitNanos);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Admit waiting searches while slots are free: interactive first, the tables of a priority in turn.
+	 */
+	private void dispatch() {
+		boolean admitted = false;
+		while (running < concurrentSearches) {
+			Ticket ticket = nextTicket();
+			if (ticket == null) {
+				break;
+			}
+			ticket.granted = true;
+			running++;
+			admitted = true;
+		}
+		if (admitted) {
+			granted.signalAll();
+		}
+	}
+
+	private Ticket nextTicket() {
+		for (Priority priority : Priority.values()) {
+			LinkedHashMap<Object, ArrayDeque<Ticket>> tables = queues.get(priority);
+			Iterator<Map.Entry<Object, ArrayDeque<Ticket>>> iterator = tables.entrySet().iterator();
+			if (!iterator.hasNext()) {
+				continue;
+			}
+
+			Map.Entry<Object, ArrayDeque<Ticket>> first = iterator.next();
+			Ticket ticket = first.getValue().poll();
+			iterator.remove();
+			if (!first.getValue().isEmpty()) {
+				tables.put(first.getKey(), first.getValue());
+			}
+			queued[priority.ordinal()]--;
+			queueDepth--;
+			return ticket;
+		}
+		return null;
+	}
+
+	private void withdraw(Object table, Priority priority, Ticket ticket) {
+		ArrayDeque<Ticket> tickets = queues.get(priority).get(table);
+		if (tickets != null && tickets.remove(ticket)) {
+			queued[priority.ordinal()]--;
+			queueDepth--;
+			if (tickets.isEmpty()) {
+				queues.get(priority).remove(table);
+			}
+		}
+	}
+
+	private static final class Ticket {
+
+		private final long queuedNanos = System.nanoTime();
+		private boolean granted;
+	}
+}
@@ -0,0 +1,27 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+/**
+ * State of a {@link SearchScheduler}.
+ *
+ * @param interactiveQueued searches a human waits for that wait for a slot
+ * @param backgroundQueued  other searches waiting for a slot
+ * @param running           searches running now
+ * @param completed         searches finished so far
+ * @param totalWaitNanos    time all admitted searches spent queued
+ * @param maxWaitNanos      longest time a search spent queued
+ */
+public record SearchSchedulerStatistics(int interactiveQueued, int backgroundQueued, int running, long completed,
+										long totalWaitNanos, long maxWaitNanos) {
+
+	public int queueDepth() {
+		return interactiveQueued + backgroundQueued;
+	}
+
+	/**
+	 * Mean time in the queue of the searches admitted so far.
+	 */
+	public double averageWaitMillis() {
+		long admitted = completed + running;
+		return admitted > 0 ? totalWaitNanos / 1e6 / admitted : 0;
+	}
+}
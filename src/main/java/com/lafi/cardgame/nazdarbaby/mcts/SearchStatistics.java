@@ -0,0 +1,18 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+/**
+ * Effort spent on one decision.
+ *
+ * @param plannedIterations  iteration budget of the decision (0 when time-budgeted)
+ * @param executedIterations iterations actually run across all worlds and threads
+ * @param elapsedNanos       wall-clock duration of the search
+ * @param stoppedEarly       whether the search stopped because the decision was already settled
+ * @param treeNodes          nodes of all searched trees when their worlds finished
+ */
+public record SearchStatistics(long plannedIterations, long executedIterations, long elapsedNanos,
+							   boolean stoppedEarly, long treeNodes) {
+
+	public long savedIterations() {
+		return Math.max(0, plannedIterations - executedIterations);
+	}
+}
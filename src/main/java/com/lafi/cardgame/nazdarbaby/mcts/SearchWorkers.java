@@ -0,0 +1,92 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Process-wide bounded thread pool shared by all MCTS searches.
+ * Keeps the number of search threads fixed no matter how many tables run bots.
+ */
+final class SearchWorkers {
+
+	private static final ExecutorService POOL = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(),
+			Thread.ofPlatform().name("mcts-worker-", 0).daemon().factory());
+
+	private SearchWorkers() {
+	}
+
+	/**
+	 * Run tasks concurrently and return their results in task order.
+	 * The calling thread runs the first task itself and then takes over every task
+	 * that no pool thread has started yet — nested calls (e.g. tree-parallel search
+	 * inside a root-parallel worker) therefore can never deadlock on a saturated pool.
+	 */
+	static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+		return invokeAll(tasks, () -> {
+		});
+	}
+
+	/**
+	 * Like {@link #invokeAll(List)} for tasks that loop until told to stop. Search loops do not check
+	 * for interrupts, so cancelling a running task would leave it on its pool thread until its budget
+	 * runs out; instead the first task to fail — or the caller, when it is interrupted — runs
+	 * {@code stop}, which the other tasks' loops must observe.
+	 */
+	static <T> List<T> invokeAll(List<Callable<T>> tasks, Runnable stop) {
+		// Whoever claims a task first runs it — Future.cancel(false) also succeeds on a running task
+		List<AtomicBoolean> claims = new ArrayList<>(tasks.size());
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for (int i = 1; i < tasks.size(); i++) {
+			AtomicBoolean claim = new AtomicBoolean();
+			Callable<T> task = stopOnFailure(tasks.get(i), stop);
+			claims.add(claim);
+			futures.add(POOL.submit(() -> claim.compareAndSet(false, true) ? task.call() : null));
+		}
+
+		List<T> results = new ArrayList<>(tasks.size());
+		try {
+			results.add(stopOnFailure(tasks.getFirst(), stop).call());
+
+			for (int i = 0; i < futures.size(); i++) {
+				if (claims.get(i).compareAndSet(false, true)) {
+					results.add(stopOnFailure(tasks.get(i + 1), stop).call());
+				} else {
+					results.add(futures.get(i).get());
+				}
+			}
+		} catch (InterruptedException e) {
+			stop.run();
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("MCTS search interrupted", e);
+		} catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			throw new IllegalStateException("MCTS search failed", e.getCause());
+		} catch (RuntimeException e) {
+			futures.forEach(future -> future.cancel(true));
+			throw e;
+		} catch (Exception e) {
+			futures.forEach(future -> future.cancel(true));
+			throw new IllegalStateException("MCTS search failed", e);
+		}
+		return results;
+	}
+
+	private static <T> Callable<T> stopOnFailure(Callable<T> task, Runnable stop) {
+		return () -> {
+			try {
+				return task.call();
+			} catch (Throwable e) {
+				stop.run();
+				throw e;
+			}
+		};
+	}
+}
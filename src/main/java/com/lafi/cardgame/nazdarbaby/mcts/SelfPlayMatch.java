@@ -0,0 +1,188 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bot-vs-bot play of one set for tuning. Every seat is driven by its own {@link MctsEngine} and
+ * sees only what a player at the table sees: its own hand, the cards played so far, the takes and
+ * the colors the others failed to follow. The cards nobody was dealt stay unknown, as at the table.
+ * Bids are rounded like {@code BotSimulator} does, including the last bidder's forbidden sum.
+ * <p>
+ * CPU time is measured on the calling thread, so engines should search with parallelism 1.
+ */
+final class SelfPlayMatch {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Outcome of one set per seat.
+	 *
+	 * @param hits      whether the seat took exactly the tricks it bid
+	 * @param cpuNanos  CPU time the seat's engine spent on its decisions
+	 * @param decisions bids and cards the seat's engine chose; forced cards are not asked for
+	 */
+	record Result(boolean[] hits, long[] cpuNanos, int[] decisions) {
+	}
+
+	private SelfPlayMatch() {
+	}
+
+	/**
+	 * @param hands       the deal, one hand per seat
+	 * @param firstPlayer seat that bids and leads first
+	 * @param engines     engine of every seat
+	 */
+	static Result playSet(List<List<Card>> hands, int firstPlayer, List<MctsEngine> engines) {
+		int players = hands.size();
+		int handSize = hands.getFirst().size();
+		List<List<Card>> handsCopy = new ArrayList<>(players);
+		for (List<Card> hand : hands) {
+			handsCopy.add(new ArrayList<>(hand));
+		}
+		SimulationState state = new SimulationState(handsCopy, new int[players], new int[players], new ArrayList<>(),
+				SimulationState.Phase.PREDICTING, firstPlayer, firstPlayer, 0, handSize, 0, 0);
+
+		List<Card> deck = new CardProvider(players).getShuffledDeckOfCards();
+		Set<Card> playedCards = new HashSet<>();
+		Map<Integer, Set<Color>> colorVoids = new HashMap<>();
+		long[] cpuNanos = new long[players];
+		int[] decisions = new int[players];
+		int bidSum = 0;
+		while (!state.isTerminal()) {
+			int player = state.getCurrentPlayerIndex();
+			MctsEngine engine = engines.get(player);
+
+			if (state.getPhase() == SimulationState.Phase.PREDICTING) {
+				SimulationState view = createView(state, player, SimulationState.Phase.PREDICTING);
+				long start = THREADS.getCurrentThreadCpuTime();
+				double prediction = engine.predictTakes(view, unknownCards(deck, playedCards, state, player),
+						opponentSlots(state, player), colorVoids, Map.of());
+				cpuNanos[player] += THREADS.getCurrentThreadCpuTime() - start;
+				decisions[player]++;
+
+				boolean lastBidder = state.getPredictionsDone() == players - 1;
+				int takes = roundBid(prediction, lastBidder ? handSize - bidSum : -1);
+				bidSum += takes;
+				state.applyAction(new MctsAction.PredictTakes(takes));
+				continue;
+			}
+
+			List<MctsAction> actions = state.getLegalActions();
+			MctsAction action = actions.getFirst();
+			if (actions.size() > 1) {
+				SimulationState view = createView(state, player, SimulationState.Phase.PLAYING);
+				long start = THREADS.getCurrentThreadCpuTime();
+				Card selectedCard = engine.selectCard(view, unknownCards(deck, playedCards, state, player),
+						opponentSlots(state, player), colorVoids, Map.of());
+				cpuNanos[player] += THREADS.getCurrentThreadCpuTime() - start;
+				decisions[player]++;
+
+				MctsAction selected = new MctsAction.PlayCard(selectedCard);
+				if (actions.contains(selected)) {
+					action = selected;
+				}
+			}
+
+			Card card = ((MctsAction.PlayCard) action).card();
+			recordVoids(state, player, card, colorVoids);
+			playedCards.add(card);
+			state.applyAction(action);
+		}
+
+		boolean[] hits = new boolean[players];
+		for (int i = 0; i < players; i++) {
+			hits[i] = state.getExpectedTakes(i) == state.getActualTakes(i);
+		}
+		return new Result(hits, cpuNanos, decisions);
+	}
+
+	/**
+	 * The bid nearest to the prediction; the forbidden bid moves towards the prediction's side.
+	 *
+	 * @param forbiddenTakes bid that would make the bids sum up to the hand size, or -1
+	 */
+	static int roundBid(double prediction, int forbiddenTakes) {
+		int rounded = (int) Math.round(prediction);
+		if (rounded != forbiddenTakes) {
+			return rounded;
+		}
+		return prediction > rounded || rounded == 0 ? rounded + 1 : rounded - 1;
+	}
+
+	private static SimulationState createView(SimulationState state, int player, SimulationState.Phase phase) {
+		int players = state.getTotalPlayers();
+		List<List<Card>> hands = new ArrayList<>(players);
+		int[] expectedTakes = new int[players];
+		int[] actualTakes = new int[players];
+		for (int i = 0; i < players; i++) {
+			hands.add(i == player ? new ArrayList<>(state.getHand(i)) : new ArrayList<>());
+			actualTakes[i] = state.getActualTakes(i);
+		}
+
+		// Bids already made are known; in play all of them are
+		int predictionsDone = state.getPredictionsDone();
+		for (int i = 0; i < players; i++) {
+			boolean bidMade = phase == SimulationState.Phase.PLAYING
+					|| Math.floorMod(i - state.getLeadPlayerIndex(), players) < predictionsDone;
+			expectedTakes[i] = bidMade ? state.getExpectedTakes(i) : 0;
+		}
+
+		SimulationState view = new SimulationState(hands, expectedTakes, actualTakes,
+				new ArrayList<>(state.getCurrentTrick()), phase, state.getLeadPlayerIndex(), player,
+				state.getTricksPlayed(), state.getTotalTricks(), player, predictionsDone);
+		for (int i = 0; i < players; i++) {
+			if (phase == SimulationState.Phase.PLAYING
+					|| Math.floorMod(i - state.getLeadPlayerIndex(), players) < predictionsDone) {
+				view.setKnownPrediction(i);
+			}
+		}
+		return view;
+	}
+
+	private static List<Card> unknownCards(List<Card> deck, Set<Card> playedCards, SimulationState state,
+										   int player) {
+		List<Card> unknownCards = new ArrayList<>(deck);
+		unknownCards.removeAll(playedCards);
+		unknownCards.removeAll(state.getHand(player));
+		return unknownCards;
+	}
+
+	private static int[] opponentSlots(SimulationState state, int player) {
+		int[] slots = new int[state.getTotalPlayers()];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = i == player ? 0 : state.getHand(i).size();
+		}
+		return slots;
+	}
+
+	/**
+	 * Not following the lead color shows the color is gone, and not trumping either that hearts are.
+	 */
+	private static void recordVoids(SimulationState state, int player, Card card, Map<Integer, Set<Color>> colorVoids) {
+		List<Card> currentTrick = state.getCurrentTrick();
+		if (currentTrick.isEmpty()) {
+			return;
+		}
+
+		Color leadColor = currentTrick.getFirst().getColor();
+		if (card.getColor() != leadColor) {
+			Set<Color> voids = colorVoids.computeIfAbsent(player, k -> EnumSet.noneOf(Color.class));
+			voids.add(leadColor);
+			if (card.getColor() != Color.HEARTS) {
+				voids.add(Color.HEARTS);
+			}
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+/**
+ * Sequential non-inferiority test on paired differences (candidate minus baseline, per deal).
+ * After every batch the mean difference plus the margin is compared with its standard error:
+ * the candidate is accepted once it is confidently no worse than the baseline by more than the
+ * margin, and rejected once it is confidently worse. Checking after every batch with a strict
+ * z bound keeps the chance of a wrong verdict low without fixing the number of deals upfront.
+ */
+final class SequentialComparison {
+
+	enum Verdict {
+		ACCEPT,
+		REJECT,
+		CONTINUE
+	}
+
+	private final double margin;
+	private final double z;
+	private final int minSamples;
+
+	private int samples;
+	private double sum;
+	private double sumOfSquares;
+
+	/**
+	 * @param margin     how much worse than the baseline still counts as not inferior
+	 * @param z          bound on the standardized difference for a verdict
+	 * @param minSamples samples needed before any verdict
+	 */
+	SequentialComparison(double margin, double z, int minSamples) {
+		if (margin < 0 || z <= 0 || minSamples < 2) {
+			throw new IllegalArgumentException("Invalid sequential test: margin " + margin + ", z " + z
+					+ ", min samples " + minSamples);
+		}
+		this.margin = margin;
+		this.z = z;
+		this.minSamples = minSamples;
+	}
+
+	void add(double difference) {
+		samples++;
+		sum += difference;
+		sumOfSquares += difference * difference;
+	}
+
+	Verdict verdict() {
+		if (samples < minSamples) {
+			return Verdict.CONTINUE;
+		}
+
+		double mean = getMean();
+		double variance = Math.max(0, (sumOfSquares - samples * mean * mean) / (samples - 1));
+		// A difference that never varied is as certain as it gets
+		double standardError = Math.max(Math.sqrt(variance / samples), 1e-9);
+		if ((mean + margin) / standardError >= z) {
+			return Verdict.ACCEPT;
+		}
+		if ((mean + margin) / standardError <= -z) {
+			return Verdict.REJECT;
+		}
+		return Verdict.CONTINUE;
+	}
+
+	int getSamples() {
+		return samples;
+	}
+
+	double getMean() {
+		return samples == 0 ? 0 : sum / samples;
+	}
+}
@@ -0,0 +1,94 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequential halving over the root actions of one world's tree. The budget is split into
+ * ceil(log2(k)) equal rounds; within a round the surviving root children are visited
+ * round-robin, and after each round the weaker half (by average reward) is dropped.
+ * Below the root UCB1 continues as usual. Targets simple regret — only the final choice
+ * matters — instead of the cumulative regret UCB1 minimizes, so only the surviving children's
+ * statistics make the decision.
+ */
+final class SequentialHalving {
+
+	private final MctsTree tree;
+	private final int rootActionCount;
+	private final int rounds;
+	private final AtomicLong turn = new AtomicLong();
+
+	private volatile int[] candidates;
+	private volatile int completedRounds;
+
+	SequentialHalving(MctsTree tree, int rootActionCount) {
+		this.tree = tree;
+		this.rootActionCount = rootActionCount;
+		this.rounds = Math.max(1, 32 - Integer.numberOfLeadingZeros(rootActionCount - 1));
+	}
+
+	/**
+	 * Root child the next iteration must descend into, or {@link MctsTree#NONE} while the root is
+	 * still being expanded (every action gets its first visit through regular expansion).
+	 */
+	int nextCandidate(IterationBudget budget) {
+		int[] current = candidates;
+		if (current == null) {
+			if (tree.getChildCount(MctsTree.ROOT) < rootActionCount) {
+				return MctsTree.NONE;
+			}
+			current = startHalving();
+		}
+
+		if (budget.consumedFraction() >= (double) (completedRounds + 1) / rounds) {
+			current = halve();
+		}
+		return current[(int) (turn.getAndIncrement() % current.length)];
+	}
+
+	/**
+	 * Whether a root child is still in the running; all are before halving starts.
+	 */
+	boolean isCandidate(int child) {
+		int[] current = candidates;
+		if (current == null) {
+			return true;
+		}
+		for (int candidate : current) {
+			if (candidate == child) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private synchronized int[] startHalving() {
+		if (candidates == null) {
+			int[] children = new int[tree.getChildCount(MctsTree.ROOT)];
+			int child = tree.getFirstChild(MctsTree.ROOT);
+			for (int i = 0; i < children.length; i++, child = tree.getNextSibling(child)) {
+				children[i] = child;
+			}
+			candidates = children;
+		}
+		return candidates;
+	}
+
+	private synchronized int[] halve() {
+		int[] current = candidates;
+		// Another thread may have halved already; never drop the last candidate
+		if (current.length > 1 && completedRounds < rounds - 1) {
+			Integer[] sorted = Arrays.stream(current).boxed().toArray(Integer[]::new);
+			Arrays.sort(sorted, Comparator.comparingDouble(this::averageReward).reversed());
+			candidates = Arrays.stream(sorted, 0, (sorted.length + 1) / 2).mapToInt(Integer::intValue).toArray();
+			completedRounds++;
+		}
+		return candidates;
+	}
+
+	private double averageReward(int node) {
+		int visits = tree.getVisitCount(node);
+		return visits > 0 ? tree.getTotalReward(node) / visits : 0;
+	}
+}
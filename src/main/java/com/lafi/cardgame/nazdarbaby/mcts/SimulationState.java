@@ -12,6 +12,10 @@ public final class SimulationState {
 		PLAYING
 	}
 
+	static final double MAX_REWARD = 1.0;
+	static final double MIN_REWARD = 0.0;
+	private static final double SHARED_LOSS_REWARD = 0.1;
+
 	private final List<List<Card>> hands;
 	private final int[] expectedTakes;
 	private final int[] actualTakes;
@@ -27,6 +31,11 @@ public final class SimulationState {
 	private int currentPlayerIndex;
 	private int tricksPlayed;
 	private int predictionsDone;
+	// Zobrist hash of hands, trick and takes, maintained incrementally once computed
+	private long contentHash;
+	private boolean hashValid;
+	// ActionCodes mask of the cards nobody can hold any more: played in finished tricks or not dealt at all
+	private long outOfPlayCards;
 
 	public SimulationState(List<List<Card>> hands, int[] expectedTakes, int[] actualTakes,
 						   List<Card> currentTrick, Phase phase, int leadPlayerIndex,
@@ -74,6 +83,7 @@ public final class SimulationState {
 	void setFixedPrediction(int playerIndex, int takes) {
 		expectedTakes[playerIndex] = takes;
 		knownPrediction[playerIndex] = true;
+		hashValid = false;
 	}
 
 	/**
@@ -90,7 +100,7 @@ public final class SimulationState {
 			handsCopy.add(new ArrayList<>(hand));
 		}
 
-		return new SimulationState(
+		SimulationState copy = new SimulationState(
 				handsCopy,
 				expectedTakes.clone(),
 				actualTakes.clone(),
@@ -105,6 +115,47 @@ public final class SimulationState {
 				botPlayerIndex,
 				predictionsDone
 		);
+		copy.contentHash = contentHash;
+		copy.hashValid = hashValid;
+		copy.outOfPlayCards = outOfPlayCards;
+		return copy;
+	}
+
+	/**
+	 * Cards no player can hold any more at this position, for telling equivalent cards apart;
+	 * cards played later are added as their tricks finish. Without it no cards are equivalent.
+	 */
+	void setOutOfPlayCards(long outOfPlayCards) {
+		this.outOfPlayCards = outOfPlayCards;
+	}
+
+	/**
+	 * Zobrist hash of the position — hands, current trick, takes, predictions and turn — equal
+	 * for transpositions reached by different move orders. Computed in full on first use and
+	 * updated incrementally by {@link #applyAction(MctsAction)} afterwards, so hands must not be
+	 * modified through {@link #getHand(int)} once it has been called.
+	 */
+	long getHash() {
+		if (!hashValid) {
+			contentHash = computeContentHash();
+			hashValid = true;
+		}
+		return contentHash ^ ZobristKeys.turn(phase, leadPlayerIndex, currentPlayerIndex, predictionsDone);
+	}
+
+	private long computeContentHash() {
+		long hash = 0;
+		for (int i = 0; i < totalPlayers; i++) {
+			for (Card card : hands.get(i)) {
+				hash ^= ZobristKeys.handCard(i, card);
+			}
+			hash ^= ZobristKeys.actualTakes(i, actualTakes[i]);
+			hash ^= ZobristKeys.expectedTakes(i, expectedTakes[i]);
+		}
+		for (int i = 0; i < currentTrick.size(); i++) {
+			hash ^= ZobristKeys.trickCard(i, currentTrick.get(i));
+		}
+		return hash;
 	}
 
 	List<MctsAction> getLegalActions() {
@@ -132,6 +183,76 @@ public final class SimulationState {
 		return actions;
 	}
 
+	/**
+	 * Legal actions with equivalent cards collapsed into the lowest of them. Cards of one color are
+	 * equivalent for the player to move when every card between them is the player's own or out of
+	 * play — no other player holds one and none lies on the table — so whichever of them is played,
+	 * the game goes on the same way.
+	 */
+	List<MctsAction> getDistinctLegalActions() {
+		List<MctsAction> actions = getLegalActions();
+		if (phase == Phase.PREDICTING || actions.size() <= 1) {
+			return actions;
+		}
+
+		long legalCards = ActionCodes.mask(actions);
+		List<MctsAction> distinctActions = new ArrayList<>(actions.size());
+		for (MctsAction action : actions) {
+			int code = ActionCodes.cardCode(((MctsAction.PlayCard) action).card());
+			if (lowestEquivalentCode(code, legalCards) == code) {
+				distinctActions.add(action);
+			}
+		}
+		return distinctActions;
+	}
+
+	/**
+	 * The action of {@link #getDistinctLegalActions()} that stands for a legal action.
+	 */
+	MctsAction getDistinctAction(MctsAction action) {
+		if (!(action instanceof MctsAction.PlayCard(Card card))) {
+			return action;
+		}
+
+		int code = ActionCodes.cardCode(card);
+		int lowestCode = lowestEquivalentCode(code, ActionCodes.mask(getLegalActions()));
+		return lowestCode == code ? action : ActionCodes.decode(lowestCode);
+	}
+
+	/**
+	 * Number of groups of equivalent cards in a player's hand, see {@link #getDistinctLegalActions()}.
+	 */
+	int getDistinctCardCount(int playerIndex) {
+		List<Card> hand = hands.get(playerIndex);
+		long handCards = ActionCodes.cardMask(hand);
+		int count = 0;
+		for (Card card : hand) {
+			int code = ActionCodes.cardCode(card);
+			if (lowestEquivalentCode(code, handCards) == code) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Walk down the color from a card over cards out of play; the lowest of the given cards reached
+	 * is equivalent to it.
+	 */
+	private int lowestEquivalentCode(int code, long cards) {
+		int lowest = code;
+		int colorStart = code - code % ActionCodes.CARDS_PER_COLOR;
+		for (int lower = code - 1; lower >= colorStart; lower--) {
+			long bit = 1L << lower;
+			if ((cards & bit) != 0) {
+				lowest = lower;
+			} else if ((outOfPlayCards & bit) == 0) {
+				break;
+			}
+		}
+		return lowest;
+	}
+
 	void applyAction(MctsAction action) {
 		switch (action) {
 			case MctsAction.PredictTakes predict -> applyPrediction(predict.takes());
@@ -158,7 +279,7 @@ public final class SimulationState {
 		boolean botWon = expected == actual;
 
 		if (predictionMode) {
-			return botWon ? 1.0 : 0.0;
+			return botWon ? MAX_REWARD : MIN_REWARD;
 		}
 
 		if (!botWon) {
@@ -168,7 +289,7 @@ public final class SimulationState {
 					loseCount++;
 				}
 			}
-			return loseCount > 1 ? 0.1 : 0.0;
+			return loseCount > 1 ? SHARED_LOSS_REWARD : MIN_REWARD;
 		}
 
 		int winCount = 0;
@@ -177,7 +298,41 @@ public final class SimulationState {
 				winCount++;
 			}
 		}
-		return 1.0 / winCount;
+		return MAX_REWARD / winCount;
+	}
+
+	/**
+	 * Reward for the bot once it can no longer change whatever is played from here on,
+	 * or {@link Double#NaN} while it is still open. Besides terminal states this covers a bot
+	 * that already lost its prediction — in play mode only when another player lost too,
+	 * since the reward still depends on the others.
+	 */
+	double getDecidedReward() {
+		if (isTerminal()) {
+			return getRewardForBot();
+		}
+		if (phase == Phase.PREDICTING || !isDecidedLoss(botPlayerIndex)) {
+			return Double.NaN;
+		}
+
+		if (predictionMode) {
+			return MIN_REWARD;
+		}
+		for (int i = 0; i < totalPlayers; i++) {
+			if (i != botPlayerIndex && isDecidedLoss(i)) {
+				return SHARED_LOSS_REWARD;
+			}
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Took more tricks than predicted, or needs more than are left (including the current trick).
+	 */
+	private boolean isDecidedLoss(int playerIndex) {
+		int remainingTricks = totalTricks - tricksPlayed;
+		return actualTakes[playerIndex] > expectedTakes[playerIndex]
+				|| expectedTakes[playerIndex] - actualTakes[playerIndex] > remainingTricks;
 	}
 
 	int getCurrentPlayerIndex() {
@@ -192,6 +347,10 @@ public final class SimulationState {
 		return phase;
 	}
 
+	boolean isPredictionMode() {
+		return predictionMode;
+	}
+
 	List<Card> getHand(int playerIndex) {
 		return hands.get(playerIndex);
 	}
@@ -233,6 +392,10 @@ public final class SimulationState {
 	}
 
 	private void applyPrediction(int takes) {
+		if (hashValid) {
+			contentHash ^= ZobristKeys.expectedTakes(currentPlayerIndex, expectedTakes[currentPlayerIndex])
+					^ ZobristKeys.expectedTakes(currentPlayerIndex, takes);
+		}
 		expectedTakes[currentPlayerIndex] = takes;
 		predictionsDone++;
 
@@ -262,6 +425,10 @@ public final class SimulationState {
 	private void applyPlayCard(Card card) {
 		List<Card> hand = hands.get(currentPlayerIndex);
 		hand.remove(card);
+		if (hashValid) {
+			contentHash ^= ZobristKeys.handCard(currentPlayerIndex, card)
+					^ ZobristKeys.trickCard(currentTrick.size(), card);
+		}
 		currentTrick.add(card);
 
 		if (currentTrick.size() == totalPlayers) {
@@ -275,8 +442,17 @@ public final class SimulationState {
 		int winnerOffset = TrickEvaluator.getWinningIndex(currentTrick);
 		int winnerIndex = (leadPlayerIndex + winnerOffset) % totalPlayers;
 
+		if (hashValid) {
+			for (int i = 0; i < currentTrick.size(); i++) {
+				contentHash ^= ZobristKeys.trickCard(i, currentTrick.get(i));
+			}
+			contentHash ^= ZobristKeys.actualTakes(winnerIndex, actualTakes[winnerIndex])
+					^ ZobristKeys.actualTakes(winnerIndex, actualTakes[winnerIndex] + 1);
+		}
+
 		actualTakes[winnerIndex]++;
 		tricksPlayed++;
+		outOfPlayCards |= ActionCodes.cardMask(currentTrick);
 		currentTrick.clear();
 
 		leadPlayerIndex = winnerIndex;
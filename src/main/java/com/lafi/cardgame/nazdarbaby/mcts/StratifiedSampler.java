@@ -0,0 +1,147 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spreads the key cards — aces and high hearts, which decide most tricks — evenly over the
+ * determinized worlds of one decision. Within every batch of consecutive worlds each key card
+ * goes to each opponent that can hold it (or stays undealt) in proportion to that opponent's
+ * share of the unknown cards, in a fresh random order per card and batch (Latin hypercube
+ * sampling). {@link Determinizer} deals the remaining cards at random as before.
+ * <p>
+ * Safe for concurrent sampling by several search workers.
+ */
+final class StratifiedSampler {
+
+	// Key-card holder of the cards that stay undealt
+	static final int UNDEALT = -1;
+
+	private static final int ACE_VALUE = 14;
+	private static final int HIGH_HEART_VALUE = 10;
+
+	private final List<Card> keyCards = new ArrayList<>();
+	private final List<int[]> holderWeights = new ArrayList<>();
+	private final int batchSize;
+
+	// Holders of every key card in every world of the current batch
+	private int[][] strata;
+	private int batch = -1;
+	private int worldIndex;
+
+	/**
+	 * @param batchSize worlds over which every key card's holders are balanced
+	 */
+	StratifiedSampler(List<Card> unknownCards, int[] opponentSlots, Map<Integer, Set<Color>> colorVoids,
+					  Map<Integer, Set<Card>> excludedCards, int botPlayerIndex, int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+
+		int dealtCards = 0;
+		for (int i = 0; i < opponentSlots.length; i++) {
+			if (i != botPlayerIndex) {
+				dealtCards += opponentSlots[i];
+			}
+		}
+		int undealtCards = Math.max(0, unknownCards.size() - dealtCards);
+
+		for (Card card : unknownCards) {
+			if (!isKeyCard(card)) {
+				continue;
+			}
+
+			// Weight of each player by its free slots, the last entry for the undealt rest
+			int[] weights = new int[opponentSlots.length + 1];
+			for (int i = 0; i < opponentSlots.length; i++) {
+				boolean possible = i != botPlayerIndex
+						&& !colorVoids.getOrDefault(i, Set.of()).contains(card.getColor())
+						&& !excludedCards.getOrDefault(i, Set.of()).contains(card);
+				weights[i] = possible ? opponentSlots[i] : 0;
+			}
+			weights[opponentSlots.length] = undealtCards;
+
+			keyCards.add(card);
+			holderWeights.add(weights);
+		}
+	}
+
+	static boolean isKeyCard(Card card) {
+		return card.getValue() == ACE_VALUE
+				|| card.getColor() == Color.HEARTS && card.getValue() >= HIGH_HEART_VALUE;
+	}
+
+	/**
+	 * Intended holders of the key cards in the next world: player index, or {@link #UNDEALT}.
+	 * Cards no player can hold are left out.
+	 */
+	synchronized Map<Card, Integer> nextKeyCardHolders() {
+		int currentBatch = worldIndex / batchSize;
+		if (currentBatch != batch) {
+			strata = createStrata();
+			batch = currentBatch;
+		}
+
+		int position = worldIndex++ % batchSize;
+		Map<Card, Integer> holders = new HashMap<>();
+		for (int k = 0; k < keyCards.size(); k++) {
+			int holder = strata[k][position];
+			if (holder != Integer.MIN_VALUE) {
+				holders.put(keyCards.get(k), holder);
+			}
+		}
+		return holders;
+	}
+
+	private int[][] createStrata() {
+		int[][] batchStrata = new int[keyCards.size()][];
+		for (int k = 0; k < keyCards.size(); k++) {
+			List<Integer> holders = apportion(holderWeights.get(k));
+			Collections.shuffle(holders);
+			batchStrata[k] = holders.stream().mapToInt(Integer::intValue).toArray();
+		}
+		return batchStrata;
+	}
+
+	/**
+	 * One holder per world of the batch, each holder as often as its weight's share of the batch
+	 * (largest remainder). {@link Integer#MIN_VALUE} when no one can hold the card.
+	 */
+	private List<Integer> apportion(int[] weights) {
+		int totalWeight = 0;
+		for (int weight : weights) {
+			totalWeight += weight;
+		}
+
+		List<Integer> holders = new ArrayList<>(batchSize);
+		if (totalWeight == 0) {
+			holders.addAll(Collections.nCopies(batchSize, Integer.MIN_VALUE));
+			return holders;
+		}
+
+		int players = weights.length - 1;
+		double[] remainders = new double[weights.length];
+		for (int i = 0; i < weights.length; i++) {
+			double exact = (double) batchSize * weights[i] / totalWeight;
+			int count = (int) exact;
+			remainders[i] = exact - count;
+			holders.addAll(Collections.nCopies(count, i == players ? UNDEALT : i));
+		}
+		while (holders.size() < batchSize) {
+			int largest = 0;
+			for (int i = 1; i < weights.length; i++) {
+				if (remainders[i] > remainders[largest]) {
+					largest = i;
+				}
+			}
+			remainders[largest] = -1;
+			holders.add(largest == players ? UNDEALT : largest);
+		}
+		return holders;
+	}
+}
@@ -0,0 +1,104 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size table of visit statistics keyed by {@link SimulationState#getHash()}, shared by all
+ * tree nodes that reach the same position within one determinized world. Entries live in
+ * parallel primitive arrays sized from a memory cap; on a collision the
+ * {@link MctsConfig.TranspositionReplacement} policy decides which position keeps its slot.
+ * Writes are synchronized for tree-parallel search, reads are not.
+ */
+final class TranspositionTable {
+
+	private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES + Double.BYTES;
+	private static final long EMPTY = 0;
+
+	private final MctsConfig.TranspositionReplacement replacement;
+	private final long[] keys;
+	private final int[] visits;
+	private final double[] rewards;
+	private final int mask;
+
+	TranspositionTable(int megabytes, MctsConfig.TranspositionReplacement replacement) {
+		this.replacement = replacement;
+		int slots = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(2, (long) megabytes * 1024 * 1024 / ENTRY_BYTES)));
+		keys = new long[slots];
+		visits = new int[slots];
+		rewards = new double[slots];
+		mask = slots - 1;
+	}
+
+	synchronized void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(visits, 0);
+		Arrays.fill(rewards, 0);
+	}
+
+	/**
+	 * Find or claim the slot for a position.
+	 *
+	 * @return the slot, or -1 when the policy keeps the current occupants
+	 */
+	synchronized int store(long hash) {
+		long key = toKey(hash);
+		int index = (int) key & mask;
+
+		if (replacement == MctsConfig.TranspositionReplacement.ALWAYS_REPLACE) {
+			if (keys[index] != key) {
+				occupy(index, key);
+			}
+			return index;
+		}
+
+		// Two-tier bucket: the first slot keeps the more visited position, the second takes newcomers
+		int bucket = index & ~1;
+		if (keys[bucket] == key) {
+			return bucket;
+		}
+		if (keys[bucket + 1] == key) {
+			return bucket + 1;
+		}
+		if (keys[bucket] == EMPTY) {
+			occupy(bucket, key);
+			return bucket;
+		}
+		if (visits[bucket + 1] > visits[bucket]) {
+			keys[bucket] = keys[bucket + 1];
+			visits[bucket] = visits[bucket + 1];
+			rewards[bucket] = rewards[bucket + 1];
+		}
+		occupy(bucket + 1, key);
+		return bucket + 1;
+	}
+
+	/**
+	 * Average reward of the position over all paths reaching it, or NaN once its slot
+	 * was taken over by another position (or it has no visits yet).
+	 */
+	double averageReward(long hash, int slot) {
+		int slotVisits = visits[slot];
+		return keys[slot] == toKey(hash) && slotVisits > 0 ? rewards[slot] / slotVisits : Double.NaN;
+	}
+
+	synchronized void update(long hash, int slot, double reward, int weight) {
+		if (keys[slot] == toKey(hash)) {
+			visits[slot] += weight;
+			rewards[slot] += reward * weight;
+		}
+	}
+
+	int capacity() {
+		return keys.length;
+	}
+
+	private void occupy(int slot, long key) {
+		keys[slot] = key;
+		visits[slot] = 0;
+		rewards[slot] = 0;
+	}
+
+	private static long toKey(long hash) {
+		return hash == EMPTY ? 1 : hash;
+	}
+}
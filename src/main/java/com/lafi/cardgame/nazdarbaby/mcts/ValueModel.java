@@ -0,0 +1,183 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Estimate of the bot's rollout reward from a card-play position at a trick boundary, for
+ * rollouts cut short after a few tricks. A logistic model over a handful of features of the
+ * position — what the bot still needs, its sure and weak cards, how the opponents stand —
+ * trained offline by {@link ValueModelTrainer} on heuristic self-play outcomes.
+ * <p>
+ * The weights are read from a properties file, one {@code feature=weight} per line; the
+ * bundled model is loaded once on first use.
+ */
+final class ValueModel {
+
+	static final String RESOURCE = "/mcts/value-model.properties";
+
+	static final List<String> FEATURES = List.of(
+			"bias",
+			// Bot's prediction
+			"onTarget", "neededShare", "missed",
+			// Bot's cards, as shares of the remaining tricks
+			"masterShare", "masterGap", "masterSurplus", "trumpShare", "lowShare",
+			// The same while the bot must not take another trick
+			"onTargetMasters", "onTargetTrumps", "onTargetLows",
+			// Opponents, as shares of the opponents
+			"opponentsOnTarget", "opponentsMissed",
+			// Position
+			"botLeads", "predictionMode", "lastTricks");
+
+	private final double[] weights;
+
+	ValueModel(double[] weights) {
+		if (weights.length != FEATURES.size()) {
+			throw new IllegalArgumentException("Expected " + FEATURES.size() + " weights: " + weights.length);
+		}
+		this.weights = weights.clone();
+	}
+
+	/**
+	 * The model bundled with the application.
+	 */
+	static ValueModel bundled() {
+		return Bundled.MODEL;
+	}
+
+	static ValueModel load(InputStream input) throws IOException {
+		Properties properties = new Properties();
+		properties.load(input);
+
+		double[] weights = new double[FEATURES.size()];
+		for (int i = 0; i < weights.length; i++) {
+			String weight = properties.getProperty(FEATURES.get(i));
+			if (weight == null) {
+				throw new IOException("Missing weight of feature " + FEATURES.get(i));
+			}
+			weights[i] = Double.parseDouble(weight.trim());
+		}
+		return new ValueModel(weights);
+	}
+
+	void save(Writer writer, String comment) throws IOException {
+		writer.write("# " + comment + System.lineSeparator());
+		for (int i = 0; i < weights.length; i++) {
+			writer.write(FEATURES.get(i) + "=" + weights[i] + System.lineSeparator());
+		}
+	}
+
+	/**
+	 * Expected reward of the bot, between {@link SimulationState#MIN_REWARD} and
+	 * {@link SimulationState#MAX_REWARD}.
+	 */
+	double predict(SimulationState state) {
+		return predict(features(state));
+	}
+
+	double predict(double[] features) {
+		double logit = 0;
+		for (int i = 0; i < weights.length; i++) {
+			logit += weights[i] * features[i];
+		}
+		return 1 / (1 + Math.exp(-logit));
+	}
+
+	/**
+	 * Features of a card-play position between tricks with at least one trick left, in
+	 * {@link #FEATURES} order.
+	 */
+	static double[] features(SimulationState state) {
+		int bot = state.getBotPlayerIndex();
+		int players = state.getTotalPlayers();
+		int remaining = Math.max(1, state.getTotalTricks() - state.getTricksPlayed());
+		int needed = state.getExpectedTakes(bot) - state.getActualTakes(bot);
+		boolean missed = needed < 0 || needed > remaining;
+
+		// Highest and lowest remaining card of every color over all hands
+		int[] highest = new int[Color.values().length];
+		int[] lowest = new int[Color.values().length];
+		Arrays.fill(lowest, Integer.MAX_VALUE);
+		for (int i = 0; i < players; i++) {
+			for (Card card : state.getHand(i)) {
+				int color = card.getColor().ordinal();
+				highest[color] = Math.max(highest[color], card.getValue());
+				lowest[color] = Math.min(lowest[color], card.getValue());
+			}
+		}
+
+		int masters = 0;
+		int trumps = 0;
+		int lows = 0;
+		for (Card card : state.getHand(bot)) {
+			int color = card.getColor().ordinal();
+			if (card.getValue() == highest[color]) {
+				masters++;
+			} else if (card.getValue() == lowest[color] && card.getColor() != Color.HEARTS) {
+				lows++;
+			}
+			if (card.getColor() == Color.HEARTS) {
+				trumps++;
+			}
+		}
+
+		int opponentsOnTarget = 0;
+		int opponentsMissed = 0;
+		for (int i = 0; i < players; i++) {
+			if (i == bot) {
+				continue;
+			}
+			int opponentNeeded = state.getExpectedTakes(i) - state.getActualTakes(i);
+			if (opponentNeeded == 0) {
+				opponentsOnTarget++;
+			} else if (opponentNeeded < 0 || opponentNeeded > remaining) {
+				opponentsMissed++;
+			}
+		}
+		int opponents = Math.max(1, players - 1);
+
+		return new double[]{
+				1,
+				needed == 0 ? 1 : 0,
+				missed ? 0 : (double) needed / remaining,
+				missed ? 1 : 0,
+				(double) masters / remaining,
+				missed ? 0 : (double) Math.abs(masters - needed) / remaining,
+				missed ? 0 : (double) (masters - needed) / remaining,
+				(double) trumps / remaining,
+				(double) lows / remaining,
+				needed == 0 ? (double) masters / remaining : 0,
+				needed == 0 ? (double) trumps / remaining : 0,
+				needed == 0 ? (double) lows / remaining : 0,
+				(double) opponentsOnTarget / opponents,
+				(double) opponentsMissed / opponents,
+				state.getCurrentPlayerIndex() == bot ? 1 : 0,
+				state.isPredictionMode() ? 1 : 0,
+				1.0 / remaining
+		};
+	}
+
+	private static final class Bundled {
+
+		private static final ValueModel MODEL = loadBundled();
+
+		private static ValueModel loadBundled() {
+			try (InputStream input = ValueModel.class.getResourceAsStream(RESOURCE)) {
+				if (input == null) {
+					throw new IllegalStateException("Value model resource not found: " + RESOURCE);
+				}
+				return load(input);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
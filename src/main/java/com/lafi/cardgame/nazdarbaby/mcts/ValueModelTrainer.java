@@ -0,0 +1,222 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Headless training of the {@link ValueModel}: plays random sets with the rollout heuristic for
+ * every player, records the features of each position between tricks and the bot's final reward,
+ * and fits the logistic model to them by Newton's method. Runs offline and writes the weights
+ * to a properties file, by default the bundled resource:
+ * <pre>
+ * ./gradlew trainValueModel [-PvalueModelGames=100000]
+ * </pre>
+ * Arguments: output file, number of sets (default 100000), random seed (default 1).
+ */
+public final class ValueModelTrainer {
+
+	private static final int DEFAULT_GAMES = 100_000;
+	private static final int MIN_PLAYERS = 3;
+	private static final int MAX_PLAYERS = 7;
+	private static final int MAX_HAND_SIZE = 10;
+	// One in this many sets is played in prediction mode
+	private static final int PREDICTION_MODE_SHARE = 4;
+	private static final int NEWTON_STEPS = 12;
+	private static final double RIDGE = 1e-3;
+	private static final int HOLDOUT_SHARE = 10;
+
+	private ValueModelTrainer() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: ValueModelTrainer <output file> [games] [seed]");
+			System.exit(2);
+		}
+		Path output = Path.of(args[0]);
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+		List<double[]> features = new ArrayList<>();
+		List<Double> rewards = new ArrayList<>();
+		selfPlay(games, new Random(seed), features, rewards);
+
+		// Every tenth position is held out to report the fit
+		List<double[]> trainFeatures = new ArrayList<>();
+		List<Double> trainRewards = new ArrayList<>();
+		List<double[]> testFeatures = new ArrayList<>();
+		List<Double> testRewards = new ArrayList<>();
+		for (int i = 0; i < features.size(); i++) {
+			boolean holdout = i % HOLDOUT_SHARE == 0;
+			(holdout ? testFeatures : trainFeatures).add(features.get(i));
+			(holdout ? testRewards : trainRewards).add(rewards.get(i));
+		}
+
+		ValueModel model = fit(trainFeatures, trainRewards);
+		double modelError = meanSquaredError(model, testFeatures, testRewards);
+		double baselineError = meanSquaredError(mean(trainRewards), testRewards);
+		String summary = String.format("%d sets, %d positions, seed %d: held-out MSE %.4f (constant %.4f)",
+				games, features.size(), seed, modelError, baselineError);
+		System.out.println(summary);
+
+		Path parent = output.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		try (Writer writer = Files.newBufferedWriter(output)) {
+			model.save(writer, "Trained by ValueModelTrainer on " + summary);
+		}
+	}
+
+	/**
+	 * Play the sets out and collect one sample per position between tricks whose outcome is open.
+	 */
+	static void selfPlay(int games, Random random, List<double[]> features, List<Double> rewards) {
+		for (int game = 0; game < games; game++) {
+			int players = MIN_PLAYERS + random.nextInt(MAX_PLAYERS - MIN_PLAYERS + 1);
+			List<Card> deck = new ArrayList<>(new CardProvider(players).getShuffledDeckOfCards());
+			// Same seed, same sets
+			deck.sort(Comparator.comparing(Card::getColor).thenComparing(Card::getValue));
+			Collections.shuffle(deck, random);
+			int handSize = 1 + random.nextInt(Math.min(MAX_HAND_SIZE, deck.size() / players));
+
+			List<List<Card>> hands = new ArrayList<>();
+			for (int i = 0; i < players; i++) {
+				hands.add(new ArrayList<>(deck.subList(i * handSize, (i + 1) * handSize)));
+			}
+			int lead = random.nextInt(players);
+			SimulationState state = new SimulationState(hands, new int[players], new int[players], new ArrayList<>(),
+					SimulationState.Phase.PREDICTING, lead, lead, 0, handSize, random.nextInt(players), 0);
+			state.setPredictionMode(random.nextInt(PREDICTION_MODE_SHARE) == 0);
+
+			int firstSample = features.size();
+			while (!state.isTerminal()) {
+				if (state.getPhase() == SimulationState.Phase.PLAYING && state.getCurrentTrick().isEmpty()
+						&& Double.isNaN(state.getDecidedReward())) {
+					features.add(ValueModel.features(state));
+				}
+				List<MctsAction> actions = state.getLegalActions();
+				if (actions.isEmpty()) {
+					break;
+				}
+				state.applyAction(RolloutPolicy.selectAction(state, actions));
+			}
+
+			double reward = state.getRewardForBot();
+			for (int i = firstSample; i < features.size(); i++) {
+				rewards.add(reward);
+			}
+		}
+	}
+
+	/**
+	 * Logistic regression on the (fractional) rewards with a small ridge penalty.
+	 */
+	static ValueModel fit(List<double[]> features, List<Double> rewards) {
+		int size = ValueModel.FEATURES.size();
+		double[] weights = new double[size];
+		for (int step = 0; step < NEWTON_STEPS; step++) {
+			ValueModel model = new ValueModel(weights);
+			double[] gradient = new double[size];
+			double[][] hessian = new double[size][size];
+			for (int i = 0; i < features.size(); i++) {
+				double[] x = features.get(i);
+				double p = model.predict(x);
+				double error = p - rewards.get(i);
+				double curvature = Math.max(1e-6, p * (1 - p));
+				for (int j = 0; j < size; j++) {
+					gradient[j] += error * x[j];
+					for (int k = 0; k < size; k++) {
+						hessian[j][k] += curvature * x[j] * x[k];
+					}
+				}
+			}
+			for (int j = 0; j < size; j++) {
+				gradient[j] += RIDGE * features.size() * weights[j];
+				hessian[j][j] += RIDGE * features.size();
+			}
+
+			double[] delta = solve(hessian, gradient);
+			for (int j = 0; j < size; j++) {
+				weights[j] -= delta[j];
+			}
+		}
+		return new ValueModel(weights);
+	}
+
+	/**
+	 * Gaussian elimination with partial pivoting; the ridge keeps the matrix regular.
+	 */
+	private static double[] solve(double[][] matrix, double[] vector) {
+		int n = vector.length;
+		double[][] a = new double[n][];
+		double[] b = vector.clone();
+		for (int i = 0; i < n; i++) {
+			a[i] = matrix[i].clone();
+		}
+
+		for (int column = 0; column < n; column++) {
+			int pivot = column;
+			for (int row = column + 1; row < n; row++) {
+				if (Math.abs(a[row][column]) > Math.abs(a[pivot][column])) {
+					pivot = row;
+				}
+			}
+			double[] pivotRow = a[column];
+			a[column] = a[pivot];
+			a[pivot] = pivotRow;
+			double pivotValue = b[column];
+			b[column] = b[pivot];
+			b[pivot] = pivotValue;
+
+			for (int row = column + 1; row < n; row++) {
+				double factor = a[row][column] / a[column][column];
+				for (int k = column; k < n; k++) {
+					a[row][k] -= factor * a[column][k];
+				}
+				b[row] -= factor * b[column];
+			}
+		}
+
+		double[] x = new double[n];
+		for (int row = n - 1; row >= 0; row--) {
+			double sum = b[row];
+			for (int k = row + 1; k < n; k++) {
+				sum -= a[row][k] * x[k];
+			}
+			x[row] = sum / a[row][row];
+		}
+		return x;
+	}
+
+	static double meanSquaredError(ValueModel model, List<double[]> features, List<Double> rewards) {
+		double sum = 0;
+		for (int i = 0; i < features.size(); i++) {
+			double error = model.predict(features.get(i)) - rewards.get(i);
+			sum += error * error;
+		}
+		return sum / Math.max(1, features.size());
+	}
+
+	private static double meanSquaredError(double constant, List<Double> rewards) {
+		double sum = 0;
+		for (double reward : rewards) {
+			sum += (constant - reward) * (constant - reward);
+		}
+		return sum / Math.max(1, rewards.size());
+	}
+
+	private static double mean(List<Double> values) {
+		return values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+	}
+}
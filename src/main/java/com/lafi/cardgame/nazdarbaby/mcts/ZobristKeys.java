@@ -0,0 +1,51 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+
+/**
+ * Zobrist keys for {@link SimulationState} hashing. Keys are derived on the fly by mixing
+ * the feature's coordinates with the SplitMix64 finalizer instead of looked up in random
+ * tables, so they cover any number of players and cards and are the same in every JVM.
+ */
+final class ZobristKeys {
+
+	private static final int HAND_CARD = 1;
+	private static final int TRICK_CARD = 2;
+	private static final int ACTUAL_TAKES = 3;
+	private static final int EXPECTED_TAKES = 4;
+	private static final int TURN = 5;
+
+	private ZobristKeys() {
+	}
+
+	static long handCard(int playerIndex, Card card) {
+		return key(HAND_CARD, playerIndex, cardIndex(card));
+	}
+
+	static long trickCard(int position, Card card) {
+		return key(TRICK_CARD, position, cardIndex(card));
+	}
+
+	static long actualTakes(int playerIndex, int takes) {
+		return key(ACTUAL_TAKES, playerIndex, takes);
+	}
+
+	static long expectedTakes(int playerIndex, int takes) {
+		return key(EXPECTED_TAKES, playerIndex, takes);
+	}
+
+	static long turn(SimulationState.Phase phase, int leadPlayerIndex, int currentPlayerIndex, int predictionsDone) {
+		return key(TURN, phase.ordinal() << 16 | leadPlayerIndex, currentPlayerIndex << 16 | predictionsDone);
+	}
+
+	private static int cardIndex(Card card) {
+		return card.getColor().ordinal() * 16 + card.getValue();
+	}
+
+	private static long key(int feature, int first, int second) {
+		long z = ((long) feature << 56 ^ (long) first << 28 ^ second) + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
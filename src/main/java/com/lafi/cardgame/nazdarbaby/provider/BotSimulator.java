@@ -3,18 +3,25 @@ package com.lafi.cardgame.nazdarbaby.provider;
 import com.lafi.cardgame.nazdarbaby.card.Card;
 import com.lafi.cardgame.nazdarbaby.card.CardProvider;
 import com.lafi.cardgame.nazdarbaby.card.Color;
+import com.lafi.cardgame.nazdarbaby.mcts.BotDifficulty;
 import com.lafi.cardgame.nazdarbaby.mcts.MctsEngine;
+import com.lafi.cardgame.nazdarbaby.mcts.Pondering;
+import com.lafi.cardgame.nazdarbaby.mcts.RetainedSearch;
+import com.lafi.cardgame.nazdarbaby.mcts.SearchScheduler;
 import com.lafi.cardgame.nazdarbaby.mcts.SimulationState;
 import com.lafi.cardgame.nazdarbaby.user.User;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -23,15 +30,23 @@ public class BotSimulator {
 	private final Set<Card> playedOutCards = new HashSet<>();
 	private final Map<User, Map<User, UserInfo>> botToOtherUsersInfo = new HashMap<>();
 	private final Game game;
-	private final MctsEngine mctsEngine = new MctsEngine();
+	private final Map<BotDifficulty, MctsEngine> mctsEngines = new EnumMap<>(BotDifficulty.class);
+	private final Map<User, RetainedSearch> retainedSearches = new HashMap<>();
+	private final List<Pondering> ponderings = new ArrayList<>();
 
 	private List<Card> cardPlaceholders;
 	private User activeUser;
 	private List<User> users;
 	private int deckOfCardsSize;
+	// Tells a bot whose search ran without the game's lock whether its turn is still on
+	private long turn;
 
 	BotSimulator(Game game) {
 		this.game = game;
+
+		for (BotDifficulty botDifficulty : BotDifficulty.values()) {
+			mctsEngines.put(botDifficulty, new MctsEngine(botDifficulty.getConfig()));
+		}
 	}
 
 	void setCardPlaceholders(List<Card> cardPlaceholders) {
@@ -40,14 +55,19 @@ public class BotSimulator {
 
 	void setActiveUser(User activeUser) {
 		this.activeUser = activeUser;
+		++turn;
 		rememberCardsFromTable();
 	}
 
 	void setUsers(List<User> users) {
 		this.users = users;
+		++turn;
 
 		playedOutCards.clear();
 		botToOtherUsersInfo.clear();
+		stopPondering();
+		retainedSearches.values().forEach(RetainedSearch::clear);
+		retainedSearches.clear();
 
 		for (User theUser : users) {
 			if (theUser.isBot()) {
@@ -63,43 +83,121 @@ public class BotSimulator {
 		this.deckOfCardsSize = deckOfCardsSize;
 	}
 
+	/**
+	 * Play the bots' moves until a human is to move. The game's lock is held while a move is
+	 * prepared and made, not during the search in between, so the players' views keep reading
+	 * the game meanwhile. A move whose turn ended during its search — a new game started — is dropped.
+	 */
 	void tryBotMove() {
-		collectKnownInfoAboutUsers();
+		while (true) {
+			long searchedTurn;
+			Supplier<BotMove> search;
+			synchronized (game) {
+				stopPondering();
+				collectKnownInfoAboutUsers();
+
+				if (activeUser == null) {
+					return;
+				}
+				if (!activeUser.isBot()) {
+					startPondering();
+					return;
+				}
 
-		if (activeUser == null || !activeUser.isBot()) {
-			return;
-		}
+				searchedTurn = turn;
+				search = activeUser.getExpectedTakes() == null ? searchExpectedTakes() : searchCard();
+			}
 
-		if (activeUser.getExpectedTakes() == null) {
-			var expectedTakes = guessExpectedTakes();
-			var expectedTakesRounded = (int) Math.round(expectedTakes);
+			BotMove move = search.get();
 
-			if (game.isLastUserWithInvalidExpectedTakes(expectedTakesRounded)) {
-				if (expectedTakes > expectedTakesRounded || expectedTakesRounded == 0) {
-					activeUser.setExpectedTakes(expectedTakesRounded + 1);
-				} else {
-					activeUser.setExpectedTakes(expectedTakesRounded - 1);
+			synchronized (game) {
+				if (turn != searchedTurn) {
+					move.drop().run();
+					return;
 				}
-			} else {
-				activeUser.setExpectedTakes(expectedTakesRounded);
+				move.make().run();
 			}
+		}
+	}
 
-			game.afterActiveUserSetExpectedTakes();
-		} else {
-			var activeUserCards = activeUser.getCards();
+	/**
+	 * The active bot's prediction: a search to run without the game's lock, returning the move
+	 * to make under it.
+	 */
+	private Supplier<BotMove> searchExpectedTakes() {
+		User bot = activeUser;
+		Supplier<Double> guess = prepareGuessExpectedTakes();
+
+		return () -> {
+			double expectedTakes = guess.get();
+			return new BotMove(() -> {
+				var expectedTakesRounded = (int) Math.round(expectedTakes);
+
+				if (game.isLastUserWithInvalidExpectedTakes(expectedTakesRounded)) {
+					if (expectedTakes > expectedTakesRounded || expectedTakesRounded == 0) {
+						bot.setExpectedTakes(expectedTakesRounded + 1);
+					} else {
+						bot.setExpectedTakes(expectedTakesRounded - 1);
+					}
+				} else {
+					bot.setExpectedTakes(expectedTakesRounded);
+				}
 
-			var activeUserIndex = getActiveUserIndex();
-			var selectedCard = selectCard(activeUserCards);
-			cardPlaceholders.set(activeUserIndex, selectedCard);
+				game.advanceAfterExpectedTakes();
+			});
+		};
+	}
 
-			var cardIndex = activeUserCards.indexOf(selectedCard);
-			activeUserCards.set(cardIndex, CardProvider.CARD_PLACEHOLDER);
+	/**
+	 * The active bot's card, like {@link #searchExpectedTakes()}. The bot's retained search is
+	 * its search's alone until the move is made, so a new set starting meanwhile cannot clear it
+	 * under the search.
+	 */
+	private Supplier<BotMove> searchCard() {
+		User bot = activeUser;
+		var activeUserCards = activeUser.getCards();
+		var activeUserIndex = getActiveUserIndex();
+		RetainedSearch retainedSearch = Objects.requireNonNullElseGet(retainedSearches.remove(bot), RetainedSearch::new);
+		Supplier<Card> selection = selectCard(activeUserCards, retainedSearch);
+
+		return () -> {
+			Card selectedCard = selection.get();
+			return new BotMove(() -> {
+				retainedSearches.put(bot, retainedSearch);
+				cardPlaceholders.set(activeUserIndex, selectedCard);
+
+				var cardIndex = activeUserCards.indexOf(selectedCard);
+				activeUserCards.set(cardIndex, CardProvider.CARD_PLACEHOLDER);
+
+				game.advanceActiveUser();
+			}, retainedSearch::clear);
+		};
+	}
 
-			game.changeActiveUser();
+	/**
+	 * Let every bot that already played in this set search its retained trees while a human thinks.
+	 */
+	private void startPondering() {
+		for (Map.Entry<User, RetainedSearch> retainedSearch : retainedSearches.entrySet()) {
+			MctsEngine mctsEngine = getMctsEngine(retainedSearch.getKey());
+			ponderings.add(mctsEngine.startPondering(retainedSearch.getValue()));
 		}
 	}
 
+	private void stopPondering() {
+		ponderings.forEach(Pondering::cancel);
+		ponderings.clear();
+	}
+
 	public double guessExpectedTakes() {
+		Supplier<Double> guess;
+		synchronized (game) {
+			guess = prepareGuessExpectedTakes();
+		}
+		return guess.get();
+	}
+
+	private Supplier<Double> prepareGuessExpectedTakes() {
 		List<Card> cards;
 		if (activeUser.isBot()) {
 			cards = activeUser.getCards();
@@ -120,7 +218,8 @@ public class BotSimulator {
 		Map<Integer, Set<Color>> colorVoids = computeColorVoids();
 		Map<Integer, Set<Card>> excludedCards = computeExcludedCards(unknownCards);
 
-		return mctsEngine.predictTakes(state, unknownCards, opponentSlots, colorVoids, excludedCards);
+		MctsEngine mctsEngine = getMctsEngine(activeUser);
+		return scheduled(() -> mctsEngine.predictTakes(state, unknownCards, opponentSlots, colorVoids, excludedCards));
 	}
 
 	void removeColorsForOtherUsers(List<Card> cards) {
@@ -136,14 +235,17 @@ public class BotSimulator {
 		}
 	}
 
-	private Card selectCard(List<Card> cards) {
+	/**
+	 * The search for the active bot's card; only the search itself may run without the game's lock.
+	 */
+	private Supplier<Card> selectCard(List<Card> cards, RetainedSearch retainedSearch) {
 		removeColorsForOtherUsers(cards);
 
 		List<Card> sortedPlayableCards = getSortedPlayableCards(cards);
 		int sortedPlayableCardsSize = sortedPlayableCards.size();
 
 		if (sortedPlayableCardsSize == 1) {
-			return sortedPlayableCards.getFirst();
+			return sortedPlayableCards::getFirst;
 		}
 
 		List<Card> nonPlaceholderCards = cards.stream()
@@ -156,13 +258,19 @@ public class BotSimulator {
 		Map<Integer, Set<Color>> colorVoids = computeColorVoids();
 		Map<Integer, Set<Card>> excludedCards = computeExcludedCards(unknownCards);
 
-		Card mctsCard = mctsEngine.selectCard(state, unknownCards, opponentSlots, colorVoids, excludedCards);
+		MctsEngine mctsEngine = getMctsEngine(activeUser);
+		Supplier<Card> search = scheduled(() -> mctsEngine.selectCard(state, unknownCards, opponentSlots, colorVoids,
+				excludedCards, retainedSearch));
 
-		// Fallback if MCTS returns null or an illegal card
-		if (mctsCard == null || !sortedPlayableCards.contains(mctsCard)) {
-			return sortedPlayableCards.getFirst();
-		}
-		return mctsCard;
+		return () -> {
+			Card mctsCard = search.get();
+
+			// Fallback if MCTS returns null or an illegal card
+			if (mctsCard == null || !sortedPlayableCards.contains(mctsCard)) {
+				return sortedPlayableCards.getFirst();
+			}
+			return mctsCard;
+		};
 	}
 
 	private List<Card> getSortedPlayableCards(List<Card> cards) {
@@ -297,6 +405,34 @@ public class BotSimulator {
 		}
 	}
 
+	/**
+	 * Engine of the bot's difficulty; a human asking for a hint gets the default bot's.
+	 */
+	private MctsEngine getMctsEngine(User user) {
+		return mctsEngines.get(getBotDifficulty(user));
+	}
+
+	private BotDifficulty getBotDifficulty(User user) {
+		return user.isBot() ? user.getBotDifficulty() : BotDifficulty.HARD;
+	}
+
+	/**
+	 * The active user's search, to run once the process-wide scheduler admits it. Heuristic bots
+	 * need no search slot.
+	 */
+	private <T> Supplier<T> scheduled(Supplier<T> search) {
+		if (getBotDifficulty(activeUser).getConfig().isHeuristicOnly()) {
+			return search;
+		}
+
+		// Searches of a table where a human plays keep someone waiting; tables of bots only can wait
+		boolean humanPlaying = users.stream().anyMatch(user -> !user.isBot() && !user.isLoggedOut());
+		SearchScheduler.Priority priority = humanPlaying
+				? SearchScheduler.Priority.INTERACTIVE
+				: SearchScheduler.Priority.BACKGROUND;
+		return () -> SearchScheduler.shared().run(game, priority, search);
+	}
+
 	private int getActiveUserIndex() {
 		return users.indexOf(activeUser);
 	}
@@ -496,6 +632,17 @@ public class BotSimulator {
 		return voids;
 	}
 
+	/**
+	 * A searched move, made if the bot's turn is still on and dropped otherwise.
+	 */
+	private record BotMove(Runnable make, Runnable drop) {
+
+		private BotMove(Runnable make) {
+			this(make, () -> {
+			});
+		}
+	}
+
 	private static final class UserInfo {
 
 		private final Set<Color> colorsInHand = new HashSet<>(Arrays.asList(Color.values()));
@@ -63,23 +63,29 @@ public class Game {
 		return userProvider;
 	}
 
-	public synchronized void setGameInProgress(boolean gameInProgress) {
-		this.gameInProgress = gameInProgress;
+	public void setGameInProgress(boolean gameInProgress) {
+		synchronized (this) {
+			this.gameInProgress = gameInProgress;
 
-		if (gameInProgress) {
-			gameUsers = userProvider.getPlayingUsers();
-			Collections.shuffle(gameUsers);
+			if (gameInProgress) {
+				gameUsers = userProvider.getPlayingUsers();
+				Collections.shuffle(gameUsers);
 
-			cardProvider = new CardProvider(gameUsers.size());
-			botSimulator.setDeckOfCardsSize(cardProvider.getDeckOfCardsSize());
+				cardProvider = new CardProvider(gameUsers.size());
+				botSimulator.setDeckOfCardsSize(cardProvider.getDeckOfCardsSize());
 
-			startNewGame();
-		} else {
-			resetNewGameFlags();
-			tryResetTerminatorFlags();
+				dealNewGame();
+			} else {
+				resetNewGameFlags();
+				tryResetTerminatorFlags();
+			}
+
+			resetReadyFlags();
 		}
 
-		resetReadyFlags();
+		if (gameInProgress) {
+			tryBotMove();
+		}
 	}
 
 	public synchronized boolean isActiveUser() {
@@ -87,7 +93,20 @@ public class Game {
 		return currentUser.equals(activeUser);
 	}
 
-	public synchronized void changeActiveUser() {
+	public void changeActiveUser() {
+		advanceActiveUser();
+		tryBotMove();
+	}
+
+	public void afterActiveUserSetExpectedTakes() {
+		advanceAfterExpectedTakes();
+		tryBotMove();
+	}
+
+	/**
+	 * Pass the turn on without the bots' moves that follow; see {@link #tryBotMove()}.
+	 */
+	synchronized void advanceActiveUser() {
 		int activeUserIndex = activeUser == null ? trickUsers.size() : trickUsers.indexOf(activeUser);
 
 		if (activeUserIndex == trickUsers.size()) {
@@ -108,16 +127,13 @@ public class Game {
 		} else {
 			setActiveUser(trickUsers.get(activeUserIndex));
 		}
-
-		tryBotMove();
 	}
 
-	public synchronized void afterActiveUserSetExpectedTakes() {
+	synchronized void advanceAfterExpectedTakes() {
 		if (isLastUser()) {
 			resetActiveUser();
-			tryBotMove();
 		} else {
-			changeActiveUser();
+			advanceActiveUser();
 		}
 	}
 
@@ -168,19 +184,11 @@ public class Game {
 		return winningCard;
 	}
 
-	public synchronized void startNewGame() {
-		if (tryResetTerminatorFlags()) {
-			Collections.rotate(gameUsers, -1);
+	public void startNewGame() {
+		synchronized (this) {
+			dealNewGame();
 		}
-
-		setNumber = 0;
-
-		rotateGameUsersAccordingToTerminators();
-
-		setUsers = new CopyOnWriteArrayList<>(gameUsers);
-
-		startNewSet();
-		startNewTrick();
+		tryBotMove();
 	}
 
 	public synchronized int getSumOfExpectedTakes() {
@@ -205,6 +213,21 @@ public class Game {
 		return cardProvider;
 	}
 
+	private void dealNewGame() {
+		if (tryResetTerminatorFlags()) {
+			Collections.rotate(gameUsers, -1);
+		}
+
+		setNumber = 0;
+
+		rotateGameUsersAccordingToTerminators();
+
+		setUsers = new CopyOnWriteArrayList<>(gameUsers);
+
+		startNewSet();
+		startNewTrick();
+	}
+
 	private void resetActiveUser() {
 		setActiveUser(trickUsers.getFirst());
 	}
@@ -284,6 +307,10 @@ public class Game {
 		botSimulator.setUsers(trickUsers);
 	}
 
+	/**
+	 * Let the bots move until a human is to move. Called without the lock: the bots' searches
+	 * must not keep the players' views from reading the game.
+	 */
 	private void tryBotMove() {
 		botSimulator.tryBotMove();
 	}
@@ -337,8 +364,6 @@ public class Game {
 			startNewSet();
 			startNewTrick();
 		}
-
-		tryBotMove();
 	}
 
 	private void startNewSet() {
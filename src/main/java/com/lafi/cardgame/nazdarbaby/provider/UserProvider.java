@@ -1,5 +1,6 @@
 package com.lafi.cardgame.nazdarbaby.provider;
 
+import com.lafi.cardgame.nazdarbaby.mcts.BotDifficulty;
 import com.lafi.cardgame.nazdarbaby.user.User;
 import com.vaadin.flow.server.VaadinSession;
 
@@ -63,12 +64,12 @@ public class UserProvider {
 		return true;
 	}
 
-	public boolean addBot(String botName) {
+	public boolean addBot(String botName, BotDifficulty botDifficulty) {
 		if (userNameExist(botName)) {
 			return false;
 		}
 
-		User bot = new User(botName);
+		User bot = new User(botName, botDifficulty);
 		bot.setReady(true);
 
 		botNameToBot.put(botName, bot);
@@ -2,6 +2,7 @@ package com.lafi.cardgame.nazdarbaby.user;
 
 import com.lafi.cardgame.nazdarbaby.card.Card;
 import com.lafi.cardgame.nazdarbaby.card.Color;
+import com.lafi.cardgame.nazdarbaby.mcts.BotDifficulty;
 import org.apache.commons.rng.simple.RandomSource;
 
 import java.util.List;
@@ -15,6 +16,7 @@ public class User {
 	private final String name;
 	private final Integer takeoverCode;
 	private final boolean isBot;
+	private final BotDifficulty botDifficulty;
 
 	private int actualTakes;
 	private Integer expectedTakes;
@@ -24,16 +26,21 @@ public class User {
 	private Boolean terminator = false;
 
 	public User(String name, Set<Integer> takeoverCodes) {
-		this(name, false, takeoverCodes);
+		this(name, false, takeoverCodes, null);
 	}
 
 	public User(String name) {
-		this(name, true, null);
+		this(name, BotDifficulty.HARD);
 	}
 
-	private User(String name, boolean isBot, Set<Integer> takeoverCodes) {
+	public User(String name, BotDifficulty botDifficulty) {
+		this(name, true, null, Objects.requireNonNull(botDifficulty, "botDifficulty"));
+	}
+
+	private User(String name, boolean isBot, Set<Integer> takeoverCodes, BotDifficulty botDifficulty) {
 		this.name = name;
 		this.isBot = isBot;
+		this.botDifficulty = botDifficulty;
 
 		if (isBot) {
 			takeoverCode = null;
@@ -63,6 +70,13 @@ public class User {
 		return isBot;
 	}
 
+	/**
+	 * Bot's strength, {@code null} for human players.
+	 */
+	public BotDifficulty getBotDifficulty() {
+		return botDifficulty;
+	}
+
 	public int getActualTakes() {
 		return actualTakes;
 	}
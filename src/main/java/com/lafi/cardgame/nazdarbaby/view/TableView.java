@@ -3,6 +3,7 @@ package com.lafi.cardgame.nazdarbaby.view;
 import com.lafi.cardgame.nazdarbaby.broadcast.Broadcaster;
 import com.lafi.cardgame.nazdarbaby.countdown.CountdownService;
 import com.lafi.cardgame.nazdarbaby.countdown.CountdownTask;
+import com.lafi.cardgame.nazdarbaby.mcts.BotDifficulty;
 import com.lafi.cardgame.nazdarbaby.provider.Game;
 import com.lafi.cardgame.nazdarbaby.provider.Table;
 import com.lafi.cardgame.nazdarbaby.provider.TableProvider;
@@ -20,6 +21,7 @@ import com.vaadin.flow.component.html.NativeLabel;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.select.Select;
 import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.PasswordField;
 import com.vaadin.flow.component.textfield.TextField;
@@ -132,19 +134,25 @@ public class TableView extends ParameterizedView {
 		}
 
 		H2 playersH2 = new H2("Players:");
+		Select<BotDifficulty> botDifficultySelect = new Select<>();
+		botDifficultySelect.setItems(BotDifficulty.values());
+		botDifficultySelect.setItemLabelGenerator(BotDifficulty::getLabel);
+		botDifficultySelect.setValue(BotDifficulty.HARD);
 		Button addBotButton = new Button("Add bot");
 
-		HorizontalLayout playersHL = new HorizontalLayout(playersH2, addBotButton);
+		HorizontalLayout playersHL = new HorizontalLayout(playersH2, botDifficultySelect, addBotButton);
 		playersHL.setDefaultVerticalComponentAlignment(Alignment.BASELINE);
 		add(playersHL);
 
 		long botCount = userProvider.getPlayingUsers().stream()
 				.filter(User::isBot)
 				.count();
-		addBotButton.setEnabled(currentUser != null && botCount + 1 < Table.MAXIMUM_USERS);
+		boolean canAddBot = currentUser != null && botCount + 1 < Table.MAXIMUM_USERS;
+		botDifficultySelect.setEnabled(canAddBot);
+		addBotButton.setEnabled(canAddBot);
 
 		addBotButton.addClickListener(event -> {
-			addBot(userProvider);
+			addBot(userProvider, botDifficultySelect.getValue());
 			table.tryStartNewGame();
 			broadcast();
 		});
@@ -180,6 +188,8 @@ public class TableView extends ParameterizedView {
 			if (user.isBot()) {
 				user.setReady(true);
 
+				horizontalLayout.add(new NativeLabel(user.getBotDifficulty().getLabel()));
+
 				Button removeButton = new Button("Remove");
 				removeButton.setEnabled(currentUser != null);
 
@@ -232,14 +242,14 @@ public class TableView extends ParameterizedView {
 		}
 	}
 
-	private void addBot(UserProvider userProvider) {
+	private void addBot(UserProvider userProvider, BotDifficulty botDifficulty) {
         var botNames = new ArrayList<>(Constant.BOT_NAMES);
         Collections.shuffle(botNames);
 
 		String botName;
 		do {
 			botName = botNames.removeFirst();
-		} while (!userProvider.addBot(botName));
+		} while (!userProvider.addBot(botName, botDifficulty));
 	}
 
 	private Checkbox createReadyCheckbox(User user, boolean isCurrentUser) {
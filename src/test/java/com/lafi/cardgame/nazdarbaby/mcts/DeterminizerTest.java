@@ -142,6 +142,85 @@ class DeterminizerTest {
 		assertThat(player2GotExcludedCard).isTrue();
 	}
 
+	@Test
+	void presetHolders_cardsDealtToThem() {
+		List<Card> unknownCards = deckOfCards.subList(0, 16);
+		int[] opponentSlots = {0, 6, 6};
+		Card first = unknownCards.get(0);
+		Card second = unknownCards.get(1);
+		Card third = unknownCards.get(2);
+		Map<Card, Integer> presetHolders = Map.of(first, 1, second, 2, third, StratifiedSampler.UNDEALT);
+
+		for (int i = 0; i < 20; i++) {
+			List<List<Card>> hands = Determinizer.sampleOpponentHands(
+					unknownCards, opponentSlots, Map.of(), 0,
+					new int[]{-1, -1, -1}, Map.of(), presetHolders);
+
+			assertThat(hands.get(1)).hasSize(6).contains(first);
+			assertThat(hands.get(2)).hasSize(6).contains(second);
+			assertThat(hands.get(1)).doesNotContain(third);
+			assertThat(hands.get(2)).doesNotContain(third);
+		}
+	}
+
+	@Test
+	void presetHolderAgainstColorVoid_ignored() {
+		List<Card> unknownCards = deckOfCards.subList(0, 16);
+		int[] opponentSlots = {0, 4, 4};
+		Card card = unknownCards.getFirst();
+		Map<Integer, Set<Color>> colorVoids = Map.of(1, Set.of(card.getColor()));
+
+		for (int i = 0; i < 20; i++) {
+			List<List<Card>> hands = Determinizer.sampleOpponentHands(
+					unknownCards, opponentSlots, colorVoids, 0,
+					new int[]{-1, -1, -1}, Map.of(), Map.of(card, 1));
+
+			assertThat(hands.get(1)).hasSize(4).doesNotContain(card);
+		}
+	}
+
+	@Test
+	void enumerate_everyDealOnce() {
+		List<Card> unknownCards = deckOfCards.subList(0, 4);
+		int[] opponentSlots = {0, 2, 2};
+
+		List<List<List<Card>>> deals = Determinizer.enumerateOpponentHands(
+				unknownCards, opponentSlots, Map.of(), Map.of(), 0, 100);
+
+		// 4 choose 2 for the first opponent, the rest for the second
+		assertThat(deals).hasSize(6);
+		assertThat(deals.stream().map(deal -> Set.copyOf(deal.get(1))).distinct().count()).isEqualTo(6L);
+		for (List<List<Card>> deal : deals) {
+			assertThat(deal.get(0)).isEmpty();
+			assertThat(deal.get(2)).hasSize(2);
+			assertThat(deal.get(2)).noneMatch(deal.get(1)::contains);
+		}
+	}
+
+	@Test
+	void enumerate_respectsExcludedCards() {
+		List<Card> unknownCards = deckOfCards.subList(0, 4);
+		int[] opponentSlots = {0, 2, 2};
+		Card excludedCard = unknownCards.getFirst();
+
+		List<List<List<Card>>> deals = Determinizer.enumerateOpponentHands(
+				unknownCards, opponentSlots, Map.of(), Map.of(1, Set.of(excludedCard)), 0, 100);
+
+		assertThat(deals).hasSize(3);
+		assertThat(deals).allMatch(deal -> deal.get(2).contains(excludedCard));
+	}
+
+	@Test
+	void enumerate_tooManyDeals_null() {
+		List<Card> unknownCards = deckOfCards.subList(0, 16);
+		int[] opponentSlots = {0, 8, 8};
+
+		List<List<List<Card>>> deals = Determinizer.enumerateOpponentHands(
+				unknownCards, opponentSlots, Map.of(), Map.of(), 0, 100);
+
+		assertThat(deals).isNull();
+	}
+
 	@Test
 	void noCardDealtTwice() {
 		List<Card> unknownCards = deckOfCards.subList(0, 16);
@@ -0,0 +1,149 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EndgameCacheTest {
+
+	private List<Card> deckOfCards;
+
+	@BeforeEach
+	void setUp() {
+		CardProvider cardProvider = new CardProvider(3);
+		deckOfCards = cardProvider.getShuffledDeckOfCards();
+	}
+
+	private Card getCard(int value, Color color) {
+		return deckOfCards.stream()
+				.filter(card -> card.getValue() == value && card.getColor() == color)
+				.findFirst()
+				.get();
+	}
+
+	/**
+	 * One trick left, the given player leads. Hands are 7♦, 9♦ and 9♠ by player.
+	 */
+	private SimulationState createLastTrickState(int botIndex, int[] expectedTakes, int[] actualTakes) {
+		List<List<Card>> hands = new ArrayList<>();
+		hands.add(new ArrayList<>(List.of(getCard(7, Color.DIAMONDS))));
+		hands.add(new ArrayList<>(List.of(getCard(9, Color.DIAMONDS))));
+		hands.add(new ArrayList<>(List.of(getCard(9, Color.SPADES))));
+
+		return new SimulationState(
+				hands,
+				expectedTakes,
+				actualTakes,
+				new ArrayList<>(),
+				SimulationState.Phase.PLAYING,
+				0, 0, 2,
+				3,
+				botIndex, 3
+		);
+	}
+
+	@Test
+	void key_takesReducedToNeededTakes() {
+		EndgameCache.Key key = EndgameCache.key(createLastTrickState(0, new int[]{1, 1, 0}, new int[]{1, 0, 0}),
+				MctsConfig.EndgameOpponents.HEURISTIC);
+		EndgameCache.Key sameNeeds = EndgameCache.key(createLastTrickState(0, new int[]{2, 2, 1}, new int[]{2, 1, 1}),
+				MctsConfig.EndgameOpponents.HEURISTIC);
+
+		assertThat(sameNeeds).isEqualTo(key);
+	}
+
+	@Test
+	void key_differsByBotSeatAndOpponentModel() {
+		SimulationState state = createLastTrickState(0, new int[]{0, 1, 0}, new int[]{0, 0, 0});
+		EndgameCache.Key key = EndgameCache.key(state, MctsConfig.EndgameOpponents.HEURISTIC);
+
+		assertThat(EndgameCache.key(createLastTrickState(1, new int[]{0, 1, 0}, new int[]{0, 0, 0}),
+				MctsConfig.EndgameOpponents.HEURISTIC)).isNotEqualTo(key);
+		assertThat(EndgameCache.key(state, MctsConfig.EndgameOpponents.ADVERSARIAL)).isNotEqualTo(key);
+	}
+
+	@Test
+	void key_predictionPhaseNotCached() {
+		SimulationState state = createLastTrickState(0, new int[]{0, 0, 0}, new int[]{0, 0, 0});
+		SimulationState predicting = new SimulationState(List.of(new ArrayList<>(state.getHand(0)),
+				new ArrayList<>(), new ArrayList<>()), new int[3], new int[3], new ArrayList<>(),
+				SimulationState.Phase.PREDICTING, 0, 0, 0, 1, 0, 0);
+
+		assertThat(EndgameCache.key(predicting, MctsConfig.EndgameOpponents.HEURISTIC)).isNull();
+	}
+
+	@Test
+	void solve_cachedValuesMatchUncached() {
+		EndgameCache cache = new EndgameCache(1);
+		Random random = new Random(42);
+
+		List<SimulationState> states = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			states.add(randomEndgame(random));
+		}
+
+		for (int pass = 0; pass < 2; pass++) {
+			for (SimulationState state : states) {
+				for (MctsConfig.EndgameOpponents opponents : MctsConfig.EndgameOpponents.values()) {
+					assertThat(EndgameSolver.solve(state, opponents, cache))
+							.isEqualTo(EndgameSolver.solve(state, opponents));
+				}
+			}
+		}
+		assertThat(cache.statistics().hits()).isPositive();
+		assertThat(cache.statistics().estimatedBytes()).isPositive();
+	}
+
+	@Test
+	void put_evictsBeyondCapacity() {
+		// Rounds up to the minimum of one entry per segment
+		EndgameCache cache = new EndgameCache(0);
+		Random random = new Random(7);
+
+		for (int i = 0; i < 200; i++) {
+			SimulationState state = randomEndgame(random);
+			EndgameCache.Key key = EndgameCache.key(state, MctsConfig.EndgameOpponents.HEURISTIC);
+			cache.put(key, 0.5);
+			assertThat(cache.get(key)).isEqualTo(0.5);
+		}
+
+		assertThat(cache.statistics().entries()).isLessThanOrEqualTo(16);
+	}
+
+	/**
+	 * Three players with three cards each from the shuffled deck and random predictions.
+	 */
+	private SimulationState randomEndgame(Random random) {
+		List<Card> cards = new ArrayList<>(deckOfCards);
+		Collections.shuffle(cards, random);
+
+		List<List<Card>> hands = new ArrayList<>();
+		int[] expectedTakes = new int[3];
+		for (int i = 0; i < 3; i++) {
+			hands.add(new ArrayList<>(cards.subList(i * 3, i * 3 + 3)));
+			expectedTakes[i] = random.nextInt(4);
+		}
+
+		int leader = random.nextInt(3);
+		return new SimulationState(
+				hands,
+				expectedTakes,
+				new int[3],
+				new ArrayList<>(),
+				SimulationState.Phase.PLAYING,
+				leader, leader, 0,
+				3,
+				0, 3
+		);
+	}
+}
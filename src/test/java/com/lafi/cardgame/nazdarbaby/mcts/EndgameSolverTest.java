@@ -0,0 +1,95 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EndgameSolverTest {
+
+	private List<Card> deckOfCards;
+
+	@BeforeEach
+	void setUp() {
+		CardProvider cardProvider = new CardProvider(3);
+		deckOfCards = cardProvider.getShuffledDeckOfCards();
+	}
+
+	private Card getCard(int value, Color color) {
+		return deckOfCards.stream()
+				.filter(card -> card.getValue() == value && card.getColor() == color)
+				.findFirst()
+				.get();
+	}
+
+	/**
+	 * Two tricks, bot (player 0) leads with 7♦ and 8♣ and predicted 1. Nobody can follow clubs,
+	 * so 8♣ first takes one trick and 9♦ then beats 7♦ — everyone hits unless player 1 throws 9♦
+	 * away. 7♦ first gives both tricks to player 1 and the bot misses.
+	 */
+	private SimulationState createTwoTrickState() {
+		List<List<Card>> hands = new ArrayList<>();
+		hands.add(new ArrayList<>(List.of(getCard(7, Color.DIAMONDS), getCard(8, Color.CLUBS))));
+		hands.add(new ArrayList<>(List.of(getCard(9, Color.DIAMONDS), getCard(7, Color.SPADES))));
+		hands.add(new ArrayList<>(List.of(getCard(10, Color.SPADES), getCard(9, Color.SPADES))));
+
+		return new SimulationState(
+				hands,
+				new int[]{1, 1, 0},
+				new int[]{0, 0, 0},
+				new ArrayList<>(),
+				SimulationState.Phase.PLAYING,
+				0, 0, 0,
+				2,
+				0, 3
+		);
+	}
+
+	@Test
+	void solveAfter_separatesWinningAndLosingLead() {
+		SimulationState state = createTwoTrickState();
+
+		double clubsFirst = EndgameSolver.solveAfter(state, new MctsAction.PlayCard(getCard(8, Color.CLUBS)),
+				MctsConfig.EndgameOpponents.HEURISTIC);
+		double diamondsFirst = EndgameSolver.solveAfter(state, new MctsAction.PlayCard(getCard(7, Color.DIAMONDS)),
+				MctsConfig.EndgameOpponents.HEURISTIC);
+
+		assertThat(clubsFirst).isEqualTo(SimulationState.MAX_REWARD / 3);
+		assertThat(diamondsFirst).isLessThan(clubsFirst);
+	}
+
+	@Test
+	void solve_heuristicOpponentsLetBotHit() {
+		SimulationState state = createTwoTrickState();
+
+		assertThat(EndgameSolver.solve(state, MctsConfig.EndgameOpponents.HEURISTIC))
+				.isEqualTo(SimulationState.MAX_REWARD / 3);
+	}
+
+	@Test
+	void solve_adversarialOpponentsDiscardTheDiamond() {
+		SimulationState state = createTwoTrickState();
+
+		// Player 1 throws 9♦ on 8♣, so 7♦ takes the second trick too
+		assertThat(EndgameSolver.solve(state, MctsConfig.EndgameOpponents.ADVERSARIAL))
+				.isLessThan(EndgameSolver.solve(state, MctsConfig.EndgameOpponents.HEURISTIC));
+	}
+
+	@Test
+	void solve_leavesStateUnchanged() {
+		SimulationState state = createTwoTrickState();
+
+		EndgameSolver.solve(state, MctsConfig.EndgameOpponents.ADVERSARIAL);
+
+		assertThat(state.getHand(0)).hasSize(2);
+		assertThat(state.getTricksPlayed()).isZero();
+		assertThat(state.getCurrentPlayerIndex()).isZero();
+	}
+}
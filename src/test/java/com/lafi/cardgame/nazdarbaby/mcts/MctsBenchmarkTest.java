@@ -0,0 +1,596 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Performance measurements of search modes. Skipped by default, run with:
+ * {@code ./gradlew test -PmctsBenchmark=true --tests '*MctsBenchmarkTest'}
+ */
+@EnabledIfSystemProperty(named = "mcts.benchmark", matches = "true")
+class MctsBenchmarkTest {
+
+	private static final int PLAYERS = 4;
+	private static final int HAND_SIZE = 8;
+	private static final int POSITIONS = 30;
+	private static final int REFERENCE_SAMPLES = 2000;
+	private static final int WARMUP_RUNS = 2;
+	private static final int MEASURED_RUNS = 5;
+	private static final int STABILITY_RUNS = 8;
+	private static final int PREDICTION_DEALS = 200;
+	// 3 opponents with 2 cards each: 90 possible deals
+	private static final int ENDGAME_HAND_SIZE = 2;
+	private static final int SOLVED_HAND_SIZE = 3;
+	private static final int ENDGAME_SETS = 400;
+	// 3 players with 10 cards each of the 32-card deck
+	private static final int FULL_HAND_SIZE = 10;
+	private static final int DIFFICULTY_HAND_SIZE = 6;
+	private static final int DIFFICULTY_SETS = 200;
+
+	private List<Position> positions;
+
+	@BeforeEach
+	void setUp() {
+		positions = new ArrayList<>(POSITIONS);
+		for (int i = 0; i < POSITIONS; i++) {
+			positions.add(randomPosition());
+		}
+	}
+
+	@Nested
+	class TreeParallelScalingTest {
+
+		@Test
+		void singleWorld_scalesWithThreads() {
+			double baselineMillis = 0;
+
+			for (int threads : new int[]{1, 2, 4, 8}) {
+				MctsEngine engine = new MctsEngine(MctsConfig.defaults()
+						.withParallelism(1)
+						.withTreeParallelism(threads));
+
+				double millis = measureSelectCard(engine, positions.getFirst());
+				if (threads == 1) {
+					baselineMillis = millis;
+				}
+
+				System.out.printf("tree-parallel threads=%d: %.1f ms/decision, speedup %.2fx%n",
+						threads, millis, baselineMillis / millis);
+			}
+		}
+	}
+
+	@Nested
+	class SequentialHalvingTest {
+
+		@Test
+		void reducedBudget_regretComparedToUcb1() {
+			report("UCB1 full budget", MctsConfig.defaults());
+
+			for (int iterationsPerCard : new int[]{250, 500, 1000}) {
+				MctsConfig ucb1 = MctsConfig.defaults().withIterationsPerCard(iterationsPerCard);
+				MctsConfig halving = ucb1.withRootSelection(MctsConfig.RootSelection.SEQUENTIAL_HALVING);
+
+				report("UCB1 iterationsPerCard=" + iterationsPerCard, ucb1);
+				report("sequential halving iterationsPerCard=" + iterationsPerCard, halving);
+			}
+		}
+	}
+
+	@Nested
+	class PairedEvaluationTest {
+
+		@Test
+		void reducedBudget_regretComparedToUcb1() {
+			for (int iterationsPerCard : new int[]{100, 250, 500}) {
+				MctsConfig ucb1 = MctsConfig.defaults().withIterationsPerCard(iterationsPerCard);
+				MctsConfig paired = ucb1.withRootSelection(MctsConfig.RootSelection.PAIRED);
+				MctsConfig informationSet = ucb1.withTreeMode(MctsConfig.TreeMode.INFORMATION_SET);
+
+				report("UCB1 iterationsPerCard=" + iterationsPerCard, ucb1);
+				report("paired iterationsPerCard=" + iterationsPerCard, paired);
+				report("information-set UCB1 iterationsPerCard=" + iterationsPerCard, informationSet);
+				report("information-set paired iterationsPerCard=" + iterationsPerCard,
+						informationSet.withRootSelection(MctsConfig.RootSelection.PAIRED));
+			}
+		}
+	}
+
+	@Nested
+	class InformationSetTest {
+
+		@Test
+		void sameBudget_regretComparedToPerWorldTrees() {
+			for (int iterationsPerCard : new int[]{250, 1000, 2000}) {
+				MctsConfig perWorld = MctsConfig.defaults().withIterationsPerCard(iterationsPerCard);
+				MctsConfig informationSet = perWorld.withTreeMode(MctsConfig.TreeMode.INFORMATION_SET);
+
+				report("per-world trees iterationsPerCard=" + iterationsPerCard, perWorld);
+				report("information-set tree iterationsPerCard=" + iterationsPerCard, informationSet);
+			}
+		}
+	}
+
+	@Nested
+	class RaveTest {
+
+		@Test
+		void reducedBudget_regretComparedToPlainUcb1() {
+			report("UCB1 full budget", MctsConfig.defaults());
+
+			for (int iterationsPerCard : new int[]{100, 250, 500}) {
+				MctsConfig ucb1 = MctsConfig.defaults().withIterationsPerCard(iterationsPerCard);
+
+				report("UCB1 iterationsPerCard=" + iterationsPerCard, ucb1);
+				for (int raveEquivalence : new int[]{100, 1000}) {
+					report("RAVE k=" + raveEquivalence + " iterationsPerCard=" + iterationsPerCard,
+							ucb1.withRaveEquivalence(raveEquivalence));
+				}
+			}
+		}
+	}
+
+	@Nested
+	class TranspositionTableTest {
+
+		@Test
+		void sameBudget_regretWithSharedStatistics() {
+			for (int iterationsPerCard : new int[]{250, 1000}) {
+				MctsConfig plain = MctsConfig.defaults().withIterationsPerCard(iterationsPerCard);
+
+				report("no transposition table iterationsPerCard=" + iterationsPerCard, plain);
+				for (MctsConfig.TranspositionReplacement replacement : MctsConfig.TranspositionReplacement.values()) {
+					report(replacement + " 4 MB iterationsPerCard=" + iterationsPerCard,
+							plain.withTranspositionTable(4, replacement));
+				}
+			}
+		}
+	}
+
+	@Nested
+	class ExpansionThresholdTest {
+
+		@Test
+		void sameBudget_regretAndTreeSize() {
+			for (int iterationsPerCard : new int[]{500, 2000}) {
+				MctsConfig eager = MctsConfig.defaults().withIterationsPerCard(iterationsPerCard);
+
+				for (int expansionThreshold : new int[]{1, 2, 4, 8, 16}) {
+					report("expansion threshold " + expansionThreshold + " iterationsPerCard=" + iterationsPerCard,
+							eager.withExpansionThreshold(expansionThreshold));
+				}
+			}
+		}
+	}
+
+	@Nested
+	class LeafRolloutsTest {
+
+		@Test
+		void sameRollouts_regretAndTime() {
+			MctsConfig single = MctsConfig.defaults().withParallelism(1);
+
+			report("leaf rollouts 1", single);
+			for (int leafRollouts : new int[]{4, 16}) {
+				for (int threads : new int[]{1, 4}) {
+					report("leaf rollouts " + leafRollouts + " on " + threads + " threads",
+							single.withLeafRollouts(leafRollouts, threads));
+				}
+			}
+		}
+	}
+
+	@Nested
+	class PredictionModeTest {
+
+		@Test
+		void selfPlay_hitRateAndTime() {
+			List<List<List<Card>>> deals = new ArrayList<>(PREDICTION_DEALS);
+			for (int i = 0; i < PREDICTION_DEALS; i++) {
+				deals.add(randomPosition().hands());
+			}
+
+			MctsConfig treeSearch = MctsConfig.defaults();
+			MctsConfig distribution = treeSearch.withPredictionMode(MctsConfig.PredictionMode.DISTRIBUTION);
+
+			reportPredictions("tree search", treeSearch, deals);
+			reportPredictions("tree search iterationsPerCard=150", treeSearch.withIterationsPerCard(150), deals);
+			reportPredictions("distribution", distribution, deals);
+			reportPredictions("distribution iterationsPerCard=500", distribution.withIterationsPerCard(500), deals);
+		}
+	}
+
+	/**
+	 * Print how often the bot's prediction, bid first, is hit when the deal is played out by the
+	 * heuristic policy for every player, the others bidding their heuristic estimates.
+	 */
+	private static void reportPredictions(String label, MctsConfig config, List<List<List<Card>>> deals) {
+		MctsEngine engine = new MctsEngine(config);
+		int hits = 0;
+		long iterations = 0;
+		long start = System.nanoTime();
+
+		for (List<List<Card>> hands : deals) {
+			List<List<Card>> stateHands = new ArrayList<>(PLAYERS);
+			List<Card> unknownCards = new ArrayList<>();
+			int[] opponentSlots = new int[PLAYERS];
+			for (int i = 0; i < PLAYERS; i++) {
+				stateHands.add(i == 0 ? new ArrayList<>(hands.get(i)) : new ArrayList<>());
+				if (i > 0) {
+					unknownCards.addAll(hands.get(i));
+					opponentSlots[i] = HAND_SIZE;
+				}
+			}
+			SimulationState predictionState = new SimulationState(stateHands, new int[PLAYERS], new int[PLAYERS],
+					new ArrayList<>(), SimulationState.Phase.PREDICTING, 0, 0, 0, HAND_SIZE, 0, 0);
+
+			int bid = (int) Math.round(engine.predictTakes(predictionState, unknownCards, opponentSlots, Map.of(),
+					Map.of()));
+			iterations += engine.getLastSearchStatistics().executedIterations();
+
+			int[] expectedTakes = new int[PLAYERS];
+			List<List<Card>> playHands = new ArrayList<>(PLAYERS);
+			for (int i = 0; i < PLAYERS; i++) {
+				expectedTakes[i] = i == 0 ? bid : RolloutPolicy.estimateTakes(hands.get(i), PLAYERS, false);
+				playHands.add(new ArrayList<>(hands.get(i)));
+			}
+			SimulationState playState = new SimulationState(playHands, expectedTakes, new int[PLAYERS],
+					new ArrayList<>(), SimulationState.Phase.PLAYING, 0, 0, 0, HAND_SIZE, 0, PLAYERS);
+			playState.setPredictionMode(true);
+			if (RolloutPolicy.rollout(playState) > 0) {
+				hits++;
+			}
+		}
+
+		System.out.printf("%s: %.1f%% predictions hit, %d iterations/decision, %.1f ms/decision%n", label,
+				100.0 * hits / deals.size(), iterations / deals.size(),
+				(System.nanoTime() - start) / 1e6 / deals.size());
+	}
+
+	@Nested
+	class ExactWorldsTest {
+
+		@Test
+		void endgame_varianceComparedToSampling() {
+			positions.clear();
+			for (int i = 0; i < POSITIONS; i++) {
+				positions.add(randomPosition(ENDGAME_HAND_SIZE));
+			}
+
+			for (int iterationsPerCard : new int[]{100, 500, 2000}) {
+				// Searched, not solved — the comparison is of the tree's worlds
+				MctsConfig sampled = MctsConfig.defaults().withIterationsPerCard(iterationsPerCard).withExactWorldLimit(0)
+						.withEndgameSolving(MctsConfig.EndgameSolving.OFF, ENDGAME_HAND_SIZE);
+
+				reportStability("sampled worlds iterationsPerCard=" + iterationsPerCard, sampled);
+				reportStability("exact worlds iterationsPerCard=" + iterationsPerCard,
+						sampled.withExactWorldLimit(MctsConfig.defaults().getExactWorldLimit()));
+			}
+		}
+	}
+
+	@Nested
+	class EndgameSolverTest {
+
+		@Test
+		void endgame_regretAndTime() {
+			positions.clear();
+			for (int i = 0; i < POSITIONS; i++) {
+				positions.add(randomPosition(SOLVED_HAND_SIZE));
+			}
+
+			// Sampled worlds — 3-card endgames have more deals than the exact limit anyway
+			MctsConfig rollouts = MctsConfig.defaults().withExactWorldLimit(0)
+					.withEndgameSolving(MctsConfig.EndgameSolving.OFF, SOLVED_HAND_SIZE);
+			report("rollouts (warm-up)", rollouts);
+			report("rollouts", rollouts);
+			report("solved leaves", rollouts.withEndgameSolving(MctsConfig.EndgameSolving.ROLLOUTS, SOLVED_HAND_SIZE));
+			MctsConfig solved = rollouts.withEndgameSolving(MctsConfig.EndgameSolving.SEARCH, SOLVED_HAND_SIZE);
+			report("solved decisions", solved);
+			// The reference values assume heuristic opponents too, so this line is favoured
+			report("solved decisions, heuristic opponents",
+					solved.withEndgameOpponents(MctsConfig.EndgameOpponents.HEURISTIC));
+		}
+
+		@Test
+		void selfPlay_hitRateAgainstRollouts() {
+			// Whole sets against searching opponents, so no opponent model is assumed by the measure
+			MctsConfig baseline = MctsConfig.defaults().withParallelism(1);
+			List<MctsTuner.Deal> deals = MctsTuner.deal(ENDGAME_SETS, PLAYERS, DIFFICULTY_HAND_SIZE, new Random(13));
+			MctsConfig solved = baseline.withEndgameSolving(MctsConfig.EndgameSolving.SEARCH, SOLVED_HAND_SIZE);
+
+			reportSelfPlay("rollouts", baseline, baseline, deals);
+			reportSelfPlay("solved decisions", solved, baseline, deals);
+			reportSelfPlay("solved decisions, heuristic opponents",
+					solved.withEndgameOpponents(MctsConfig.EndgameOpponents.HEURISTIC), baseline, deals);
+		}
+	}
+
+	@Nested
+	class EndgameCacheTest {
+
+		@Test
+		void solvedLeaves_timeAndHitRate() {
+			// Solved leaves of larger hands reach the same endgames in many worlds
+			MctsConfig uncached = MctsConfig.defaults()
+					.withEndgameSolving(MctsConfig.EndgameSolving.ROLLOUTS, SOLVED_HAND_SIZE)
+					.withEndgameCache(false);
+			report("uncached (warm-up)", uncached);
+			report("uncached", uncached);
+
+			EndgameCache.shared().clear();
+			report("cached", uncached.withEndgameCache(true));
+			EndgameCacheStatistics statistics = MctsEngine.getEndgameCacheStatistics();
+			System.out.printf("cache: %.1f%% hits of %d lookups, %d entries (%.1f MB)%n",
+					statistics.hitRate() * 100, statistics.hits() + statistics.misses(), statistics.entries(),
+					statistics.estimatedBytes() / (double) (1 << 20));
+		}
+	}
+
+	@Nested
+	class TruncatedRolloutsTest {
+
+		@Test
+		void fullHand_regretAndTime() {
+			positions.clear();
+			for (int i = 0; i < POSITIONS; i++) {
+				positions.add(randomPosition(FULL_HAND_SIZE));
+			}
+
+			MctsConfig fullRollouts = MctsConfig.defaults();
+			report("full rollouts (warm-up)", fullRollouts);
+			report("full rollouts", fullRollouts);
+			for (int tricks : new int[]{1, 2, 4}) {
+				report("rollouts of " + tricks + " tricks", fullRollouts.withRolloutTricks(tricks));
+			}
+			// About the time of full rollouts
+			report("rollouts of 2 tricks, 3x iterations", fullRollouts.withRolloutTricks(2)
+					.withIterationsPerCard(fullRollouts.getIterationsPerCard() * 3));
+		}
+	}
+
+	@Nested
+	class BotDifficultyTest {
+
+		@Test
+		void tiers_cpuPerDecisionAndHitRate() {
+			// Medium opponents keep the run short; only the measured seat's CPU counts
+			MctsConfig opponent = BotDifficulty.MEDIUM.getConfig().withParallelism(1);
+			List<MctsTuner.Deal> deals = MctsTuner.deal(DIFFICULTY_SETS, PLAYERS, DIFFICULTY_HAND_SIZE,
+					new Random(11));
+
+			for (BotDifficulty difficulty : BotDifficulty.values()) {
+				MctsConfig config = difficulty.getConfig().withParallelism(1);
+				int hits = 0;
+				long cpuNanos = 0;
+				int decisions = 0;
+				for (int i = 0; i < deals.size(); i++) {
+					int seat = i % PLAYERS;
+					List<MctsEngine> engines = new ArrayList<>();
+					for (int player = 0; player < PLAYERS; player++) {
+						engines.add(new MctsEngine(player == seat ? config : opponent));
+					}
+					SelfPlayMatch.Result result = SelfPlayMatch.playSet(deals.get(i).hands(),
+							deals.get(i).firstPlayer(), engines);
+					hits += result.hits()[seat] ? 1 : 0;
+					cpuNanos += result.cpuNanos()[seat];
+					decisions += result.decisions()[seat];
+				}
+
+				System.out.printf("%s: %.1f%% sets hit, %.2f ms CPU/decision%n", difficulty.getLabel(),
+						100.0 * hits / deals.size(), cpuNanos / 1e6 / Math.max(1, decisions));
+			}
+		}
+	}
+
+	@Nested
+	class StratifiedSamplingTest {
+
+		@Test
+		void repeatedDecisions_varianceComparedToIndependentSampling() {
+			for (int iterationsPerCard : new int[]{100, 250, 500}) {
+				MctsConfig independent = MctsConfig.defaults().withIterationsPerCard(iterationsPerCard);
+
+				reportStability("independent worlds iterationsPerCard=" + iterationsPerCard, independent);
+				reportStability("stratified worlds iterationsPerCard=" + iterationsPerCard,
+						independent.withStratifiedSampling(true));
+			}
+		}
+	}
+
+	/**
+	 * Print how often the candidate hits its bid in a rotating seat against baseline opponents,
+	 * and its CPU time per set.
+	 */
+	private static void reportSelfPlay(String label, MctsConfig candidate, MctsConfig baseline,
+									   List<MctsTuner.Deal> deals) {
+		MctsTuner.Score score = MctsTuner.play(candidate, baseline, deals);
+		System.out.printf("%s: %.1f%% sets hit, %.1f ms CPU/set%n", label, 100 * score.hitRate(),
+				score.cpuNanos() / 1e6 / score.sets());
+	}
+
+	/**
+	 * Print how much repeated searches of the same positions disagree: the share of decisions
+	 * that differ from the position's most frequent choice, and the standard deviation of regret
+	 * between repetitions.
+	 */
+	private void reportStability(String label, MctsConfig config) {
+		MctsEngine engine = new MctsEngine(config);
+		double regret = 0;
+		double regretVariance = 0;
+		int disagreements = 0;
+
+		for (Position position : positions) {
+			Map<Card, Double> values = position.referenceValues();
+			double bestValue = values.values().stream().mapToDouble(Double::doubleValue).max().orElseThrow();
+
+			Map<Card, Integer> choices = new HashMap<>();
+			double[] regrets = new double[STABILITY_RUNS];
+			for (int run = 0; run < STABILITY_RUNS; run++) {
+				Card selected = selectCard(engine, position);
+				choices.merge(selected, 1, Integer::sum);
+				regrets[run] = bestValue - values.get(selected);
+			}
+
+			double mean = 0;
+			for (double runRegret : regrets) {
+				mean += runRegret / STABILITY_RUNS;
+			}
+			for (double runRegret : regrets) {
+				regretVariance += (runRegret - mean) * (runRegret - mean) / (STABILITY_RUNS - 1);
+			}
+			regret += mean;
+			disagreements += STABILITY_RUNS - choices.values().stream().mapToInt(Integer::intValue).max().orElseThrow();
+		}
+
+		System.out.printf("%s: mean regret %.4f, regret std dev between runs %.4f, %.1f%% decisions differ"
+						+ " from the most frequent%n", label,
+				regret / positions.size(), Math.sqrt(regretVariance / positions.size()),
+				100.0 * disagreements / (positions.size() * STABILITY_RUNS));
+	}
+
+	/**
+	 * Print decision quality (mean regret against the reference values), cost and tree size of a configuration.
+	 */
+	private void report(String label, MctsConfig config) {
+		MctsEngine engine = new MctsEngine(config);
+		double regret = 0;
+		long iterations = 0;
+		long treeNodes = 0;
+		long start = System.nanoTime();
+
+		for (Position position : positions) {
+			Card selected = selectCard(engine, position);
+			Map<Card, Double> values = position.referenceValues();
+			double bestValue = values.values().stream().mapToDouble(Double::doubleValue).max().orElseThrow();
+			regret += bestValue - values.get(selected);
+			iterations += engine.getLastSearchStatistics().executedIterations();
+			treeNodes += engine.getLastSearchStatistics().treeNodes();
+		}
+
+		System.out.printf("%s: mean regret %.4f, %d iterations/decision, %d tree nodes/decision (%.1f MB),"
+						+ " %.1f ms/decision%n", label,
+				regret / positions.size(), iterations / positions.size(), treeNodes / positions.size(),
+				(double) treeNodes * MctsTree.BYTES_PER_NODE / positions.size() / (1 << 20),
+				(System.nanoTime() - start) / 1e6 / positions.size());
+	}
+
+	private double measureSelectCard(MctsEngine engine, Position position) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			selectCard(engine, position);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			selectCard(engine, position);
+		}
+		return (System.nanoTime() - start) / 1e6 / MEASURED_RUNS;
+	}
+
+	private Card selectCard(MctsEngine engine, Position position) {
+		Card selected = engine.selectCard(position.createState(), position.unknownCards(), position.opponentSlots(),
+				Map.of(), Map.of());
+		assertThat(position.hands().getFirst()).contains(selected);
+		return selected;
+	}
+
+	/**
+	 * Fresh deal where every player predicted its heuristic estimate; the bot (player 0) leads.
+	 */
+	private static Position randomPosition() {
+		return randomPosition(HAND_SIZE);
+	}
+
+	/**
+	 * Smaller hands stand for the end of a set: the rest of the deck counts as played, so the
+	 * unknown cards are exactly the opponents' hands.
+	 */
+	private static Position randomPosition(int handSize) {
+		CardProvider cardProvider = new CardProvider(PLAYERS);
+		List<Card> deckOfCards = cardProvider.getShuffledDeckOfCards();
+
+		List<List<Card>> hands = new ArrayList<>(PLAYERS);
+		int[] expectedTakes = new int[PLAYERS];
+		for (int i = 0; i < PLAYERS; i++) {
+			List<Card> hand = List.copyOf(deckOfCards.subList(i * handSize, (i + 1) * handSize));
+			hands.add(hand);
+			expectedTakes[i] = RolloutPolicy.estimateTakes(hand, PLAYERS, i == 0);
+		}
+
+		List<Card> unknownCards = new ArrayList<>(deckOfCards.subList(handSize, handSize * PLAYERS));
+		int[] opponentSlots = new int[PLAYERS];
+		for (int i = 1; i < PLAYERS; i++) {
+			opponentSlots[i] = handSize;
+		}
+
+		return new Position(hands, expectedTakes, unknownCards, opponentSlots);
+	}
+
+	private record Position(List<List<Card>> hands, int[] expectedTakes, List<Card> unknownCards, int[] opponentSlots,
+							Map<Card, Double> cardValues) {
+
+		Position(List<List<Card>> hands, int[] expectedTakes, List<Card> unknownCards, int[] opponentSlots) {
+			this(hands, expectedTakes, unknownCards, opponentSlots, new HashMap<>());
+		}
+
+		/**
+		 * Value of every card in the bot's hand, estimated by flat Monte Carlo: the card is played
+		 * in many freshly determinized worlds and the rest of the set is finished by heuristic rollout.
+		 * Independent of the tree search, so it can judge all search modes alike.
+		 */
+		Map<Card, Double> referenceValues() {
+			if (cardValues.isEmpty()) {
+				for (Card card : hands.getFirst()) {
+					double total = 0;
+					for (int i = 0; i < REFERENCE_SAMPLES; i++) {
+						SimulationState state = createState();
+						List<List<Card>> sampledHands = Determinizer.sampleOpponentHands(
+								unknownCards, opponentSlots, Map.of(), 0);
+						for (int player = 1; player < PLAYERS; player++) {
+							state.getHand(player).addAll(sampledHands.get(player));
+						}
+						state.applyAction(new MctsAction.PlayCard(card));
+						total += RolloutPolicy.rollout(state);
+					}
+					cardValues.put(card, total / REFERENCE_SAMPLES);
+				}
+			}
+			return cardValues;
+		}
+
+		SimulationState createState() {
+			List<List<Card>> stateHands = new ArrayList<>(PLAYERS);
+			for (int i = 0; i < PLAYERS; i++) {
+				stateHands.add(i == 0 ? new ArrayList<>(hands.getFirst()) : new ArrayList<>());
+			}
+
+			SimulationState state = new SimulationState(
+					stateHands,
+					expectedTakes.clone(),
+					new int[PLAYERS],
+					new ArrayList<>(),
+					SimulationState.Phase.PLAYING,
+					0, 0, 0,
+					hands.getFirst().size(),
+					0, PLAYERS
+			);
+			for (int i = 0; i < PLAYERS; i++) {
+				state.setKnownPrediction(i);
+			}
+			return state;
+		}
+	}
+}
@@ -1,14 +1,21 @@
 package com.lafi.cardgame.nazdarbaby.mcts;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.lafi.cardgame.nazdarbaby.card.Card;
 import com.lafi.cardgame.nazdarbaby.card.CardProvider;
 import com.lafi.cardgame.nazdarbaby.card.Color;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -162,6 +169,52 @@ class MctsEngineTest {
 		}
 	}
 
+	@Nested
+	class DistributionPredictionTest {
+
+		private final MctsEngine distributionEngine = new MctsEngine(MctsConfig.defaults()
+				.withPredictionMode(MctsConfig.PredictionMode.DISTRIBUTION));
+
+		@Test
+		void threeAces_predictsAtLeastTwo() {
+			double prediction = predictThreeAces(distributionEngine);
+
+			assertThat(prediction).isGreaterThanOrEqualTo(1.5);
+		}
+
+		@Test
+		void weakHand_predictsZero() {
+			List<Card> botHand = List.of(getCard(7, Color.DIAMONDS), getCard(8, Color.CLUBS));
+
+			SimulationState state = createPredictionState(botHand, 0, 0);
+
+			List<Card> unknownCards = new ArrayList<>(deckOfCards);
+			unknownCards.removeAll(botHand);
+
+			double prediction = distributionEngine.predictTakes(state, unknownCards, new int[]{0, 2, 2},
+					Map.of(), Map.of());
+
+			assertThat(Math.round(prediction)).isZero();
+		}
+
+		@Test
+		void fewerRolloutsThanTreeSearch() {
+			List<Card> botHand = List.of(getCard(14, Color.HEARTS), getCard(10, Color.SPADES),
+					getCard(8, Color.CLUBS), getCard(12, Color.DIAMONDS));
+
+			List<Card> unknownCards = new ArrayList<>(deckOfCards);
+			unknownCards.removeAll(botHand);
+
+			engine.predictTakes(createPredictionState(botHand, 0, 0), unknownCards, new int[]{0, 4, 4},
+					Map.of(), Map.of());
+			distributionEngine.predictTakes(createPredictionState(botHand, 0, 0), unknownCards, new int[]{0, 4, 4},
+					Map.of(), Map.of());
+
+			assertThat(distributionEngine.getLastSearchStatistics().executedIterations() * 5)
+					.isLessThan(engine.getLastSearchStatistics().executedIterations());
+		}
+	}
+
 	@Nested
 	class SelectCardEarlyReturnTest {
 
@@ -270,6 +323,32 @@ class MctsEngineTest {
 			assertThat(selected).isIn(eightClubs, tenClubs);
 		}
 
+		@Test
+		void gapOnTable_notEquivalent() {
+			// Bot has 8♣ and 10♣ and predicted 0; 9♣ on the table is beaten by 10♣ only → searched
+			Card eightClubs = getCard(8, Color.CLUBS);
+			Card tenClubs = getCard(10, Color.CLUBS);
+			Card aceHearts = getCard(14, Color.HEARTS);
+			List<Card> botHand = List.of(eightClubs, tenClubs, aceHearts);
+
+			Card nineClubs = getCard(9, Color.CLUBS);
+			SimulationState state = createPlayingStateWithTrick(botHand, 1,
+					new int[]{0, 0, 0}, new int[]{0, 0, 0}, List.of(nineClubs), 0);
+			state.setKnownPrediction(0);
+			state.setKnownPrediction(1);
+			state.setKnownPrediction(2);
+
+			List<Card> unknownCards = new ArrayList<>(deckOfCards);
+			unknownCards.removeAll(botHand);
+			unknownCards.remove(nineClubs);
+
+			Card selected = engine.selectCard(state, unknownCards, new int[]{2, 0, 2},
+					Map.of(), Map.of());
+
+			assertThat(engine.getLastSearchStatistics()).isNotNull();
+			assertThat(selected).isEqualTo(eightClubs);
+		}
+
 		@Test
 		void differentColors_notEquivalent() {
 			// Bot leads with 8♣ and 8♦ — different colors, not equivalent
@@ -348,6 +427,759 @@ class MctsEngineTest {
 		}
 	}
 
+	@Nested
+	class ParallelSearchTest {
+
+		@Test
+		void multipleWorkers_shareOneBudget() {
+			MctsEngine serialEngine = new MctsEngine(MctsConfig.defaults().withParallelism(1));
+			MctsEngine parallelEngine = new MctsEngine(MctsConfig.defaults().withParallelism(4));
+
+			selectAvoidingWin(serialEngine);
+			selectAvoidingWin(parallelEngine);
+
+			// The workers split the worlds between them instead of each searching all of them
+			SearchStatistics serial = serialEngine.getLastSearchStatistics();
+			SearchStatistics parallel = parallelEngine.getLastSearchStatistics();
+			assertThat(parallel.plannedIterations()).isEqualTo(serial.plannedIterations());
+			assertThat(parallel.executedIterations()).isEqualTo(parallel.plannedIterations());
+		}
+
+		@Test
+		void nonPositiveParallelism_rejected() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withParallelism(0))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class TimeBudgetTest {
+
+		@Test
+		void timeBudget_searchesUntilDeadline() {
+			Duration timeBudget = Duration.ofMillis(200);
+			MctsEngine timedEngine = new MctsEngine(MctsConfig.defaults().withTimeBudget(timeBudget));
+
+			long start = System.nanoTime();
+			selectAvoidingWin(timedEngine);
+			long elapsedNanos = System.nanoTime() - start;
+
+			// No iteration count is planned — the search runs as many iterations as the time allows
+			SearchStatistics statistics = timedEngine.getLastSearchStatistics();
+			assertThat(statistics.plannedIterations()).isZero();
+			assertThat(statistics.executedIterations()).isPositive();
+			assertThat(elapsedNanos).isGreaterThanOrEqualTo(timeBudget.toNanos());
+			// Generous margin — only guards against ignoring the deadline
+			assertThat(elapsedNanos).isLessThan(Duration.ofSeconds(2).toNanos());
+		}
+
+		@Test
+		void zeroTimeBudget_rejected() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withTimeBudget(Duration.ZERO))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class EarlyStoppingTest {
+
+		@Test
+		void clearDecision_stopsEarly() {
+			// The bot must not take a trick and A♥ takes one in every world, so the worlds agree from the start
+			MctsEngine stoppingEngine = new MctsEngine(MctsConfig.defaults().withEarlyStopConfidence(0.95));
+
+			selectAvoidingWin(stoppingEngine);
+
+			SearchStatistics statistics = stoppingEngine.getLastSearchStatistics();
+			assertThat(statistics.stoppedEarly()).isTrue();
+			assertThat(statistics.executedIterations() + statistics.savedIterations())
+					.isEqualTo(statistics.plannedIterations());
+		}
+
+		@Test
+		void disabledByDefault_runsFullBudget() {
+			selectAvoidingWin(engine);
+
+			SearchStatistics statistics = engine.getLastSearchStatistics();
+			assertThat(statistics.stoppedEarly()).isFalse();
+			assertThat(statistics.savedIterations()).isZero();
+		}
+
+		@Test
+		void invalidConfidence_rejected() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withEarlyStopConfidence(1.0))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class PairedEvaluationTest {
+
+		private final MctsConfig pairedConfig = MctsConfig.defaults()
+				.withRootSelection(MctsConfig.RootSelection.PAIRED);
+
+		@Test
+		void pairedInformationSet_treeParallel_runsWholeBudget() {
+			MctsEngine pairedEngine = new MctsEngine(pairedConfig
+					.withTreeMode(MctsConfig.TreeMode.INFORMATION_SET)
+					.withTreeParallelism(4));
+
+			selectAvoidingWin(pairedEngine);
+
+			// Every thread plays its own rounds on the shared tree
+			assertThat(pairedEngine.getLastSearchStatistics().executedIterations())
+					.isEqualTo(pairedEngine.getLastSearchStatistics().plannedIterations());
+		}
+	}
+
+	@Nested
+	class InformationSetSearchTest {
+
+		private final MctsConfig informationSetConfig = MctsConfig.defaults()
+				.withTreeMode(MctsConfig.TreeMode.INFORMATION_SET);
+
+		@Test
+		void informationSet_treeParallelWithHalving_runsWholeBudget() {
+			MctsEngine informationSetEngine = new MctsEngine(informationSetConfig
+					.withTreeParallelism(4)
+					.withRootSelection(MctsConfig.RootSelection.SEQUENTIAL_HALVING));
+
+			selectAvoidingWin(informationSetEngine);
+
+			assertThat(informationSetEngine.getLastSearchStatistics().executedIterations())
+					.isEqualTo(informationSetEngine.getLastSearchStatistics().plannedIterations());
+		}
+	}
+
+	@Nested
+	class RaveTest {
+
+		@Test
+		void negativeRaveEquivalence_throws() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withRaveEquivalence(-1))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class TranspositionTableTest {
+
+		@Test
+		void negativeMemoryCap_throws() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withTranspositionTable(-1, MctsConfig.TranspositionReplacement.TWO_TIER))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class TreeMemoryCapTest {
+
+		@Test
+		void zeroTreeMemoryCap_throws() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withTreeMemoryCap(0))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class ExpansionThresholdTest {
+
+		@Test
+		void threshold_noChildrenBeforeEnoughVisits() {
+			MctsConfig config = MctsConfig.defaults().withParallelism(1);
+			MctsEngine eagerEngine = new MctsEngine(config.withExpansionThreshold(1));
+			MctsEngine lazyEngine = new MctsEngine(config.withExpansionThreshold(8));
+
+			// The retained root is the chosen card's node, so every node below it had to earn its children
+			assertThat(expandedNodeVisits(decideFirstCard(eagerEngine))).anyMatch(visits -> visits < 8);
+			assertThat(expandedNodeVisits(decideFirstCard(lazyEngine))).isNotEmpty().allMatch(visits -> visits >= 8);
+		}
+
+		@Test
+		void higherThreshold_smallerTrees() {
+			MctsConfig config = MctsConfig.defaults().withParallelism(1);
+			MctsEngine eagerEngine = new MctsEngine(config.withExpansionThreshold(1));
+			MctsEngine lazyEngine = new MctsEngine(config.withExpansionThreshold(8));
+
+			List<Card> botHand = List.of(getCard(14, Color.HEARTS), getCard(10, Color.SPADES),
+					getCard(8, Color.CLUBS), getCard(12, Color.DIAMONDS), getCard(9, Color.HEARTS));
+			SimulationState state = createPlayingState(botHand, 0,
+					new int[]{2, 1, 2}, new int[]{0, 0, 0});
+			state.setKnownPrediction(0);
+			state.setKnownPrediction(1);
+			state.setKnownPrediction(2);
+
+			List<Card> unknownCards = new ArrayList<>(deckOfCards);
+			unknownCards.removeAll(botHand);
+
+			eagerEngine.selectCard(state, unknownCards, new int[]{0, 5, 5}, Map.of(), Map.of());
+			lazyEngine.selectCard(state, unknownCards, new int[]{0, 5, 5}, Map.of(), Map.of());
+
+			assertThat(lazyEngine.getLastSearchStatistics().treeNodes() * 2)
+					.isLessThan(eagerEngine.getLastSearchStatistics().treeNodes());
+		}
+
+		@Test
+		void zeroThreshold_throws() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withExpansionThreshold(0))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+
+		private List<Integer> expandedNodeVisits(RetainedSearch retainedSearch) {
+			List<Integer> visits = new ArrayList<>();
+			for (RetainedSearch.World world : retainedSearch.getWorlds()) {
+				collectExpandedNodeVisits(world.tree(), MctsTree.ROOT, visits);
+			}
+			return visits;
+		}
+
+		private void collectExpandedNodeVisits(MctsTree tree, int node, List<Integer> visits) {
+			for (int child = tree.getFirstChild(node); child != MctsTree.NONE; child = tree.getNextSibling(child)) {
+				if (tree.hasChildren(child)) {
+					visits.add(tree.getVisitCount(child));
+					collectExpandedNodeVisits(tree, child, visits);
+				}
+			}
+		}
+	}
+
+	@Nested
+	class LeafRolloutsTest {
+
+		@Test
+		void parallelBatch_countsEveryRollout() {
+			MctsEngine batchEngine = new MctsEngine(MctsConfig.defaults().withLeafRollouts(8, 4));
+
+			RetainedSearch retainedSearch = decideFirstCard(batchEngine);
+
+			// Each iteration backs up the average of 8 rollouts, run by 4 threads, as 8 visits
+			assertThat(retainedSearch.getWorlds()).allMatch(world -> world.tree().getVisitCount(MctsTree.ROOT) % 8 == 0);
+		}
+
+		@Test
+		void batch_sameRolloutsFewerTreeIterations() {
+			MctsConfig config = MctsConfig.defaults().withParallelism(1).withExpansionThreshold(1);
+			MctsEngine singleEngine = new MctsEngine(config);
+			MctsEngine batchEngine = new MctsEngine(config.withLeafRollouts(8, 1));
+
+			List<Card> botHand = List.of(getCard(14, Color.HEARTS), getCard(10, Color.SPADES),
+					getCard(8, Color.CLUBS), getCard(12, Color.DIAMONDS), getCard(9, Color.HEARTS));
+			SimulationState state = createPlayingState(botHand, 0,
+					new int[]{2, 1, 2}, new int[]{0, 0, 0});
+			state.setKnownPrediction(0);
+			state.setKnownPrediction(1);
+			state.setKnownPrediction(2);
+
+			List<Card> unknownCards = new ArrayList<>(deckOfCards);
+			unknownCards.removeAll(botHand);
+
+			singleEngine.selectCard(state, unknownCards, new int[]{0, 5, 5}, Map.of(), Map.of());
+			batchEngine.selectCard(state, unknownCards, new int[]{0, 5, 5}, Map.of(), Map.of());
+
+			SearchStatistics single = singleEngine.getLastSearchStatistics();
+			SearchStatistics batch = batchEngine.getLastSearchStatistics();
+			assertThat(batch.executedIterations()).isEqualTo(single.executedIterations());
+			assertThat(batch.treeNodes() * 2).isLessThan(single.treeNodes());
+		}
+
+		@Test
+		void zeroLeafRollouts_throws() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withLeafRollouts(0, 1))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class ExactWorldsTest {
+
+		@Test
+		void fewUnknownCards_searchEveryDealOnce() {
+			List<Card> botHand = List.of(getCard(14, Color.HEARTS), getCard(7, Color.DIAMONDS));
+			SimulationState state = createPlayingState(botHand, 0, new int[]{0, 0, 0}, new int[]{0, 0, 0});
+			state.setKnownPrediction(0);
+			state.setKnownPrediction(1);
+			state.setKnownPrediction(2);
+			// Everything else already played — 6 possible deals
+			List<Card> unknownCards = List.of(getCard(8, Color.CLUBS), getCard(9, Color.CLUBS),
+					getCard(10, Color.SPADES), getCard(11, Color.DIAMONDS));
+			RetainedSearch retainedSearch = new RetainedSearch();
+
+			engine.selectCard(state, unknownCards, new int[]{0, 2, 2}, Map.of(), Map.of(), retainedSearch);
+
+			Set<Set<Card>> dealtHands = retainedSearch.getWorlds().stream()
+					.map(world -> Set.copyOf(world.state().getHand(1)))
+					.collect(Collectors.toSet());
+			assertThat(retainedSearch.worldCount()).isEqualTo(6);
+			assertThat(dealtHands).hasSize(6);
+		}
+
+		@Test
+		void fewUnknownCards_budgetSplitOverDeals() {
+			MctsEngine exactEngine = new MctsEngine(MctsConfig.defaults().withParallelism(1));
+
+			List<Card> botHand = List.of(getCard(14, Color.HEARTS), getCard(7, Color.DIAMONDS));
+			SimulationState state = createPlayingState(botHand, 0,
+					new int[]{1, 0, 0}, new int[]{0, 0, 0});
+			state.setKnownPrediction(0);
+			state.setKnownPrediction(1);
+			state.setKnownPrediction(2);
+			List<Card> unknownCards = List.of(getCard(8, Color.CLUBS), getCard(9, Color.CLUBS),
+					getCard(10, Color.SPADES), getCard(11, Color.DIAMONDS));
+
+			exactEngine.selectCard(state, unknownCards, new int[]{0, 2, 2}, Map.of(), Map.of());
+
+			long iterations = (long) MctsConfig.defaults().getIterationsPerCard() * 2 * 2;
+			assertThat(exactEngine.getLastSearchStatistics().plannedIterations()).isEqualTo(iterations / 6 * 6);
+		}
+
+		@Test
+		void negativeExactWorldLimit_throws() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withExactWorldLimit(-1))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class EndgameSolvingTest {
+
+		@Test
+		void solvedDecision_picksCardWithoutTree() {
+			MctsEngine solvingEngine = new MctsEngine(MctsConfig.defaults()
+					.withEndgameSolving(MctsConfig.EndgameSolving.SEARCH, 2));
+
+			Card selected = selectAvoidingWin(solvingEngine);
+
+			assertThat(selected).isEqualTo(getCard(7, Color.DIAMONDS));
+			assertThat(solvingEngine.getLastSearchStatistics().treeNodes()).isZero();
+		}
+
+		@Test
+		void solvedLeaves_searchTreeAboveThem() {
+			MctsEngine leafEngine = new MctsEngine(MctsConfig.defaults()
+					.withEndgameSolving(MctsConfig.EndgameSolving.ROLLOUTS, 1));
+
+			Card selected = selectAvoidingWin(leafEngine);
+
+			assertThat(selected).isEqualTo(getCard(7, Color.DIAMONDS));
+			assertThat(leafEngine.getLastSearchStatistics().treeNodes()).isPositive();
+		}
+
+		@Test
+		void nonPositiveEndgameCards_throws() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withEndgameSolving(MctsConfig.EndgameSolving.SEARCH, 0))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class TruncatedRolloutsTest {
+
+		@Test
+		void truncatedRollouts_rewardsFromValueModel() {
+			MctsConfig config = MctsConfig.defaults();
+			RetainedSearch fullRollouts = decideFirstCard(new MctsEngine(config));
+			RetainedSearch truncatedRollouts = decideFirstCard(new MctsEngine(config.withRolloutTricks(1)));
+
+			// Played-out sets end in rewards that are all multiples of 1/30; estimates fall in between
+			assertThat(fullRollouts.getWorlds()).allMatch(world -> isMultipleOfThirtieth(rootReward(world)));
+			assertThat(truncatedRollouts.getWorlds()).noneMatch(world -> isMultipleOfThirtieth(rootReward(world)));
+		}
+
+		@Test
+		void negativeRolloutTricks_throws() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withRolloutTricks(-1))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+
+		private double rootReward(RetainedSearch.World world) {
+			return world.tree().getTotalReward(MctsTree.ROOT);
+		}
+
+		private boolean isMultipleOfThirtieth(double reward) {
+			return Math.abs(reward * 30 - Math.rint(reward * 30)) < 1e-6;
+		}
+	}
+
+	@Nested
+	class HeuristicOnlyTest {
+
+		private final MctsEngine heuristicEngine = new MctsEngine(MctsConfig.defaults().withHeuristicOnly(true));
+
+		@Test
+		void heuristicOnly_selectsObviousCard() {
+			// Bot predicted 0 — A♥ always wins, 7♦ is clearly better
+			Card aceHearts = getCard(14, Color.HEARTS);
+			Card sevenDiamonds = getCard(7, Color.DIAMONDS);
+			List<Card> botHand = List.of(aceHearts, sevenDiamonds);
+
+			SimulationState state = createPlayingState(botHand, 0, new int[]{0, 0, 0}, new int[]{0, 0, 0});
+
+			List<Card> unknownCards = new ArrayList<>(deckOfCards);
+			unknownCards.removeAll(botHand);
+
+			Card selected = heuristicEngine.selectCard(state, unknownCards, new int[]{0, 2, 2}, Map.of(), Map.of());
+
+			assertThat(selected).isEqualTo(getCard(7, Color.DIAMONDS));
+			assertThat(heuristicEngine.getLastSearchStatistics()).isNull();
+		}
+
+		@Test
+		void heuristicOnly_predictsHandEstimate() {
+			List<Card> botHand = List.of(getCard(14, Color.HEARTS), getCard(13, Color.HEARTS),
+					getCard(7, Color.DIAMONDS));
+
+			SimulationState state = createPredictionState(botHand, 0, 0);
+
+			List<Card> unknownCards = new ArrayList<>(deckOfCards);
+			unknownCards.removeAll(botHand);
+
+			double prediction = heuristicEngine.predictTakes(state, unknownCards, new int[]{0, 3, 3},
+					Map.of(), Map.of());
+
+			assertThat(prediction).isEqualTo(RolloutPolicy.estimateTakes(botHand, 3, true));
+		}
+	}
+
+	@Nested
+	class ConfigFileTest {
+
+		@Test
+		void properties_roundTrip() {
+			MctsConfig config = MctsConfig.defaults()
+					.withIterationsPerCard(300)
+					.withExplorationConstant(1.2)
+					.withDeterminizations(2, 4)
+					.withPredictionMode(MctsConfig.PredictionMode.DISTRIBUTION)
+					.withEndgameSolving(MctsConfig.EndgameSolving.ROLLOUTS, 4)
+					.withEndgameOpponents(MctsConfig.EndgameOpponents.HEURISTIC)
+					.withHeuristicOnly(true);
+
+			MctsConfig loaded = MctsConfig.fromProperties(config.toProperties());
+
+			assertThat(loaded.getIterationsPerCard()).isEqualTo(300);
+			assertThat(loaded.getExplorationConstant()).isEqualTo(1.2);
+			assertThat(loaded.getDeterminizationsPerCard()).isEqualTo(2);
+			assertThat(loaded.getDeterminizationsPerOpponent()).isEqualTo(4);
+			assertThat(loaded.getPredictionMode()).isEqualTo(MctsConfig.PredictionMode.DISTRIBUTION);
+			assertThat(loaded.getEndgameSolving()).isEqualTo(MctsConfig.EndgameSolving.ROLLOUTS);
+			assertThat(loaded.getEndgameCards()).isEqualTo(4);
+			assertThat(loaded.getEndgameOpponents()).isEqualTo(MctsConfig.EndgameOpponents.HEURISTIC);
+			assertThat(loaded.isHeuristicOnly()).isTrue();
+		}
+
+		@Test
+		void fromProperties_unknownKeyThrows() {
+			Properties properties = new Properties();
+			properties.setProperty("iterations", "100");
+
+			assertThatThrownBy(() -> MctsConfig.fromProperties(properties))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+
+		@Test
+		void invalidTunables_throw() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withExplorationConstant(0))
+					.isInstanceOf(IllegalArgumentException.class);
+			assertThatThrownBy(() -> config.withDeterminizations(-1, 5))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class TreeReuseTest {
+
+		// Opponent hands are forced by the voids: player 1 holds only clubs, player 2 only spades
+		private final Map<Integer, Set<Color>> colorVoids = Map.of(
+				1, Set.of(Color.HEARTS, Color.DIAMONDS, Color.SPADES),
+				2, Set.of(Color.HEARTS, Color.DIAMONDS, Color.CLUBS));
+
+		@Test
+		void consistentPlays_worldsContinueFromPlayedNode() {
+			RetainedSearch retainedSearch = new RetainedSearch();
+			SimulationState nextState = playFirstTrick(retainedSearch);
+
+			List<RetainedSearch.World> worlds = retainedSearch.takeConsistentWorlds(nextState,
+					remainingUnknownCards(), colorVoids, Map.of());
+
+			assertThat(worlds).isNotEmpty();
+			for (RetainedSearch.World world : worlds) {
+				assertThat(world.tree().getParent(MctsTree.ROOT)).isEqualTo(MctsTree.NONE);
+				assertThat(world.tree().getVisitCount(MctsTree.ROOT)).isPositive();
+				assertThat(world.state().getHand(0)).containsExactlyInAnyOrderElementsOf(nextState.getHand(0));
+				assertThat(world.state().getTricksPlayed()).isEqualTo(1);
+			}
+			assertThat(retainedSearch.worldCount()).isZero();
+		}
+
+		@Test
+		void contradictingInference_invalidatesWorlds() {
+			RetainedSearch retainedSearch = new RetainedSearch();
+			SimulationState nextState = playFirstTrick(retainedSearch);
+
+			// Player 1 turned out not to hold 8♣ — no retained world can be right anymore
+			List<RetainedSearch.World> worlds = retainedSearch.takeConsistentWorlds(nextState,
+					remainingUnknownCards(), colorVoids, Map.of(1, Set.of(getCard(8, Color.CLUBS))));
+
+			assertThat(worlds).isEmpty();
+		}
+
+		@Test
+		void secondDecision_retainsTreesAgain() {
+			RetainedSearch retainedSearch = new RetainedSearch();
+			SimulationState nextState = playFirstTrick(retainedSearch);
+
+			Card selected = engine.selectCard(nextState, remainingUnknownCards(), new int[]{0, 2, 2},
+					colorVoids, Map.of(), retainedSearch);
+
+			assertThat(nextState.getHand(0)).contains(selected);
+			assertThat(retainedSearch.worldCount()).isPositive();
+		}
+
+		/**
+		 * Let the bot lead the first trick with retained search, then follow with 9♣ and 9♠.
+		 * Nobody can beat the bot's card, so it takes the trick and leads again.
+		 */
+		private SimulationState playFirstTrick(RetainedSearch retainedSearch) {
+			List<Card> botHand = List.of(getCard(7, Color.DIAMONDS), getCard(7, Color.HEARTS),
+					getCard(14, Color.CLUBS));
+			SimulationState state = createPlayingState(botHand, 0, new int[]{1, 0, 0}, new int[]{0, 0, 0});
+			state.setKnownPrediction(0);
+			state.setKnownPrediction(1);
+			state.setKnownPrediction(2);
+
+			Card selected = engine.selectCard(state, opponentCards(), new int[]{0, 3, 3},
+					colorVoids, Map.of(), retainedSearch);
+			assertThat(retainedSearch.worldCount()).isPositive();
+
+			List<List<Card>> hands = new ArrayList<>();
+			List<Card> nextBotHand = new ArrayList<>(botHand);
+			nextBotHand.remove(selected);
+			hands.add(nextBotHand);
+			hands.add(new ArrayList<>());
+			hands.add(new ArrayList<>());
+
+			return new SimulationState(
+					hands,
+					new int[]{1, 0, 0},
+					new int[]{1, 0, 0},
+					new ArrayList<>(),
+					SimulationState.Phase.PLAYING,
+					0, 0, 1,
+					3,
+					0, 3
+			);
+		}
+
+		private List<Card> opponentCards() {
+			return new ArrayList<>(List.of(
+					getCard(7, Color.CLUBS), getCard(8, Color.CLUBS), getCard(9, Color.CLUBS),
+					getCard(7, Color.SPADES), getCard(8, Color.SPADES), getCard(9, Color.SPADES)));
+		}
+
+		private List<Card> remainingUnknownCards() {
+			List<Card> unknownCards = opponentCards();
+			unknownCards.remove(getCard(9, Color.CLUBS));
+			unknownCards.remove(getCard(9, Color.SPADES));
+			return unknownCards;
+		}
+	}
+
+	@Nested
+	class PonderingTest {
+
+		@Test
+		void pondering_growsRetainedTrees() throws InterruptedException {
+			RetainedSearch retainedSearch = decideFirstCard(engine);
+			long visitsBefore = retainedVisits(retainedSearch);
+
+			Pondering pondering = engine.startPondering(retainedSearch);
+			Thread.sleep(200);
+			pondering.cancel();
+
+			assertThat(pondering.getIterations()).isPositive();
+			assertThat(retainedVisits(retainedSearch)).isEqualTo(visitsBefore + pondering.getIterations());
+		}
+
+		@Test
+		void cancelledPondering_leavesTreesAlone() throws InterruptedException {
+			RetainedSearch retainedSearch = decideFirstCard(engine);
+
+			Pondering pondering = engine.startPondering(retainedSearch);
+			Thread.sleep(50);
+			pondering.cancel();
+			long visitsAfterCancel = retainedVisits(retainedSearch);
+			Thread.sleep(50);
+
+			assertThat(retainedVisits(retainedSearch)).isEqualTo(visitsAfterCancel);
+		}
+
+		@Test
+		void spentBudget_notRenewedBeforeNextDecision() throws InterruptedException {
+			MctsEngine briefPonderingEngine = new MctsEngine(MctsConfig.defaults().withPonderCpuBudget(Duration.ofMillis(20)));
+			RetainedSearch retainedSearch = decideFirstCard(briefPonderingEngine);
+
+			Pondering pondering = briefPonderingEngine.startPondering(retainedSearch);
+			for (int i = 0; i < 500 && pondering.getIterations() == 0; i++) {
+				Thread.sleep(10);
+			}
+			pondering.cancel();
+
+			assertThat(pondering.getIterations()).isPositive();
+			assertThat(briefPonderingEngine.startPondering(retainedSearch)).isSameAs(Pondering.none());
+		}
+
+		@Test
+		void queuedSearch_ponderingNotStarted() throws InterruptedException {
+			RetainedSearch retainedSearch = decideFirstCard(engine);
+			CountDownLatch release = new CountDownLatch(1);
+			List<Thread> searches = new ArrayList<>();
+
+			try {
+				// Fill every search slot until a search has to wait
+				while (!SearchScheduler.shared().hasQueuedSearches()) {
+					searches.add(Thread.ofPlatform().start(() -> SearchScheduler.shared().run(
+							release, SearchScheduler.Priority.BACKGROUND, () -> awaitRelease(release))));
+					Thread.sleep(10);
+				}
+
+				assertThat(engine.startPondering(retainedSearch)).isSameAs(Pondering.none());
+			} finally {
+				release.countDown();
+				for (Thread search : searches) {
+					search.join();
+				}
+			}
+		}
+
+		@Test
+		void ponderingDisabled_searchesNothing() {
+			MctsEngine nonPonderingEngine = new MctsEngine(MctsConfig.defaults().withPonderCpuBudget(null));
+			RetainedSearch retainedSearch = decideFirstCard(nonPonderingEngine);
+			long visitsBefore = retainedVisits(retainedSearch);
+
+			Pondering pondering = nonPonderingEngine.startPondering(retainedSearch);
+			pondering.cancel();
+
+			assertThat(pondering.getIterations()).isZero();
+			assertThat(retainedVisits(retainedSearch)).isEqualTo(visitsBefore);
+		}
+
+		@Test
+		void zeroPonderCpuBudget_rejected() {
+			MctsConfig config = MctsConfig.defaults();
+
+			assertThatThrownBy(() -> config.withPonderCpuBudget(Duration.ZERO))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+
+		private static boolean awaitRelease(CountDownLatch release) {
+			try {
+				return release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+
+		private long retainedVisits(RetainedSearch retainedSearch) {
+			return retainedSearch.getWorlds().stream()
+					.mapToLong(world -> world.tree().getVisitCount(MctsTree.ROOT))
+					.sum();
+		}
+	}
+
+	/**
+	 * Bot leads A♥ and 7♦ having predicted 0, as have both opponents. A♥ always wins the trick,
+	 * so the bot should prefer 7♦.
+	 */
+	private Card selectAvoidingWin(MctsEngine mctsEngine) {
+		List<Card> unknownCards = new ArrayList<>(deckOfCards);
+		unknownCards.remove(getCard(14, Color.HEARTS));
+		unknownCards.remove(getCard(7, Color.DIAMONDS));
+		return selectAvoidingWin(mctsEngine, unknownCards);
+	}
+
+	private Card selectAvoidingWin(MctsEngine mctsEngine, List<Card> unknownCards) {
+		List<Card> botHand = List.of(getCard(14, Color.HEARTS), getCard(7, Color.DIAMONDS));
+		SimulationState state = createPlayingState(botHand, 0, new int[]{0, 0, 0}, new int[]{0, 0, 0});
+		state.setKnownPrediction(0);
+		state.setKnownPrediction(1);
+		state.setKnownPrediction(2);
+
+		return mctsEngine.selectCard(state, unknownCards, new int[]{0, 2, 2}, Map.of(), Map.of());
+	}
+
+	/**
+	 * Bot leads a five-card set it predicted two takes for; opponents predicted one and two.
+	 */
+	private RetainedSearch decideFirstCard(MctsEngine mctsEngine) {
+		List<Card> botHand = List.of(getCard(7, Color.HEARTS), getCard(10, Color.HEARTS),
+				getCard(9, Color.DIAMONDS), getCard(12, Color.CLUBS), getCard(13, Color.SPADES));
+		List<List<Card>> hands = new ArrayList<>();
+		hands.add(new ArrayList<>(botHand));
+		hands.add(new ArrayList<>());
+		hands.add(new ArrayList<>());
+
+		SimulationState state = new SimulationState(
+				hands,
+				new int[]{2, 1, 2},
+				new int[]{0, 0, 0},
+				new ArrayList<>(),
+				SimulationState.Phase.PLAYING,
+				0, 0, 0,
+				botHand.size(),
+				0, 3
+		);
+		state.setKnownPrediction(0);
+		state.setKnownPrediction(1);
+		state.setKnownPrediction(2);
+
+		List<Card> unknownCards = new ArrayList<>(deckOfCards);
+		unknownCards.removeAll(botHand);
+
+		RetainedSearch retainedSearch = new RetainedSearch();
+		mctsEngine.selectCard(state, unknownCards, new int[]{0, 5, 5}, Map.of(), Map.of(), retainedSearch);
+		assertThat(retainedSearch.worldCount()).isPositive();
+		return retainedSearch;
+	}
+
+	/**
+	 * Bot predicts first holding three aces of three cards, so at least two takes.
+	 */
+	private double predictThreeAces(MctsEngine mctsEngine) {
+		List<Card> botHand = List.of(getCard(14, Color.HEARTS), getCard(14, Color.CLUBS), getCard(14, Color.SPADES));
+		SimulationState state = createPredictionState(botHand, 0, 0);
+
+		List<Card> unknownCards = new ArrayList<>(deckOfCards);
+		unknownCards.removeAll(botHand);
+
+		return mctsEngine.predictTakes(state, unknownCards, new int[]{0, 3, 3}, Map.of(), Map.of());
+	}
+
 	private SimulationState createPlayingStateWithTrick(List<Card> botHand, int botIndex,
 													 int[] expectedTakes, int[] actualTakes,
 													 List<Card> currentTrick, int leadPlayerIndex) {
@@ -0,0 +1,226 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class MctsTreeTest {
+
+	private MctsAction sevenClubs;
+	private MctsAction eightClubs;
+	private MctsAction nineClubs;
+
+	@BeforeEach
+	void setUp() {
+		List<Card> deckOfCards = new CardProvider(3).getShuffledDeckOfCards();
+		sevenClubs = new MctsAction.PlayCard(getCard(deckOfCards, 7));
+		eightClubs = new MctsAction.PlayCard(getCard(deckOfCards, 8));
+		nineClubs = new MctsAction.PlayCard(getCard(deckOfCards, 9));
+	}
+
+	private static Card getCard(List<Card> deckOfCards, int value) {
+		return deckOfCards.stream()
+				.filter(card -> card.getValue() == value && card.getColor() == Color.CLUBS)
+				.findFirst()
+				.get();
+	}
+
+	@Nested
+	class ExpansionTest {
+
+		@Test
+		void untriedActions_polledBestPrioritizedLast() {
+			MctsTree tree = MctsTree.create(100, List.of(sevenClubs, eightClubs, nineClubs));
+
+			assertThat(tree.pollUntriedAction(MctsTree.ROOT)).isEqualTo(nineClubs);
+			assertThat(tree.pollUntriedAction(MctsTree.ROOT)).isEqualTo(eightClubs);
+			assertThat(tree.pollUntriedAction(MctsTree.ROOT)).isEqualTo(sevenClubs);
+			assertThat(tree.pollUntriedAction(MctsTree.ROOT)).isNull();
+			tree.release();
+		}
+
+		@Test
+		void fullTree_stopsExpanding() {
+			MctsTree tree = MctsTree.create(2, List.of(sevenClubs, eightClubs, nineClubs));
+
+			MctsAction action = tree.pollUntriedAction(MctsTree.ROOT);
+			// The claimed action holds the last free node until its child is added
+			assertThat(tree.pollUntriedAction(MctsTree.ROOT)).isNull();
+			tree.addChild(MctsTree.ROOT, action, List.of(), 0.0, true);
+
+			assertThat(tree.pollUntriedAction(MctsTree.ROOT)).isNull();
+			assertThat(tree.getNodeCount()).isEqualTo(2);
+			assertThat(tree.isFullyExpanded(MctsTree.ROOT)).isFalse();
+			tree.release();
+		}
+
+		@Test
+		void releasedTree_reusedEmpty() {
+			MctsTree tree = MctsTree.create(100, List.of(sevenClubs, eightClubs));
+			expand(tree, MctsTree.ROOT, List.of(nineClubs));
+			tree.release();
+
+			MctsTree reused = MctsTree.create(100, List.of(nineClubs));
+
+			assertThat(reused.getNodeCount()).isEqualTo(1);
+			assertThat(reused.hasChildren(MctsTree.ROOT)).isFalse();
+			assertThat(reused.pollUntriedAction(MctsTree.ROOT)).isEqualTo(nineClubs);
+			reused.release();
+		}
+	}
+
+	@Nested
+	class SelectionTest {
+
+		@Test
+		void rootWithoutBackedUpVisits_selectsByValue() {
+			MctsTree tree = MctsTree.create(100, List.of(sevenClubs, eightClubs));
+			// Two iterations of other threads on their way down, neither backed up yet
+			tree.addVirtualLoss(MctsTree.ROOT);
+			tree.addVirtualLoss(MctsTree.ROOT);
+			tree.addChild(MctsTree.ROOT, tree.pollUntriedAction(MctsTree.ROOT), List.of(), 0.0, true);
+			int better = tree.addChild(MctsTree.ROOT, tree.pollUntriedAction(MctsTree.ROOT), List.of(), 1.0, true);
+
+			assertThat(tree.selectChildUcb1(MctsTree.ROOT, 0.7, 0)).isEqualTo(better);
+			tree.release();
+		}
+
+		@Test
+		void virtualLoss_steersNextThreadToSibling() {
+			MctsTree tree = MctsTree.create(100, List.of(sevenClubs, eightClubs));
+			int first = expand(tree, MctsTree.ROOT, List.of());
+			int second = expand(tree, MctsTree.ROOT, List.of());
+			tree.backpropagate(first, 0.5, false, 0, false);
+			tree.backpropagate(second, 0.5, false, 0, false);
+			int selected = tree.selectChildUcb1(MctsTree.ROOT, 0.7, 0);
+
+			// Another thread is on its way down through the selected child
+			tree.addVirtualLoss(selected);
+
+			assertThat(tree.selectChildUcb1(MctsTree.ROOT, 0.7, 0)).isNotEqualTo(selected).isIn(first, second);
+			tree.release();
+		}
+	}
+
+	@Nested
+	class InformationSetTest {
+
+		@Test
+		void childIllegalInWorld_skippedDespiteBetterValue() {
+			MctsTree tree = MctsTree.create(100, List.of());
+			List<MctsAction> firstWorldActions = List.of(sevenClubs, eightClubs);
+			int eight = expandLegal(tree, firstWorldActions);
+			int seven = expandLegal(tree, firstWorldActions);
+			tree.backpropagate(eight, 1.0, false, 0, false);
+			tree.backpropagate(seven, 0.0, false, 0, false);
+			long firstWorld = ActionCodes.mask(firstWorldActions);
+			tree.markAvailable(MctsTree.ROOT, firstWorld);
+			assertThat(tree.selectAvailableChildUcb1(MctsTree.ROOT, 0.7, 0, firstWorld)).isEqualTo(eight);
+
+			// An opponent holds the eight in this world, and the nine has no child yet
+			List<MctsAction> secondWorldActions = List.of(sevenClubs, nineClubs);
+			long secondWorld = ActionCodes.mask(secondWorldActions);
+			tree.markAvailable(MctsTree.ROOT, secondWorld);
+
+			assertThat(tree.selectAvailableChildUcb1(MctsTree.ROOT, 0.7, 0, secondWorld)).isEqualTo(seven);
+			assertThat(tree.pollUnexpandedAction(MctsTree.ROOT, secondWorldActions, UnaryOperator.identity()))
+					.isEqualTo(nineClubs);
+			tree.release();
+		}
+	}
+
+	@Nested
+	class RaveTest {
+
+		@Test
+		void laterPlayedCard_creditsSiblingAmaf() {
+			MctsTree tree = MctsTree.create(100, List.of(sevenClubs, eightClubs, nineClubs));
+			int nine = expand(tree, MctsTree.ROOT, List.of());
+			int eight = expand(tree, MctsTree.ROOT, List.of());
+			int seven = expand(tree, MctsTree.ROOT, List.of());
+			tree.backpropagate(nine, 0.4, false, 0, false);
+			tree.backpropagate(eight, 0.2, false, 0, false);
+			// Lost often enough that its own record outweighs its AMAF
+			tree.backpropagate(seven, 0.0, 1000, false, 0, false);
+
+			// The seven's rollout played the eight later and won
+			tree.backpropagate(seven, 1.0, true, ActionCodes.mask(eightClubs), false);
+
+			assertThat(tree.selectChildUcb1(MctsTree.ROOT, 0, 0)).isEqualTo(nine);
+			assertThat(tree.selectChildUcb1(MctsTree.ROOT, 0, 1000)).isEqualTo(eight);
+			tree.release();
+		}
+	}
+
+	@Nested
+	class ProofTest {
+
+		@Test
+		void claimedActionWithoutChild_blocksProof() {
+			MctsTree tree = MctsTree.create(100, List.of(sevenClubs, eightClubs));
+			MctsAction first = tree.pollUntriedAction(MctsTree.ROOT);
+			// Claimed by another thread that has not added its child yet
+			MctsAction second = tree.pollUntriedAction(MctsTree.ROOT);
+
+			int lost = tree.addChild(MctsTree.ROOT, first, List.of(), 0.0, true);
+			tree.prove(lost, SimulationState.MIN_REWARD);
+			tree.backpropagate(lost, SimulationState.MIN_REWARD, false, 0, true);
+			assertThat(tree.isProven(MctsTree.ROOT)).isFalse();
+
+			int alsoLost = tree.addChild(MctsTree.ROOT, second, List.of(), 0.0, true);
+			tree.prove(alsoLost, SimulationState.MIN_REWARD);
+			tree.backpropagate(alsoLost, SimulationState.MIN_REWARD, false, 0, true);
+			assertThat(tree.getProvenValue(MctsTree.ROOT)).isEqualTo(SimulationState.MIN_REWARD);
+			tree.release();
+		}
+	}
+
+	@Nested
+	class CompactionTest {
+
+		@Test
+		void compactTo_keepsSubtreeWithStatistics() {
+			MctsTree tree = MctsTree.create(100, List.of(sevenClubs, eightClubs));
+			int eight = expand(tree, MctsTree.ROOT, List.of(nineClubs, sevenClubs));
+			int seven = expand(tree, MctsTree.ROOT, List.of(nineClubs));
+			int sevenNine = expand(tree, seven, List.of());
+			int eightSeven = expand(tree, eight, List.of());
+			tree.backpropagate(eightSeven, 1.0, false, 0, false);
+			tree.backpropagate(sevenNine, 0.0, false, 0, false);
+
+			tree.compactTo(seven);
+
+			assertThat(tree.getNodeCount()).isEqualTo(2);
+			assertThat(tree.getParent(MctsTree.ROOT)).isEqualTo(MctsTree.NONE);
+			assertThat(tree.getNextSibling(MctsTree.ROOT)).isEqualTo(MctsTree.NONE);
+			assertThat(tree.getVisitCount(MctsTree.ROOT)).isEqualTo(1);
+			assertThat(tree.isFullyExpanded(MctsTree.ROOT)).isTrue();
+
+			int child = tree.findChild(MctsTree.ROOT, nineClubs);
+			assertThat(child).isEqualTo(1);
+			assertThat(tree.getParent(child)).isEqualTo(MctsTree.ROOT);
+			assertThat(tree.getVisitCount(child)).isEqualTo(1);
+			assertThat(tree.getTotalReward(child)).isZero();
+			tree.release();
+		}
+	}
+
+	private static int expand(MctsTree tree, int node, List<MctsAction> childActions) {
+		MctsAction action = tree.pollUntriedAction(node);
+		return tree.addChild(node, action, childActions, 0.0, true);
+	}
+
+	private static int expandLegal(MctsTree tree, List<MctsAction> legalActions) {
+		MctsAction action = tree.pollUnexpandedAction(MctsTree.ROOT, legalActions, UnaryOperator.identity());
+		return tree.addChild(MctsTree.ROOT, action, List.of(), 0.0, true);
+	}
+}
@@ -0,0 +1,108 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MctsTunerTest {
+
+	private static final MctsConfig FAST_CONFIG = MctsConfig.defaults()
+			.withParallelism(1)
+			.withIterationsPerCard(20)
+			.withEndgameCache(false);
+
+	@Test
+	void deal_sameSeedSameDeals() {
+		List<MctsTuner.Deal> deals = MctsTuner.deal(3, 4, 5, new Random(9));
+
+		assertThat(MctsTuner.deal(3, 4, 5, new Random(9))).isEqualTo(deals);
+		for (MctsTuner.Deal deal : deals) {
+			List<Card> cards = new ArrayList<>();
+			deal.hands().forEach(cards::addAll);
+			assertThat(deal.hands()).hasSize(4);
+			assertThat(cards.stream().distinct().count()).isEqualTo(20);
+		}
+	}
+
+	@Test
+	void encodeDecode_roundTrip() {
+		MctsConfig config = MctsConfig.defaults();
+
+		MctsConfig decoded = MctsTuner.decode(config, MctsTuner.encode(config));
+
+		// The iterations are rounded on the log scale
+		assertThat(decoded.getIterationsPerCard()).isBetween(1990, 2010);
+		assertThat(decoded.getExplorationConstant()).isCloseTo(0.7, within(1e-9));
+		assertThat(decoded.getDeterminizationsPerCard()).isEqualTo(3);
+		assertThat(decoded.getDeterminizationsPerOpponent()).isEqualTo(5);
+	}
+
+	@Test
+	void objective_penalizesCpu() {
+		MctsTuner.Score cheap = new MctsTuner.Score(10, 5, 100);
+		MctsTuner.Score expensive = new MctsTuner.Score(10, 5, 400);
+
+		assertThat(MctsTuner.objective(cheap, expensive, 0)).isZero();
+		assertThat(MctsTuner.objective(cheap, expensive, 0.1)).isCloseTo(0.2, within(1e-9));
+	}
+
+	@Test
+	void play_candidateScoredOnEveryDeal() {
+		List<MctsTuner.Deal> deals = MctsTuner.deal(3, 3, 3, new Random(5));
+
+		MctsTuner.Score score = MctsTuner.play(FAST_CONFIG, FAST_CONFIG, deals);
+
+		assertThat(score.sets()).isEqualTo(3);
+		assertThat(score.hits()).isBetween(0, 3);
+		assertThat(score.cpuNanos()).isPositive();
+	}
+
+	@Test
+	void spsa_staysInRange() {
+		MctsConfig tuned = MctsTuner.spsa(FAST_CONFIG.withIterationsPerCard(60), 0.05, 2, 2, 3, 2, new Random(3));
+
+		assertThat(tuned.getIterationsPerCard()).isBetween(50, 4000);
+		assertThat(tuned.getExplorationConstant()).isBetween(0.1, 2.0);
+		assertThat(tuned.getDeterminizationsPerCard()).isBetween(0, 8);
+		assertThat(tuned.getDeterminizationsPerOpponent()).isBetween(0, 10);
+	}
+
+	@Test
+	void sequentialComparison_acceptsEqualAndRejectsWorse() {
+		SequentialComparison equal = new SequentialComparison(0.05, 2.5, 20);
+		SequentialComparison worse = new SequentialComparison(0.05, 2.5, 20);
+		Random random = new Random(1);
+		for (int i = 0; i < 3000; i++) {
+			equal.add(random.nextInt(3) - 1);
+			worse.add(random.nextInt(4) == 0 ? 0 : -1);
+		}
+
+		assertThat(equal.verdict()).isEqualTo(SequentialComparison.Verdict.ACCEPT);
+		assertThat(worse.verdict()).isEqualTo(SequentialComparison.Verdict.REJECT);
+	}
+
+	@Test
+	void sequentialComparison_waitsForMinimumSamples() {
+		SequentialComparison comparison = new SequentialComparison(0.05, 2.5, 20);
+		for (int i = 0; i < 19; i++) {
+			comparison.add(0);
+		}
+
+		assertThat(comparison.verdict()).isEqualTo(SequentialComparison.Verdict.CONTINUE);
+	}
+
+	@Test
+	void roundBid_avoidsForbiddenSum() {
+		assertThat(SelfPlayMatch.roundBid(1.2, -1)).isEqualTo(1);
+		assertThat(SelfPlayMatch.roundBid(1.2, 1)).isEqualTo(2);
+		assertThat(SelfPlayMatch.roundBid(0.8, 1)).isEqualTo(0);
+		assertThat(SelfPlayMatch.roundBid(0.2, 0)).isEqualTo(1);
+	}
+}
@@ -0,0 +1,84 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PairedRoundsTest {
+
+	private List<Card> deckOfCards;
+
+	@BeforeEach
+	void setUp() {
+		deckOfCards = new CardProvider(3).getShuffledDeckOfCards();
+	}
+
+	private Card getCard(int value, Color color) {
+		return deckOfCards.stream()
+				.filter(card -> card.getValue() == value && card.getColor() == color)
+				.findFirst()
+				.get();
+	}
+
+	@Test
+	void round_everyCandidateStartsFromSameWorld() {
+		List<Card> botHand = List.of(getCard(7, Color.CLUBS), getCard(8, Color.CLUBS), getCard(9, Color.CLUBS));
+		List<MctsAction> actions = botHand.stream().map(card -> (MctsAction) new MctsAction.PlayCard(card)).toList();
+		MctsTree tree = MctsTree.create(100, actions);
+		List<SimulationState> dealt = new ArrayList<>();
+		PairedRounds rounds = new PairedRounds(tree, botHand.size(), () -> {
+			// Every deal gives the first opponent a different hand
+			SimulationState world = createPlayingState(botHand, getCard(7 + dealt.size(), Color.HEARTS));
+			dealt.add(world);
+			return world;
+		});
+
+		// The root is expanded from fresh worlds
+		assertThat(rounds.nextCandidate()).isEqualTo(MctsTree.NONE);
+		rounds.nextState();
+		List<Integer> children = new ArrayList<>();
+		for (int i = 0; i < botHand.size(); i++) {
+			children.add(tree.addChild(MctsTree.ROOT, tree.pollUntriedAction(MctsTree.ROOT), List.of(), 0.0, true));
+		}
+
+		for (int round = 1; round <= 2; round++) {
+			List<Integer> candidates = new ArrayList<>();
+			for (int i = 0; i < botHand.size(); i++) {
+				candidates.add(rounds.nextCandidate());
+				SimulationState state = rounds.nextState();
+
+				assertThat(state).isNotSameAs(dealt.getLast());
+				assertThat(state.getHash()).isEqualTo(dealt.getLast().getHash());
+			}
+
+			assertThat(candidates).containsExactlyInAnyOrderElementsOf(children);
+			assertThat(dealt).hasSize(round + 1);
+		}
+		assertThat(dealt.get(2).getHash()).isNotEqualTo(dealt.get(1).getHash());
+		tree.release();
+	}
+
+	private SimulationState createPlayingState(List<Card> botHand, Card opponentCard) {
+		List<List<Card>> hands = List.of(new ArrayList<>(botHand), new ArrayList<>(List.of(opponentCard)),
+				new ArrayList<>(List.of(getCard(7, Color.SPADES))));
+
+		return new SimulationState(
+				hands,
+				new int[]{0, 0, 0},
+				new int[]{0, 0, 0},
+				new ArrayList<>(),
+				SimulationState.Phase.PLAYING,
+				0, 0, 0,
+				botHand.size(),
+				0, 3
+		);
+	}
+}
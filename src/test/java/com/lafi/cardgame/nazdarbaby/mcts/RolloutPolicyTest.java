@@ -442,4 +442,51 @@ class RolloutPolicyTest {
 			assertThat(asLeader).isGreaterThanOrEqualTo(asFollower);
 		}
 	}
+
+	@Nested
+	class RolloutCutoffTest {
+
+		@Test
+		void decidedOutcome_stopsWithoutPlaying() {
+			// Bot predicted 0 but already took a trick — in prediction mode the reward is 0 whatever follows
+			SimulationState state = createMidGameState(new int[]{0, 1, 1}, new int[]{1, 0, 0});
+			state.setPredictionMode(true);
+
+			double reward = RolloutPolicy.rollout(state);
+
+			assertThat(reward).isEqualTo(0.0);
+			assertThat(state.getTricksPlayed()).isEqualTo(1);
+			assertThat(state.getHand(0)).hasSize(2);
+		}
+
+		@Test
+		void openOutcome_playsToTheEnd() {
+			SimulationState state = createMidGameState(new int[]{1, 1, 0}, new int[]{0, 1, 0});
+
+			RolloutPolicy.rollout(state);
+
+			assertThat(state.isTerminal()).isTrue();
+		}
+
+		/**
+		 * Second of three tricks, bot (player 0) leads with two cards per player left.
+		 */
+		private SimulationState createMidGameState(int[] expectedTakes, int[] actualTakes) {
+			List<List<Card>> hands = new ArrayList<>();
+			hands.add(new ArrayList<>(List.of(getCard(14, Color.HEARTS), getCard(7, Color.CLUBS))));
+			hands.add(new ArrayList<>(List.of(getCard(8, Color.CLUBS), getCard(9, Color.SPADES))));
+			hands.add(new ArrayList<>(List.of(getCard(10, Color.CLUBS), getCard(11, Color.SPADES))));
+
+			return new SimulationState(
+					hands,
+					expectedTakes,
+					actualTakes,
+					new ArrayList<>(),
+					SimulationState.Phase.PLAYING,
+					0, 0, 1,
+					3,
+					0, 3
+			);
+		}
+	}
 }
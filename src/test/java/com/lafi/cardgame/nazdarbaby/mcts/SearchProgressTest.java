@@ -0,0 +1,91 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.junit.jupiter.api.Test;
+
+class SearchProgressTest {
+
+	private static final int DETERMINIZATIONS = 16;
+
+	// Root statistics of the next completed world, as {total reward, visits} per action
+	private final Queue<Map<String, double[]>> worlds = new ArrayDeque<>();
+	private final MctsTree tree = MctsTree.create(1, List.of());
+
+	@Test
+	void separatedLeader_stopsOnceEnoughWorldsCompleted() {
+		SearchProgress<String> progress = createProgress(0, 0.99);
+
+		for (int i = 0; i < 3; i++) {
+			completeWorld(progress, 0.8 + 0.01 * i, 0.2 - 0.01 * i);
+			assertThat(progress.isStopped()).isFalse();
+		}
+		completeWorld(progress, 0.85, 0.15);
+
+		assertThat(progress.isStopped()).isTrue();
+		assertThat(progress.afterIteration(1)).isTrue();
+	}
+
+	@Test
+	void closeActions_neverStop() {
+		SearchProgress<String> progress = createProgress(0, 0.99);
+
+		for (int i = 0; i < DETERMINIZATIONS; i++) {
+			// The leader changes from world to world
+			completeWorld(progress, i % 2 == 0 ? 0.6 : 0.4, i % 2 == 0 ? 0.4 : 0.61);
+		}
+
+		assertThat(progress.isStopped()).isFalse();
+	}
+
+	@Test
+	void exhaustedBudget_stopsWhenAlternativeCannotOvertake() {
+		SearchProgress<String> progress = createProgress(1000, 0.99);
+
+		for (int i = 0; i < 4; i++) {
+			progress.afterIteration(100);
+			completeWorld(progress, i % 2 == 0 ? 0.8 : 0.4, i % 2 == 0 ? 0.2 : 0.5);
+		}
+		assertThat(progress.isStopped()).isFalse();
+
+		// Nothing left that could lift the alternative above the leader
+		progress.afterIteration(600);
+		completeWorld(progress, 0.4, 0.5);
+
+		assertThat(progress.isStopped()).isTrue();
+		assertThat(progress.toStatistics().savedIterations()).isZero();
+	}
+
+	@Test
+	void zeroConfidence_neverStops() {
+		SearchProgress<String> progress = createProgress(0, 0.0);
+
+		for (int i = 0; i < DETERMINIZATIONS; i++) {
+			completeWorld(progress, 1.0, 0.0);
+		}
+
+		assertThat(progress.isStopped()).isFalse();
+	}
+
+	private SearchProgress<String> createProgress(long plannedIterations, double confidence) {
+		SearchProgress.RootAggregator<String> aggregator = (_, _, stats) -> stats.putAll(worlds.remove());
+		return new SearchProgress<>(aggregator, plannedIterations, DETERMINIZATIONS, confidence);
+	}
+
+	/**
+	 * Complete a world in which each action got 100 visits with the given average rewards.
+	 */
+	private void completeWorld(SearchProgress<String> progress, double leaderAverage, double alternativeAverage) {
+		Map<String, double[]> stats = new HashMap<>();
+		stats.put("leader", new double[]{100 * leaderAverage, 100});
+		stats.put("alternative", new double[]{100 * alternativeAverage, 100});
+		worlds.add(stats);
+		progress.worldCompleted(tree, _ -> true);
+	}
+}
@@ -0,0 +1,137 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SearchSchedulerTest {
+
+	private static final Object TABLE_A = "A";
+	private static final Object TABLE_B = "B";
+
+	@Test
+	void run_returnsSearchResult() {
+		SearchScheduler scheduler = new SearchScheduler(1);
+
+		int result = scheduler.run(TABLE_A, SearchScheduler.Priority.INTERACTIVE, () -> 42);
+
+		assertThat(result).isEqualTo(42);
+		assertThat(scheduler.statistics().completed()).isEqualTo(1);
+		assertThat(scheduler.statistics().queueDepth()).isZero();
+	}
+
+	@Test
+	void run_boundsConcurrentSearches() throws InterruptedException {
+		SearchScheduler scheduler = new SearchScheduler(2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			Object table = i % 2 == 0 ? TABLE_A : TABLE_B;
+			Runnable search = () -> scheduler.run(table, SearchScheduler.Priority.INTERACTIVE, () -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				sleep(20);
+				return running.decrementAndGet();
+			});
+			threads.add(Thread.ofPlatform().start(search));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+		assertThat(scheduler.statistics().completed()).isEqualTo(8);
+		assertThat(scheduler.statistics().maxWaitNanos()).isPositive();
+	}
+
+	@Test
+	void run_tablesTakeTurns() throws InterruptedException {
+		SearchScheduler scheduler = new SearchScheduler(1);
+		List<String> order = new CopyOnWriteArrayList<>();
+		CountDownLatch release = blockSlot(scheduler);
+
+		List<Thread> threads = new ArrayList<>();
+		threads.add(queue(scheduler, TABLE_A, SearchScheduler.Priority.INTERACTIVE, "A1", order));
+		threads.add(queue(scheduler, TABLE_A, SearchScheduler.Priority.INTERACTIVE, "A2", order));
+		threads.add(queue(scheduler, TABLE_A, SearchScheduler.Priority.INTERACTIVE, "A3", order));
+		threads.add(queue(scheduler, TABLE_B, SearchScheduler.Priority.INTERACTIVE, "B1", order));
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(order).isEqualTo(List.of("A1", "B1", "A2", "A3"));
+	}
+
+	@Test
+	void run_interactiveBeforeBackground() throws InterruptedException {
+		SearchScheduler scheduler = new SearchScheduler(1);
+		List<String> order = new CopyOnWriteArrayList<>();
+		CountDownLatch release = blockSlot(scheduler);
+
+		List<Thread> threads = new ArrayList<>();
+		threads.add(queue(scheduler, TABLE_A, SearchScheduler.Priority.BACKGROUND, "background", order));
+		threads.add(queue(scheduler, TABLE_B, SearchScheduler.Priority.INTERACTIVE, "interactive", order));
+		assertThat(scheduler.statistics().backgroundQueued()).isEqualTo(1);
+		assertThat(scheduler.statistics().interactiveQueued()).isEqualTo(1);
+		assertThat(scheduler.hasQueuedSearches()).isTrue();
+		release.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(order).isEqualTo(List.of("interactive", "background"));
+		assertThat(scheduler.hasQueuedSearches()).isFalse();
+	}
+
+	/**
+	 * Occupy the only slot until the returned latch is released.
+	 */
+	private static CountDownLatch blockSlot(SearchScheduler scheduler) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread.ofPlatform().start(() -> scheduler.run("blocker", SearchScheduler.Priority.INTERACTIVE, () -> {
+			started.countDown();
+			await(release);
+			return null;
+		}));
+		started.await();
+		return release;
+	}
+
+	/**
+	 * Submit a search recording its label from a new thread and wait until it is queued.
+	 */
+	private static Thread queue(SearchScheduler scheduler, Object table, SearchScheduler.Priority priority,
+								String label, List<String> order) {
+		int queued = scheduler.statistics().queueDepth();
+		Thread thread = Thread.ofPlatform().start(() -> scheduler.run(table, priority, () -> order.add(label)));
+		while (scheduler.statistics().queueDepth() == queued) {
+			Thread.onSpinWait();
+		}
+		return thread;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
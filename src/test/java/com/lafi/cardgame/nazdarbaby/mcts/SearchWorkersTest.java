@@ -0,0 +1,60 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class SearchWorkersTest {
+
+	@Test
+	void invokeAll_resultsInTaskOrder() {
+		List<Callable<Integer>> tasks = List.of(() -> 1, () -> 2, () -> 3);
+
+		assertThat(SearchWorkers.invokeAll(tasks)).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	void invokeAll_runsTasksConcurrently() {
+		CountDownLatch bothStarted = new CountDownLatch(2);
+		Callable<Boolean> task = () -> {
+			bothStarted.countDown();
+			return bothStarted.await(5, TimeUnit.SECONDS);
+		};
+
+		assertThat(SearchWorkers.invokeAll(List.of(task, task))).containsExactly(true, true);
+	}
+
+	@Test
+	void failedTask_stopsRunningSibling() throws InterruptedException {
+		AtomicBoolean stopped = new AtomicBoolean();
+		CountDownLatch siblingStarted = new CountDownLatch(1);
+		CountDownLatch siblingEnded = new CountDownLatch(1);
+		List<Callable<Void>> tasks = List.of(
+				() -> {
+					siblingStarted.await(5, TimeUnit.SECONDS);
+					throw new IllegalStateException("failed");
+				},
+				() -> {
+					siblingStarted.countDown();
+					// A search loop that only ends when told to stop
+					while (!stopped.get()) {
+						Thread.onSpinWait();
+					}
+					siblingEnded.countDown();
+					return null;
+				});
+
+		assertThatThrownBy(() -> SearchWorkers.invokeAll(tasks, () -> stopped.set(true)))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("failed");
+
+		assertThat(siblingEnded.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+}
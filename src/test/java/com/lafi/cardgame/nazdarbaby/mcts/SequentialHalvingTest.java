@@ -0,0 +1,77 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SequentialHalvingTest {
+
+	@Test
+	void firstRound_visitsCandidatesInTurn() {
+		MctsTree tree = MctsTree.create(100, clubsUpToTen());
+		SequentialHalving halving = new SequentialHalving(tree, 4);
+		IterationBudget budget = IterationBudget.ofIterations(16);
+		assertThat(halving.nextCandidate(budget)).isEqualTo(MctsTree.NONE);
+
+		int[] children = expandRoot(tree, 4);
+		List<Integer> visited = new ArrayList<>();
+		// The first of two rounds takes half of the budget
+		for (int i = 0; i < 8; i++) {
+			visited.add(halving.nextCandidate(budget));
+			budget.tryAcquire();
+		}
+
+		assertThat(visited.subList(0, 4)).containsExactlyInAnyOrder(children[0], children[1], children[2], children[3]);
+		assertThat(visited.subList(4, 8)).isEqualTo(visited.subList(0, 4));
+		tree.release();
+	}
+
+	@Test
+	void halving_keepsStrongerHalfAsCandidates() {
+		MctsTree tree = MctsTree.create(100, clubsUpToTen());
+		int[] children = expandRoot(tree, 4);
+		for (int i = 0; i < children.length; i++) {
+			// The later children win
+			tree.backpropagate(children[i], i < 2 ? 0.0 : 1.0, false, 0, false);
+		}
+
+		SequentialHalving halving = new SequentialHalving(tree, children.length);
+		IterationBudget budget = IterationBudget.ofIterations(4);
+		halving.nextCandidate(budget);
+		assertThat(halving.isCandidate(children[0])).isTrue();
+
+		// Half of the budget ends the first of two rounds
+		budget.tryAcquire();
+		budget.tryAcquire();
+		halving.nextCandidate(budget);
+
+		assertThat(halving.isCandidate(children[0])).isFalse();
+		assertThat(halving.isCandidate(children[1])).isFalse();
+		assertThat(halving.isCandidate(children[2])).isTrue();
+		assertThat(halving.isCandidate(children[3])).isTrue();
+		tree.release();
+	}
+
+	private static List<MctsAction> clubsUpToTen() {
+		return new CardProvider(3).getShuffledDeckOfCards().stream()
+				.filter(card -> card.getColor() == Color.CLUBS && card.getValue() <= 10)
+				.sorted(Card::compareTo)
+				.map(card -> (MctsAction) new MctsAction.PlayCard(card))
+				.toList();
+	}
+
+	private static int[] expandRoot(MctsTree tree, int childCount) {
+		int[] children = new int[childCount];
+		for (int i = 0; i < childCount; i++) {
+			children[i] = tree.addChild(MctsTree.ROOT, tree.pollUntriedAction(MctsTree.ROOT), List.of(), 0.0, true);
+		}
+		return children;
+	}
+}
@@ -290,6 +290,215 @@ class SimulationStateTest {
 		}
 	}
 
+	@Nested
+	class DecidedRewardTest {
+
+		@Test
+		void terminal_returnsReward() {
+			SimulationState state = createTerminalStateWithOpponents(1, 0, 1, 0);
+			assertThat(state.getDecidedReward()).isEqualTo(0.1);
+		}
+
+		@Test
+		void outcomeStillOpen_returnsNaN() {
+			// Bot predicted 1, took 0, 2 of 3 tricks left
+			SimulationState state = createMidGameState(new int[]{1, 0, 0}, new int[]{0, 1, 0}, 1);
+			assertThat(state.getDecidedReward()).isNaN();
+		}
+
+		@Test
+		void predictionMode_botOvertook_returnsZero() {
+			SimulationState state = createMidGameState(new int[]{0, 1, 1}, new int[]{1, 0, 0}, 1);
+			state.setPredictionMode(true);
+			assertThat(state.getDecidedReward()).isEqualTo(0.0);
+		}
+
+		@Test
+		void predictionMode_notEnoughTricksLeft_returnsZero() {
+			// Bot needs 2 more tricks, only 1 left
+			SimulationState state = createMidGameState(new int[]{3, 0, 0}, new int[]{1, 1, 0}, 2);
+			state.setPredictionMode(true);
+			assertThat(state.getDecidedReward()).isEqualTo(0.0);
+		}
+
+		@Test
+		void botLost_othersStillOpen_returnsNaN() {
+			// Consolation reward depends on whether another player loses too
+			SimulationState state = createMidGameState(new int[]{0, 1, 1}, new int[]{1, 0, 0}, 1);
+			assertThat(state.getDecidedReward()).isNaN();
+		}
+
+		@Test
+		void botAndOpponentLost_returnsConsolation() {
+			SimulationState state = createMidGameState(new int[]{0, 0, 1}, new int[]{1, 1, 0}, 2);
+			assertThat(state.getDecidedReward()).isEqualTo(0.1);
+		}
+	}
+
+	@Nested
+	class HashTest {
+
+		@Test
+		void transposedTricks_sameHash() {
+			// Bot wins both tricks with hearts whichever it leads first
+			SimulationState aceFirst = createHeartsLeadState();
+			playTrick(aceFirst, getCard(14, Color.HEARTS), getCard(7, Color.CLUBS), getCard(9, Color.CLUBS));
+			playTrick(aceFirst, getCard(13, Color.HEARTS), getCard(8, Color.CLUBS), getCard(10, Color.CLUBS));
+
+			SimulationState kingFirst = createHeartsLeadState();
+			playTrick(kingFirst, getCard(13, Color.HEARTS), getCard(8, Color.CLUBS), getCard(10, Color.CLUBS));
+			playTrick(kingFirst, getCard(14, Color.HEARTS), getCard(7, Color.CLUBS), getCard(9, Color.CLUBS));
+
+			assertThat(aceFirst.getHash()).isEqualTo(kingFirst.getHash());
+		}
+
+		@Test
+		void differentCardPlayed_differentHash() {
+			SimulationState ace = createHeartsLeadState();
+			ace.applyAction(new MctsAction.PlayCard(getCard(14, Color.HEARTS)));
+
+			SimulationState king = createHeartsLeadState();
+			king.applyAction(new MctsAction.PlayCard(getCard(13, Color.HEARTS)));
+
+			assertThat(ace.getHash()).isNotEqualTo(king.getHash());
+		}
+
+		@Test
+		void incrementalHash_matchesFullComputation() {
+			SimulationState state = createHeartsLeadState();
+			state.getHash();
+			playTrick(state, getCard(14, Color.HEARTS), getCard(7, Color.CLUBS), getCard(9, Color.CLUBS));
+			state.applyAction(new MctsAction.PlayCard(getCard(13, Color.HEARTS)));
+
+			List<List<Card>> hands = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				hands.add(new ArrayList<>(state.getHand(i)));
+			}
+			SimulationState fresh = new SimulationState(
+					hands,
+					new int[]{2, 0, 0},
+					new int[]{1, 0, 0},
+					new ArrayList<>(state.getCurrentTrick()),
+					SimulationState.Phase.PLAYING,
+					0, 1, 1,
+					3,
+					0, 3
+			);
+
+			assertThat(state.getHash()).isEqualTo(fresh.getHash());
+		}
+
+		private SimulationState createHeartsLeadState() {
+			List<List<Card>> hands = new ArrayList<>();
+			hands.add(new ArrayList<>(List.of(getCard(14, Color.HEARTS), getCard(13, Color.HEARTS), getCard(12, Color.HEARTS))));
+			hands.add(new ArrayList<>(List.of(getCard(7, Color.CLUBS), getCard(8, Color.CLUBS), getCard(11, Color.CLUBS))));
+			hands.add(new ArrayList<>(List.of(getCard(9, Color.CLUBS), getCard(10, Color.CLUBS), getCard(12, Color.CLUBS))));
+
+			return new SimulationState(
+					hands,
+					new int[]{2, 0, 0},
+					new int[]{0, 0, 0},
+					new ArrayList<>(),
+					SimulationState.Phase.PLAYING,
+					0, 0, 0,
+					3,
+					0, 3
+			);
+		}
+
+		private void playTrick(SimulationState state, Card... cards) {
+			for (Card card : cards) {
+				state.applyAction(new MctsAction.PlayCard(card));
+			}
+		}
+
+		private Card getCard(int value, Color color) {
+			return deckOfCards.stream()
+					.filter(card -> card.getValue() == value && card.getColor() == color)
+					.findFirst()
+					.get();
+		}
+	}
+
+	@Nested
+	class DistinctLegalActionsTest {
+
+		@Test
+		void touchingCards_collapseToLowest() {
+			SimulationState state = createSpadesState(List.of(8, 9, 10), List.of(7, 12), List.of(11, 13));
+
+			assertThat(state.getDistinctLegalActions()).containsExactly(play(8, Color.SPADES));
+		}
+
+		@Test
+		void gapHeldByOpponent_cardsDistinct() {
+			SimulationState state = createSpadesState(List.of(8, 10), List.of(9, 12), List.of(11, 13));
+
+			assertThat(state.getDistinctLegalActions())
+					.containsExactlyInAnyOrder(play(8, Color.SPADES), play(10, Color.SPADES));
+		}
+
+		@Test
+		void gapOutOfPlay_cardsEquivalent() {
+			SimulationState state = createSpadesState(List.of(8, 10), List.of(7, 12), List.of(11, 13));
+			state.setOutOfPlayCards(ActionCodes.cardMask(getCard(9, Color.SPADES)));
+
+			assertThat(state.getDistinctLegalActions()).containsExactly(play(8, Color.SPADES));
+			assertThat(state.getDistinctAction(play(10, Color.SPADES))).isEqualTo(play(8, Color.SPADES));
+			assertThat(state.getDistinctCardCount(0)).isEqualTo(1);
+		}
+
+		@Test
+		void finishedTrick_putsCardsOutOfPlay() {
+			SimulationState state = createSpadesState(List.of(7, 8, 10), List.of(9, 12), List.of(11, 13));
+			state.applyAction(play(7, Color.SPADES));
+			state.applyAction(play(9, Color.SPADES));
+			// On the table 9♠ still separates 8♠ from 10♠
+			assertThat(state.deepCopy().getDistinctCardCount(0)).isEqualTo(2);
+
+			state.applyAction(play(11, Color.SPADES));
+			// Player 2 won the trick and leads; the bot's cards are equivalent now
+			assertThat(state.getDistinctCardCount(0)).isEqualTo(1);
+		}
+
+		@Test
+		void predictions_notCollapsed() {
+			SimulationState state = createPredictionState(3);
+
+			assertThat(state.getDistinctLegalActions()).hasSize(4);
+		}
+
+		private SimulationState createSpadesState(List<Integer> botValues, List<Integer> firstValues,
+												  List<Integer> secondValues) {
+			List<List<Card>> hands = new ArrayList<>();
+			for (List<Integer> values : List.of(botValues, firstValues, secondValues)) {
+				hands.add(new ArrayList<>(values.stream().map(value -> getCard(value, Color.SPADES)).toList()));
+			}
+
+			return new SimulationState(
+					hands,
+					new int[]{1, 1, 1},
+					new int[]{0, 0, 0},
+					new ArrayList<>(),
+					SimulationState.Phase.PLAYING,
+					0, 0, 0,
+					botValues.size(),
+					0, 3
+			);
+		}
+
+		private MctsAction play(int value, Color color) {
+			return new MctsAction.PlayCard(getCard(value, color));
+		}
+
+		private Card getCard(int value, Color color) {
+			return deckOfCards.stream()
+					.filter(card -> card.getValue() == value && card.getColor() == color)
+					.findFirst()
+					.get();
+		}
+	}
+
 	@Nested
 	class DeepCopyTest {
 
@@ -369,6 +578,25 @@ class SimulationStateTest {
 		);
 	}
 
+	private SimulationState createMidGameState(int[] expectedTakes, int[] actualTakes, int tricksPlayed) {
+		List<List<Card>> hands = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			hands.add(new ArrayList<>());
+		}
+
+		return new SimulationState(
+				hands,
+				expectedTakes,
+				actualTakes,
+				new ArrayList<>(),
+				SimulationState.Phase.PLAYING,
+				0, 0,
+				tricksPlayed,
+				3, // 3 tricks total
+				0, 3
+		);
+	}
+
 	private SimulationState createTerminalStateWithOpponents(int botExpected, int botActual,
 															 int opponentExpected, int opponentActual) {
 		List<List<Card>> hands = new ArrayList<>();
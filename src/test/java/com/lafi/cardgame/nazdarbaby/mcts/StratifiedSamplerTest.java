@@ -0,0 +1,88 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StratifiedSamplerTest {
+
+	private List<Card> unknownCards;
+	private Card aceOfHearts;
+
+	@BeforeEach
+	void setUp() {
+		List<Card> deckOfCards = new CardProvider(3).getShuffledDeckOfCards();
+
+		// All aces plus low cards up to 16 unknown cards
+		unknownCards = new ArrayList<>(deckOfCards.stream().filter(card -> card.getValue() == 14).toList());
+		deckOfCards.stream()
+				.filter(card -> !StratifiedSampler.isKeyCard(card))
+				.limit(16 - unknownCards.size())
+				.forEach(unknownCards::add);
+		aceOfHearts = unknownCards.stream()
+				.filter(card -> card.getColor() == Color.HEARTS)
+				.findFirst()
+				.get();
+	}
+
+	@Test
+	void batch_keyCardsSplitBySlots() {
+		StratifiedSampler sampler = new StratifiedSampler(unknownCards, new int[]{0, 8, 8}, Map.of(), Map.of(), 0, 10);
+
+		Map<Card, int[]> holderCounts = countHolders(sampler, 10);
+
+		assertThat(holderCounts).hasSize(4);
+		for (int[] counts : holderCounts.values()) {
+			assertThat(counts[1]).isEqualTo(5);
+			assertThat(counts[2]).isEqualTo(5);
+		}
+	}
+
+	@Test
+	void undealtCards_keyCardsStayOutOfPlayInProportion() {
+		StratifiedSampler sampler = new StratifiedSampler(unknownCards, new int[]{0, 4, 4}, Map.of(), Map.of(), 0, 8);
+
+		Map<Card, int[]> holderCounts = countHolders(sampler, 8);
+
+		for (int[] counts : holderCounts.values()) {
+			assertThat(counts[0]).isEqualTo(4);
+			assertThat(counts[1]).isEqualTo(2);
+			assertThat(counts[2]).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void colorVoid_keyCardOnlyWithOtherOpponent() {
+		StratifiedSampler sampler = new StratifiedSampler(unknownCards, new int[]{0, 8, 8},
+				Map.of(1, Set.of(Color.HEARTS)), Map.of(), 0, 10);
+
+		Map<Card, int[]> holderCounts = countHolders(sampler, 10);
+
+		assertThat(holderCounts.get(aceOfHearts)[2]).isEqualTo(10);
+	}
+
+	/**
+	 * Worlds per holder of every key card: undealt at index 0, player i at index i.
+	 */
+	private static Map<Card, int[]> countHolders(StratifiedSampler sampler, int worlds) {
+		Map<Card, int[]> holderCounts = new HashMap<>();
+		for (int i = 0; i < worlds; i++) {
+			for (Map.Entry<Card, Integer> entry : sampler.nextKeyCardHolders().entrySet()) {
+				int holder = entry.getValue();
+				holderCounts.computeIfAbsent(entry.getKey(), card -> new int[3])[holder == StratifiedSampler.UNDEALT ? 0 : holder]++;
+			}
+		}
+		return holderCounts;
+	}
+}
@@ -0,0 +1,142 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTest {
+
+	private static final long POSITION = 4;
+
+	private final List<Card> deckOfCards = new CardProvider(3).getShuffledDeckOfCards();
+
+	@Test
+	void transposedMoveOrders_reachSameEntry() {
+		// Bot wins both tricks with hearts whichever it leads first
+		SimulationState aceFirst = createHeartsLeadState();
+		playTrick(aceFirst, getCard(14, Color.HEARTS), getCard(7, Color.CLUBS), getCard(9, Color.CLUBS));
+		playTrick(aceFirst, getCard(13, Color.HEARTS), getCard(8, Color.CLUBS), getCard(10, Color.CLUBS));
+		SimulationState kingFirst = createHeartsLeadState();
+		playTrick(kingFirst, getCard(13, Color.HEARTS), getCard(8, Color.CLUBS), getCard(10, Color.CLUBS));
+		playTrick(kingFirst, getCard(14, Color.HEARTS), getCard(7, Color.CLUBS), getCard(9, Color.CLUBS));
+		TranspositionTable table = new TranspositionTable(1, MctsConfig.TranspositionReplacement.TWO_TIER);
+
+		int slot = table.store(aceFirst.getHash());
+		table.update(aceFirst.getHash(), slot, 1.0, 3);
+
+		assertThat(table.store(kingFirst.getHash())).isEqualTo(slot);
+		assertThat(table.averageReward(kingFirst.getHash(), slot)).isEqualTo(1.0);
+	}
+
+	@Test
+	void transposedNodes_shareAverageReward() {
+		List<MctsAction> actions = new CardProvider(3).getShuffledDeckOfCards().stream()
+				.filter(card -> card.getColor() == Color.CLUBS && card.getValue() <= 8)
+				.map(card -> (MctsAction) new MctsAction.PlayCard(card))
+				.toList();
+		TranspositionTable table = new TranspositionTable(1, MctsConfig.TranspositionReplacement.TWO_TIER);
+		MctsTree tree = MctsTree.create(100, actions);
+		int first = tree.addChild(MctsTree.ROOT, tree.pollUntriedAction(MctsTree.ROOT), List.of(), 0.0, true);
+		int second = tree.addChild(MctsTree.ROOT, tree.pollUntriedAction(MctsTree.ROOT), List.of(), 0.0, true);
+		// Both orders of the two cards reach the same position
+		tree.attachTransposition(first, table, POSITION);
+		tree.attachTransposition(second, table, POSITION);
+
+		tree.backpropagate(first, 1.0, false, 0, false);
+		tree.backpropagate(second, 0.0, false, 0, false);
+		tree.backpropagate(second, 0.5, false, 0, false);
+
+		int slot = table.store(POSITION);
+		assertThat(table.averageReward(POSITION, slot)).isEqualTo(0.5);
+		assertThat(tree.getTotalReward(first) / tree.getVisitCount(first)).isEqualTo(1.0);
+		tree.release();
+	}
+
+	@Test
+	void alwaysReplace_newcomerEvictsOccupant() {
+		TranspositionTable table = new TranspositionTable(1, MctsConfig.TranspositionReplacement.ALWAYS_REPLACE);
+		long colliding = POSITION + table.capacity();
+
+		int slot = table.store(POSITION);
+		table.update(POSITION, slot, 1.0, 10);
+
+		assertThat(table.store(colliding)).isEqualTo(slot);
+		assertThat(table.averageReward(POSITION, slot)).isNaN();
+		assertThat(table.averageReward(colliding, slot)).isNaN();
+		table.update(colliding, slot, 0.25, 1);
+		assertThat(table.averageReward(colliding, slot)).isEqualTo(0.25);
+	}
+
+	@Test
+	void twoTier_keepsMoreVisitedPosition() {
+		TranspositionTable table = new TranspositionTable(1, MctsConfig.TranspositionReplacement.TWO_TIER);
+		long second = POSITION + table.capacity();
+		long third = POSITION + 2L * table.capacity();
+
+		int firstSlot = table.store(POSITION);
+		table.update(POSITION, firstSlot, 1.0, 10);
+		int newcomerSlot = table.store(second);
+		assertThat(newcomerSlot).isNotEqualTo(firstSlot);
+
+		// A newcomer replaces the previous newcomer, never the more visited position
+		assertThat(table.store(third)).isEqualTo(newcomerSlot);
+		assertThat(table.averageReward(second, newcomerSlot)).isNaN();
+		assertThat(table.averageReward(POSITION, firstSlot)).isEqualTo(1.0);
+	}
+
+	@Test
+	void twoTier_promotesNewcomerVisitedMore() {
+		TranspositionTable table = new TranspositionTable(1, MctsConfig.TranspositionReplacement.TWO_TIER);
+		long second = POSITION + table.capacity();
+		long third = POSITION + 2L * table.capacity();
+
+		int firstSlot = table.store(POSITION);
+		table.update(POSITION, firstSlot, 1.0, 10);
+		int newcomerSlot = table.store(second);
+		table.update(second, newcomerSlot, 0.5, 20);
+
+		// The next newcomer moves the more visited one up and evicts the less visited one
+		assertThat(table.store(third)).isEqualTo(newcomerSlot);
+		assertThat(table.store(second)).isEqualTo(firstSlot);
+		assertThat(table.averageReward(second, firstSlot)).isEqualTo(0.5);
+		assertThat(table.averageReward(POSITION, firstSlot)).isNaN();
+	}
+
+	private SimulationState createHeartsLeadState() {
+		List<List<Card>> hands = new ArrayList<>();
+		hands.add(new ArrayList<>(List.of(getCard(14, Color.HEARTS), getCard(13, Color.HEARTS), getCard(12, Color.HEARTS))));
+		hands.add(new ArrayList<>(List.of(getCard(7, Color.CLUBS), getCard(8, Color.CLUBS), getCard(11, Color.CLUBS))));
+		hands.add(new ArrayList<>(List.of(getCard(9, Color.CLUBS), getCard(10, Color.CLUBS), getCard(12, Color.CLUBS))));
+
+		return new SimulationState(
+				hands,
+				new int[]{2, 0, 0},
+				new int[]{0, 0, 0},
+				new ArrayList<>(),
+				SimulationState.Phase.PLAYING,
+				0, 0, 0,
+				3,
+				0, 3
+		);
+	}
+
+	private static void playTrick(SimulationState state, Card... cards) {
+		for (Card card : cards) {
+			state.applyAction(new MctsAction.PlayCard(card));
+		}
+	}
+
+	private Card getCard(int value, Color color) {
+		return deckOfCards.stream()
+				.filter(card -> card.getValue() == value && card.getColor() == color)
+				.findFirst()
+				.get();
+	}
+}
@@ -0,0 +1,124 @@
+package com.lafi.cardgame.nazdarbaby.mcts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.card.CardProvider;
+import com.lafi.cardgame.nazdarbaby.card.Color;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ValueModelTest {
+
+	private List<Card> deckOfCards;
+
+	@BeforeEach
+	void setUp() {
+		CardProvider cardProvider = new CardProvider(3);
+		deckOfCards = cardProvider.getShuffledDeckOfCards();
+	}
+
+	private Card getCard(int value, Color color) {
+		return deckOfCards.stream()
+				.filter(card -> card.getValue() == value && card.getColor() == color)
+				.findFirst()
+				.get();
+	}
+
+	/**
+	 * Three tricks left, bot (player 0) leads and predicted 1.
+	 */
+	private SimulationState createState() {
+		List<List<Card>> hands = new ArrayList<>();
+		hands.add(new ArrayList<>(List.of(getCard(14, Color.HEARTS), getCard(7, Color.DIAMONDS),
+				getCard(8, Color.CLUBS))));
+		hands.add(new ArrayList<>(List.of(getCard(9, Color.DIAMONDS), getCard(7, Color.SPADES),
+				getCard(10, Color.CLUBS))));
+		hands.add(new ArrayList<>(List.of(getCard(10, Color.SPADES), getCard(9, Color.SPADES),
+				getCard(7, Color.HEARTS))));
+
+		return new SimulationState(
+				hands,
+				new int[]{1, 1, 1},
+				new int[]{0, 0, 0},
+				new ArrayList<>(),
+				SimulationState.Phase.PLAYING,
+				0, 0, 0,
+				3,
+				0, 3
+		);
+	}
+
+	@Test
+	void bundled_predictsReward() {
+		double value = ValueModel.bundled().predict(createState());
+
+		assertThat(value).isGreaterThan(SimulationState.MIN_REWARD);
+		assertThat(value).isLessThan(SimulationState.MAX_REWARD);
+	}
+
+	@Test
+	void saveAndLoad_samePredictions() throws IOException {
+		ValueModel model = ValueModel.bundled();
+		StringWriter writer = new StringWriter();
+		model.save(writer, "test");
+
+		ValueModel loaded = ValueModel.load(
+				new ByteArrayInputStream(writer.toString().getBytes(StandardCharsets.ISO_8859_1)));
+
+		assertThat(loaded.predict(createState())).isEqualTo(model.predict(createState()));
+	}
+
+	@Test
+	void load_missingFeatureThrows() {
+		byte[] properties = "bias=0.5\n".getBytes(StandardCharsets.ISO_8859_1);
+
+		assertThatThrownBy(() -> ValueModel.load(new ByteArrayInputStream(properties)))
+				.isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void truncatedRollout_estimatesAfterTricks() {
+		SimulationState state = createState();
+		double estimate = ValueModel.bundled().predict(state);
+
+		double reward = RolloutPolicy.rollout(state, null, 0, 0, ValueModel.bundled());
+
+		assertThat(reward).isEqualTo(estimate);
+		assertThat(state.getTricksPlayed()).isZero();
+	}
+
+	@Test
+	void truncatedRollout_playsGivenTricksFirst() {
+		SimulationState state = createState();
+
+		RolloutPolicy.rollout(state, null, 0, 1, ValueModel.bundled());
+
+		assertThat(state.getTricksPlayed()).isEqualTo(1);
+	}
+
+	@Test
+	void fit_beatsConstantOnSelfPlay() {
+		List<double[]> features = new ArrayList<>();
+		List<Double> rewards = new ArrayList<>();
+		ValueModelTrainer.selfPlay(2000, new Random(3), features, rewards);
+
+		ValueModel model = ValueModelTrainer.fit(features, rewards);
+
+		double mean = rewards.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+		double constantError = rewards.stream().mapToDouble(reward -> (reward - mean) * (reward - mean))
+				.average().orElseThrow();
+		assertThat(features).hasSize(rewards.size());
+		assertThat(ValueModelTrainer.meanSquaredError(model, features, rewards)).isLessThan(constantError);
+	}
+}
@@ -1,6 +1,7 @@
 package com.lafi.cardgame.nazdarbaby.provider;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
 
@@ -100,6 +101,15 @@ class BotSimulatorTest {
 	@Nested
 	class TryBotMoveTest {
 
+		@BeforeEach
+		void setUp() {
+			// The bot's move ends its turn; nobody moves after it
+			lenient().doAnswer(_ -> {
+				botSimulator.setActiveUser(null);
+				return null;
+			}).when(game).advanceAfterExpectedTakes();
+		}
+
 		@Test
 		void expectedTakes_cannotBeNegative() {
 			List<Card> cardPlaceholders = List.of(CARD_PLACEHOLDER, CARD_PLACEHOLDER, CARD_PLACEHOLDER);
@@ -0,0 +1,69 @@
+package com.lafi.cardgame.nazdarbaby.provider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.lafi.cardgame.nazdarbaby.card.Card;
+import com.lafi.cardgame.nazdarbaby.mcts.BotDifficulty;
+import com.lafi.cardgame.nazdarbaby.mcts.SearchScheduler;
+import com.lafi.cardgame.nazdarbaby.point.PointProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class GameTest {
+
+	@Test
+	void waitingBotSearch_leavesGameUnlocked() throws InterruptedException {
+		UserProvider userProvider = new UserProvider();
+		userProvider.addBot("bot1", BotDifficulty.HARD);
+		userProvider.addBot("bot2", BotDifficulty.HARD);
+		userProvider.addBot("bot3", BotDifficulty.HARD);
+		Game game = new Game(userProvider, new PointProvider());
+
+		SearchScheduler scheduler = SearchScheduler.shared();
+		CountDownLatch release = new CountDownLatch(1);
+		List<Thread> searches = new ArrayList<>();
+		Thread gameStart;
+		try {
+			// Fill every search slot so that the first bot's search has to wait for one
+			while (!scheduler.hasQueuedSearches()) {
+				searches.add(Thread.ofPlatform().start(() -> scheduler.run(
+						release, SearchScheduler.Priority.BACKGROUND, () -> awaitRelease(release))));
+				Thread.sleep(10);
+			}
+			int queuedBefore = scheduler.statistics().queueDepth();
+			gameStart = Thread.ofPlatform().start(() -> game.setGameInProgress(true));
+			for (int i = 0; i < 500 && scheduler.statistics().queueDepth() == queuedBefore; i++) {
+				Thread.sleep(10);
+			}
+			assertThat(scheduler.statistics().queueDepth()).isGreaterThan(queuedBefore);
+
+			Thread gameReader = Thread.ofPlatform().start(game::getCardPlaceholders);
+			assertThat(gameReader.join(Duration.ofSeconds(5))).isTrue();
+		} finally {
+			release.countDown();
+			for (Thread search : searches) {
+				search.join();
+			}
+		}
+
+		// The bots predict and play the first trick, then wait for the next-trick button
+		gameStart.join();
+		assertThat(game.getSetUsers()).allMatch(user -> user.getExpectedTakes() != null);
+		assertThat(game.getCardPlaceholders()).noneMatch(Card::isPlaceholder);
+	}
+
+	private static boolean awaitRelease(CountDownLatch release) {
+		try {
+			return release.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}